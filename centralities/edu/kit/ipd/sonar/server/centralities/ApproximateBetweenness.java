@@ -0,0 +1,142 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.ipd.sonar.server.CompactGraph;
+
+/**
+ * Base class for the betweenness-centralities approximated by sampling.
+ *
+ * Brandes' algorithm is only run from a random sample of pivot nodes and
+ * the result is extrapolated to all nodes. The number of pivots is derived
+ * from the configurable parameters betweenness.epsilon (the error bound
+ * relative to the square of the number of nodes) and betweenness.delta
+ * (the probability that the bound is exceeded). The pivots are drawn with
+ * the fixed seed betweenness.seed, so a graph always gets the same values.
+ *
+ * The class is not listed in the plugin configuration, only its
+ * subclasses are loaded.
+ *
+ * @see Brandes#sampleSize(int, int, double, double)
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+abstract class ApproximateBetweenness extends ArrayCentralityImpl {
+    /**
+     * Logger.
+     */
+    private static Logger log = LoggerFactory.getLogger(
+            ApproximateBetweenness.class);
+
+    /**
+     * The default error bound.
+     */
+    private static final double DEFAULT_EPSILON = 0.05;
+
+    /**
+     * The default probability of exceeding the error bound.
+     */
+    private static final double DEFAULT_DELTA = 0.1;
+
+    /**
+     * The error bound.
+     */
+    private final double epsilon;
+
+    /**
+     * The probability of exceeding the error bound.
+     */
+    private final double delta;
+
+    /**
+     * The seed for sampling the pivots.
+     */
+    private final long seed;
+
+    /**
+     * Creates a new centrality with the parameters from the configuration.
+     */
+    ApproximateBetweenness() {
+        epsilon = getParameter("betweenness.epsilon", DEFAULT_EPSILON);
+        delta = getParameter("betweenness.delta", DEFAULT_DELTA);
+        seed = (long) getParameter("betweenness.seed", 0);
+    }
+
+    /**
+     * Creates a new centrality with the given parameters.
+     *
+     * @param errorBound The error bound
+     * @param probability The probability of exceeding the error bound
+     * @param randomSeed The seed for sampling the pivots
+     */
+    ApproximateBetweenness(final double errorBound,
+            final double probability, final long randomSeed) {
+        epsilon = errorBound;
+        delta = probability;
+        seed = randomSeed;
+    }
+
+    /**
+     * Returns the number of values the centrality computes.
+     *
+     * @param cg The graph
+     * @return The number of nodes or edges
+     */
+    abstract int getItemCount(CompactGraph cg);
+
+    /**
+     * Runs Brandes' algorithm from the given pivots.
+     *
+     * @param cg The graph
+     * @param pivots The indices of the pivot nodes
+     * @return The unscaled betweenness of every node or edge
+     */
+    abstract double[] betweenness(CompactGraph cg, int[] pivots);
+
+    /**
+     * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[])
+     * @param cg The graph
+     * @param weights The array to write the values into
+     */
+    public void computeWeights(final CompactGraph cg, final double[] weights) {
+        int n = cg.getNodeCount();
+        int k = Brandes.sampleSize(n, getItemCount(cg), epsilon, delta);
+        double[] values = betweenness(cg, Brandes.samplePivots(n, k, seed));
+
+        double scale = 1.0;
+        if (k > 0) {
+            scale = (double) n / (double) k;
+        }
+        log.debug(getName() + " from " + k + " of " + n
+                + " nodes as pivots (epsilon " + epsilon + ", delta "
+                + delta + ")");
+
+        for (int i = 0; i < values.length; i++) {
+            weights[i] = values[i] * scale;
+        }
+    }
+
+    /**
+     * @see Centrality#getRequiredAPIVersion()
+     * @return The required api version
+     */
+    public int getRequiredAPIVersion() {
+        return API_VERSION;
+    }
+}
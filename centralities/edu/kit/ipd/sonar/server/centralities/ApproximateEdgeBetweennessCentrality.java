@@ -0,0 +1,104 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import java.util.HashMap;
+
+import edu.kit.ipd.sonar.server.CompactGraph;
+import edu.kit.ipd.sonar.server.Edge;
+import edu.kit.ipd.sonar.server.Graph;
+
+/**
+ * Approximates the betweenness-centrality on all edges of a graph.
+ *
+ * @see ApproximateBetweenness
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class ApproximateEdgeBetweennessCentrality
+    extends ApproximateBetweenness {
+    /**
+     * Creates a new centrality with the parameters from the configuration.
+     */
+    public ApproximateEdgeBetweennessCentrality() {
+        super();
+    }
+
+    /**
+     * Creates a new centrality with the given parameters.
+     *
+     * @param errorBound The error bound
+     * @param probability The probability of exceeding the error bound
+     * @param randomSeed The seed for sampling the pivots
+     */
+    ApproximateEdgeBetweennessCentrality(final double errorBound,
+            final double probability, final long randomSeed) {
+        super(errorBound, probability, randomSeed);
+    }
+
+    /**
+     * Return the Type of this centrality.
+     *
+     * @return The type.
+     */
+    public Type getType() {
+        return Type.EdgeCentrality;
+    }
+
+    /**
+     * @see ApproximateBetweenness#getItemCount(CompactGraph)
+     * @param cg The graph
+     * @return The number of edges
+     */
+    int getItemCount(final CompactGraph cg) {
+        return cg.getEdgeCount();
+    }
+
+    /**
+     * @see ApproximateBetweenness#betweenness(CompactGraph, int[])
+     * @param cg The graph
+     * @param pivots The indices of the pivot nodes
+     * @return The unscaled betweenness of every edge
+     */
+    double[] betweenness(final CompactGraph cg, final int[] pivots) {
+        return Brandes.edgeBetweenness(cg, pivots);
+    }
+
+    /**
+     * @see CentralityImpl#getWeight(Graph g)
+     * @param g The graph
+     * @return The mapping
+     */
+    public HashMap<Edge, Double> getWeight(final Graph g) {
+        return getEdgeWeights(g);
+    }
+
+    /**
+     * @see Centrality#getVersion()
+     * @return the version
+     */
+    public int getVersion() {
+        return 1;
+    }
+
+    /**
+     * @see Centrality#getName()
+     * @return The name
+     */
+    public String getName() {
+        return "Approximate Edge Betweenness";
+    }
+}
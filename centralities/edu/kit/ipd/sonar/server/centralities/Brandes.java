@@ -0,0 +1,316 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.ipd.sonar.server.CompactGraph;
+
+/**
+ * Brandes' algorithm for unweighted node and edge betweenness on a compact
+ * graph.
+ *
+ * The single source shortest path problems are independent, so the source
+ * nodes are handed out in small blocks to one worker per core. Every worker
+ * owns primitive arrays for distances, path counts and dependencies that are
+ * reused for all its sources and reset only where the last search touched
+ * them. Predecessors are not stored but found again through the incoming
+ * adjacency: v precedes w on a shortest path iff dist[v] == dist[w] - 1.
+ * The betweenness values of the workers are summed up at the end.
+ *<p/>
+ * For details see Brandes, Ulrik: "A Faster Algorithm for Betweenes
+ * Centrality", Journal of Mathematical Sociology 25(2):163-177, 2001.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class Brandes {
+    /**
+     * Logger.
+     */
+    private static Logger log = LoggerFactory.getLogger(Brandes.class);
+
+    /**
+     * Number of sources a worker takes at once.
+     */
+    private static final int BLOCK = 16;
+
+    /**
+     * Minimum number of sources per worker.
+     */
+    private static final int MIN_SOURCES_PER_TASK = 64;
+
+    /**
+     * The graph.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * The source nodes to sum up the dependencies for.
+     */
+    private final int[] sources;
+
+    /**
+     * True to accumulate edge instead of node betweenness.
+     */
+    private final boolean edges;
+
+    /**
+     * The index of the next source block to process.
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates a new calculation.
+     *
+     * @param g The graph
+     * @param from The source nodes
+     * @param edgeBetweenness True to calculate edge betweenness
+     */
+    private Brandes(final CompactGraph g, final int[] from,
+            final boolean edgeBetweenness) {
+        graph = g;
+        sources = from;
+        edges = edgeBetweenness;
+    }
+
+    /**
+     * Returns all node indices of a graph.
+     *
+     * @param g The graph
+     * @return The indices 0 to getNodeCount() - 1
+     */
+    static int[] allNodes(final CompactGraph g) {
+        int[] all = new int[g.getNodeCount()];
+        for (int v = 0; v < all.length; v++) {
+            all[v] = v;
+        }
+        return all;
+    }
+
+    /**
+     * Returns the number of pivots needed for an approximation within the
+     * given error bound.
+     *
+     * The dependency of a single source on a node or edge is at most n, so
+     * by Hoeffding's inequality and the union bound over all counted items,
+     * k >= ln(2 items / delta) / (2 epsilon^2) uniformly sampled pivots
+     * extrapolated by n / k are off by at most epsilon n^2 for every item
+     * with probability 1 - delta.
+     *
+     * @param nodes The number of nodes
+     * @param items The number of nodes or edges the values are calculated for
+     * @param epsilon The error bound relative to n^2
+     * @param delta The probability that the bound is exceeded
+     * @return The number of pivots, at most the number of nodes
+     */
+    static int sampleSize(final int nodes, final int items,
+            final double epsilon, final double delta) {
+        if (nodes == 0) {
+            return 0;
+        }
+        double k = Math.ceil(Math.log(2.0 * Math.max(1, items) / delta)
+                / (2.0 * epsilon * epsilon));
+        if (k >= nodes) {
+            return nodes;
+        }
+        return Math.max(1, (int) k);
+    }
+
+    /**
+     * Samples distinct pivot nodes uniformly at random.
+     *
+     * @param nodes The number of nodes
+     * @param k The number of pivots
+     * @param seed The seed of the random generator, so the same graph
+     *             always gets the same values
+     * @return The pivot node indices
+     */
+    static int[] samplePivots(final int nodes, final int k, final long seed) {
+        int[] all = new int[nodes];
+        for (int v = 0; v < nodes; v++) {
+            all[v] = v;
+        }
+
+        /* partial Fisher-Yates shuffle */
+        Random random = new Random(seed);
+        int[] pivots = new int[k];
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(nodes - i);
+            int tmp = all[i];
+            all[i] = all[j];
+            all[j] = tmp;
+            pivots[i] = all[i];
+        }
+        return pivots;
+    }
+
+    /**
+     * Calculates the node betweenness, summing up the dependencies of the
+     * given source nodes.
+     *
+     * @param g The graph
+     * @param from The source node indices
+     * @return The betweenness of every node index
+     */
+    static double[] nodeBetweenness(final CompactGraph g, final int[] from) {
+        return new Brandes(g, from, false).run();
+    }
+
+    /**
+     * Calculates the edge betweenness, summing up the dependencies of the
+     * given source nodes.
+     *
+     * @param g The graph
+     * @param from The source node indices
+     * @return The betweenness of every edge index
+     */
+    static double[] edgeBetweenness(final CompactGraph g, final int[] from) {
+        return new Brandes(g, from, true).run();
+    }
+
+    /**
+     * Runs the workers and sums up their results.
+     *
+     * @return The betweenness values
+     */
+    private double[] run() {
+        long start = System.currentTimeMillis();
+        int tasks = Parallel.getTaskCount(sources.length,
+                MIN_SOURCES_PER_TASK);
+
+        List<Callable<double[]>> workers
+            = new ArrayList<Callable<double[]>>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            workers.add(new Callable<double[]>() {
+                public double[] call() {
+                    return work();
+                }
+            });
+        }
+
+        double[] result = null;
+        for (double[] partial : Parallel.invokeAll(workers)) {
+            if (null == result) {
+                result = partial;
+            } else {
+                for (int i = 0; i < result.length; i++) {
+                    result[i] += partial[i];
+                }
+            }
+        }
+
+        log.debug("Betweenness of " + graph.getNodeCount() + " nodes, "
+                + graph.getEdgeCount() + " edges from " + sources.length
+                + " sources: " + tasks + " of "
+                + Parallel.getThreadCount() + " threads, "
+                + (System.currentTimeMillis() - start) + "ms");
+        return result;
+    }
+
+    /**
+     * Processes source blocks until all sources are done.
+     *
+     * @return The betweenness accumulated by this worker
+     */
+    private double[] work() {
+        int n = graph.getNodeCount();
+        int[] outOffsets = graph.getOutOffsets();
+        int[] targets = graph.getEdgeTargets();
+        int[] inOffsets = graph.getInOffsets();
+        int[] inSources = graph.getInSources();
+        int[] inEdges = graph.getInEdges();
+
+        int[] dist = new int[n];
+        double[] sigma = new double[n];
+        double[] delta = new double[n];
+        /* the bfs queue, read backwards it is the stack of Brandes */
+        int[] order = new int[n];
+        double[] acc;
+        if (edges) {
+            acc = new double[graph.getEdgeCount()];
+        } else {
+            acc = new double[n];
+        }
+
+        for (int v = 0; v < n; v++) {
+            dist[v] = -1;
+        }
+
+        int block;
+        while ((block = next.getAndIncrement() * BLOCK) < sources.length) {
+            int end = Math.min(sources.length, block + BLOCK);
+            for (int i = block; i < end; i++) {
+                int s = sources[i];
+
+                /* breadth first search counting the shortest paths */
+                dist[s] = 0;
+                sigma[s] = 1.0;
+                order[0] = s;
+                int head = 0;
+                int tail = 1;
+                while (head < tail) {
+                    int v = order[head++];
+                    for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (dist[w] < 0) {
+                            dist[w] = dist[v] + 1;
+                            order[tail++] = w;
+                        }
+                        if (dist[w] == dist[v] + 1) {
+                            sigma[w] += sigma[v];
+                        }
+                    }
+                }
+
+                /* accumulate the dependencies in reverse bfs order */
+                for (int k = tail - 1; k > 0; k--) {
+                    int w = order[k];
+                    double dw = 1.0 + delta[w];
+                    for (int p = inOffsets[w]; p < inOffsets[w + 1]; p++) {
+                        int v = inSources[p];
+                        if (dist[v] == dist[w] - 1) {
+                            double c = sigma[v] / sigma[w] * dw;
+                            delta[v] += c;
+                            if (edges) {
+                                acc[inEdges[p]] += c;
+                            }
+                        }
+                    }
+                    if (!edges) {
+                        acc[w] += delta[w];
+                    }
+                }
+
+                /* reset what this search touched */
+                for (int k = 0; k < tail; k++) {
+                    int v = order[k];
+                    dist[v] = -1;
+                    sigma[v] = 0.0;
+                    delta[v] = 0.0;
+                }
+            }
+        }
+
+        return acc;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+
+import edu.kit.ipd.sonar.server.Annotable;
+import edu.kit.ipd.sonar.server.CompactGraph;
+import edu.kit.ipd.sonar.server.TemporalDegreeIndex;
+
+/**
+ * Indegree, outdegree and their weighted variants of all nodes of a compact
+ * graph.
+ *
+ * All four degrees are computed in a single pass over the edges into
+ * primitive arrays indexed like the nodes of the compact graph. The degree
+ * plugins of the different languages only copy the array they are interested
+ * in. The engine of the most recent compact graph is kept, so the plugins
+ * share one pass per graph state.
+ *<p/>
+ * The degrees count interactions, so an edge that aggregates several
+ * interactions counts all of them. For a time window of the whole graph,
+ * the degrees are read from the TemporalDegreeIndex instead of a pass. They
+ * then count all interactions of a node within the window, including the
+ * ones with nodes created outside of it.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public final class DegreeEngine {
+    /**
+     * The engine computed last. Weak, so it does not keep old graphs alive.
+     */
+    private static WeakReference<DegreeEngine> last
+        = new WeakReference<DegreeEngine>(null);
+
+    /**
+     * The graph.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * Number of incoming interactions of every node.
+     */
+    private final double[] inDegrees;
+
+    /**
+     * Number of outgoing interactions of every node.
+     */
+    private final double[] outDegrees;
+
+    /**
+     * Sum of the original weights of the incoming edges of every node.
+     */
+    private final double[] weightedInDegrees;
+
+    /**
+     * Sum of the original weights of the outgoing edges of every node.
+     */
+    private final double[] weightedOutDegrees;
+
+    /**
+     * Computes the degrees of the given graph.
+     *
+     * @param cg The graph
+     */
+    private DegreeEngine(final CompactGraph cg) {
+        graph = cg;
+
+        int n = cg.getNodeCount();
+        inDegrees = new double[n];
+        outDegrees = new double[n];
+        weightedInDegrees = new double[n];
+        weightedOutDegrees = new double[n];
+
+        TemporalDegreeIndex index = TemporalDegreeIndex.ofWindow(cg);
+        if (null != index) {
+            index.getDegrees(cg, inDegrees, outDegrees, weightedInDegrees,
+                    weightedOutDegrees);
+            return;
+        }
+
+        int[] src = cg.getEdgeSources();
+        int[] dst = cg.getEdgeTargets();
+        double[] weights = cg.getEdgeWeights();
+        for (int e = 0; e < src.length; e++) {
+            int count = cg.getEdge(e).getCount();
+            outDegrees[src[e]] += count;
+            inDegrees[dst[e]] += count;
+            weightedOutDegrees[src[e]] += weights[e];
+            weightedInDegrees[dst[e]] += weights[e];
+        }
+    }
+
+    /**
+     * Returns the degrees of the given graph.
+     *
+     * @param cg The graph
+     * @return The degrees
+     */
+    public static synchronized DegreeEngine of(final CompactGraph cg) {
+        if (cg == null) {
+            throw new IllegalArgumentException("Graph is null");
+        }
+
+        DegreeEngine engine = last.get();
+        if (engine == null || engine.graph != cg) {
+            engine = new DegreeEngine(cg);
+            last = new WeakReference<DegreeEngine>(engine);
+        }
+        return engine;
+    }
+
+    /**
+     * Returns the number of incoming interactions of every node.
+     *
+     * @return The indegrees in node index order
+     */
+    public double[] getInDegrees() {
+        return inDegrees;
+    }
+
+    /**
+     * Returns the number of outgoing interactions of every node.
+     *
+     * @return The outdegrees in node index order
+     */
+    public double[] getOutDegrees() {
+        return outDegrees;
+    }
+
+    /**
+     * Returns the sum of the original weights of the incoming edges of
+     * every node. Edges without an original weight count as 0.
+     *
+     * @return The weighted indegrees in node index order
+     */
+    public double[] getWeightedInDegrees() {
+        return weightedInDegrees;
+    }
+
+    /**
+     * Returns the sum of the original weights of the outgoing edges of
+     * every node. Edges without an original weight count as 0.
+     *
+     * @return The weighted outdegrees in node index order
+     */
+    public double[] getWeightedOutDegrees() {
+        return weightedOutDegrees;
+    }
+
+    /**
+     * Maps the nodes of the graph to the given values.
+     *
+     * @param values One of the degree arrays of this engine
+     * @return The mapping
+     */
+    public HashMap<Annotable, Double> toMap(final double[] values) {
+        HashMap<Annotable, Double> res
+            = new HashMap<Annotable, Double>(values.length * 2);
+        for (int v = 0; v < values.length; v++) {
+            res.put(graph.getNode(v), values[v]);
+        }
+        return res;
+    }
+}
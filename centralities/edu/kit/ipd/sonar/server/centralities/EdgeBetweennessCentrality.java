@@ -16,20 +16,17 @@
 package edu.kit.ipd.sonar.server.centralities;
 
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Stack;
 
+import edu.kit.ipd.sonar.server.CompactGraph;
 import edu.kit.ipd.sonar.server.Edge;
 import edu.kit.ipd.sonar.server.Graph;
-import edu.kit.ipd.sonar.server.Node;
 
 /**
  * Calculate the betweenness-centrality on all edges of a graph.
  *
  * @author Till Heistermann <till.heistermann@student.kit.edu>
  */
-public class EdgeBetweennessCentrality extends CentralityImpl {
+public class EdgeBetweennessCentrality extends ArrayCentralityImpl {
     /**
      * Return the Type of this centrality.
      *
@@ -40,142 +37,29 @@ public class EdgeBetweennessCentrality extends CentralityImpl {
     }
 
     /**
-     * @see CentraltiyImpl#getWeight(Graph g)
-     * @param g The graph
-     * @return The mapping
+     * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[])
+     * @param cg The graph
+     * @param weights The array to write the values into
      */
-    public HashMap<Edge, Double> getWeight(final Graph g) {
-
-        if (g == null) {
-            throw new IllegalArgumentException("Graph passed to EdgeBetweenness"
-                        + " Centrality is null.");
-        }
-
+    public void computeWeights(final CompactGraph cg, final double[] weights) {
         /* Calculating the unweighted Edge-Betweenness centrality.
-         * I modified Brandes algorithm, which i used to calculate the
-         * Node Betweenness, so that it Calcultes the Edge-Betweenness
-         * For further information, please see the NodeBetweenness-
-         * Implementation within SONAR or read
+         * Brandes algorithm, which is used to calculate the
+         * Node Betweenness, is modified so that it calculates the
+         * Edge-Betweenness. For further information see Brandes or read
          * Brandes, Ulrik: "A Faster Algorithm for Betweenes Centrality",
          * Published in Journal of Mathematical Sociology 25(2):163-177, 2001.
          */
+        double[] values = Brandes.edgeBetweenness(cg, Brandes.allNodes(cg));
+        System.arraycopy(values, 0, weights, 0, values.length);
+    }
 
-        // init the betweenness-values for each node with 0.0:
-        HashMap<Edge, Double> betweenness = new HashMap<Edge, Double>();
-        for (Edge e : g.getEdgeList()) {
-            betweenness.put(e, 0.0);
-        }
-
-        for (Node startNode : g.getNodeList().values()) {
-
-            /* Use dijkstra's algorithm to calculate all shortest paths
-             * from the startode: */
-
-            //A Stack used to fetch the used nodes in reversed direction:
-            Stack<Node> destinationStack = new Stack<Node>();
-
-            /* For each node, store a list of incident edges over which
-             * shortest paths to that node lead: */
-            HashMap<Node, LinkedList<Edge>> shortestPathIncEdges =
-                        new HashMap<Node, LinkedList<Edge>>();
-
-            /* For each node, store how many shortest paths exist between it
-             * and the Startnode */
-            HashMap<Node, Integer> numberOfShortPaths =
-                        new HashMap<Node, Integer>();
-
-            /* For each node, store the length of the shortest path to it
-             * from the startnode */
-            HashMap<Node, Integer> shortestPathLength =
-                        new HashMap<Node, Integer>();
-
-            // init the HashMaps
-            for (Node n : g.getNodeList().values()) {
-                shortestPathIncEdges.put(n, new LinkedList<Edge>());
-                numberOfShortPaths.put(n, 0);
-                shortestPathLength.put(n, -1);
-            }
-            numberOfShortPaths.put(startNode, 1);
-            shortestPathLength.put(startNode, 0);
-
-            Queue<Node> bfsQueue = new LinkedList<Node>();
-            bfsQueue.add(startNode);
-
-            //the Dijkstra-main-loop:
-            while (!bfsQueue.isEmpty()) {
-                Node predecessor = bfsQueue.remove();
-                destinationStack.push(predecessor);
-
-
-                //repeat for all outgoing edges:
-                for (Edge edge : predecessor.getEdges()) {
-                    if (edge.isOutgoingEdge(predecessor)) {
-
-                        // get the node the edge is pointing to:
-                        Node neighbor = edge.getDestinationNode();
-
-                        //is the neighbor found for the first time?
-                        if (shortestPathLength.get(neighbor) < 0) {
-                            bfsQueue.add(neighbor);
-                            shortestPathLength.put(neighbor,
-                                    shortestPathLength.get(predecessor) + 1);
-                        }
-                        // Is the path found to the neighbor a shortest path?
-                        if (shortestPathLength.get(neighbor)
-                                == shortestPathLength.get(predecessor) + 1) {
-                            /* Add together the numbers of shortest paths and
-                             * append the predecessor to the list: */
-                            numberOfShortPaths.put(neighbor,
-                                      numberOfShortPaths.get(neighbor)
-                                    + numberOfShortPaths.get(predecessor));
-                            shortestPathIncEdges.get(neighbor)
-                                                    .add(edge);
-                        }
-                    }
-                }
-            }
-
-            /* For each edge, we calculate the dependency of the startnode
-             * on it. For an explanation what it means,
-             * please see Brandes' paper referenced above. */
-
-            // init the dependencys:
-            HashMap<Edge, Double> dependency =
-                        new HashMap<Edge, Double>();
-            for (Edge e : g.getEdgeList()) {
-                dependency.put(e, 0.0);
-            }
-
-            /* calculate the number of shortest paths through the edges
-             * from the startnode.
-             * therefore sum up the number of paths beginning with the
-             * node reached at last during dijkstra-bfs-search.
-             */
-
-            while (!destinationStack.isEmpty()) {
-                Node v = destinationStack.pop();
-                double depSum = 0.0;
-                for (Edge e : v.getEdges()) {
-                    if (e.isOutgoingEdge(v)) {
-                        depSum += dependency.get(e);
-                    }
-                }
-                for (Edge e : shortestPathIncEdges.get(v)) {
-
-                    dependency.put(e,
-                            ((double) numberOfShortPaths.get(e.getSourceNode())
-                            / (double) numberOfShortPaths.get(v))
-                            * (1.0 + depSum));
-
-                    // add the dependency to the overall betweeenness:
-                    betweenness.put(e,
-                            betweenness.get(e) + dependency.get(e));
-
-                }
-            }
-        }
-        return betweenness;
-
+    /**
+     * @see CentralityImpl#getWeight(Graph g)
+     * @param g The graph
+     * @return The mapping
+     */
+    public HashMap<Edge, Double> getWeight(final Graph g) {
+        return getEdgeWeights(g);
     }
 
     /**
@@ -183,7 +67,7 @@ public class EdgeBetweennessCentrality extends CentralityImpl {
      * @return The required api version
      */
     public int getRequiredAPIVersion() {
-        return 0;
+        return API_VERSION;
     }
 
     /**
@@ -17,6 +17,7 @@ package edu.kit.ipd.sonar.server.centralities;
 
 import java.util.HashMap;
 
+import edu.kit.ipd.sonar.server.CompactGraph;
 import edu.kit.ipd.sonar.server.Edge;
 import edu.kit.ipd.sonar.server.Graph;
 
@@ -27,31 +28,26 @@ import edu.kit.ipd.sonar.server.Graph;
  *
  * @author Till Heistermann <till.heistermann@student.kit.edu>
  */
-public class EdgeWeightCentrality extends CentralityImpl {
+public class EdgeWeightCentrality extends ArrayCentralityImpl {
 
 
+    /**
+     * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[])
+     * @param cg The graph
+     * @param weights The array to write the values into
+     */
+    public void computeWeights(final CompactGraph cg, final double[] weights) {
+        double[] original = cg.getEdgeWeights();
+        System.arraycopy(original, 0, weights, 0, original.length);
+    }
+
     /**
      * @see CentralityImpl#getWeight(Graph g)
      * @param g The graph
      * @return The mapping
      */
     public HashMap<Edge, Double> getWeight(final Graph g) {
-
-        if (g == null) {
-            throw new IllegalArgumentException(
-                    "Graph passed to EdgeWeight is null.");
-        }
-
-        HashMap<Edge, Double> weights = new HashMap<Edge, Double>();
-        for (Edge edge : g.getEdgeList()) {
-            if (edge.getOriginalWeight() != null) {
-                weights.put(edge, edge.getOriginalWeight());
-            } else {
-                weights.put(edge, 0.0);
-            }
-        }
-
-        return weights;
+        return getEdgeWeights(g);
     }
 
     /**
@@ -68,7 +64,7 @@ public class EdgeWeightCentrality extends CentralityImpl {
      * @return The required api version
      */
     public int getRequiredAPIVersion() {
-        return 0;
+        return API_VERSION;
     }
 
     /**
@@ -76,7 +72,7 @@ public class EdgeWeightCentrality extends CentralityImpl {
      * @return The version
      */
     public int getVersion() {
-        return 1;
+        return 2;
     }
 
     /**
@@ -18,29 +18,28 @@ package edu.kit.ipd.sonar.server.centralities
 
 import edu.kit.ipd.sonar.server._
 
-import scala.collection.JavaConversions._
-import scala.collection.mutable.Map
-import java.util.{HashMap => JavaHashMap}
-
 /**
  * Indegree calculations done in Scala.
  *
+ * The number of incoming interactions of a node. In a time window all
+ * interactions of the node within the window count, including the ones with
+ * nodes created outside of it, as of version 1.
+ *
+ * @see DegreeEngine
+ *
  * @author David Soria Parra <david.parra@student.kit..edu>
  */
-class IndegreeCentrality extends CentralityImpl {
-    def getWeight(g : edu.kit.ipd.sonar.server.Graph) : JavaHashMap[Annotable, java.lang.Double]= {
+class IndegreeCentrality extends ArrayCentralityImpl {
+    def computeWeights(g : CompactGraph, weights : Array[Double]) {
         if (g == null)
             throw new IllegalArgumentException("Graph is null")
-        val res = new JavaHashMap[Annotable, java.lang.Double]()
-        g.getNodeList.values.foreach(
-            (n : Node) => res.put(n, g.getEdgeList().filter(
-                (e : Edge) => e.isIncomingEdge(n)).size))
-        res 
+        val degrees = DegreeEngine.of(g).getInDegrees
+        System.arraycopy(degrees, 0, weights, 0, weights.length)
     }
 
     override def getType = Centrality.Type.NodeCentrality
-    override def getRequiredAPIVersion = 0
-    override def getVersion = 0
+    override def getRequiredAPIVersion = ArrayCentralityImpl.API_VERSION
+    override def getVersion = 1
     override def getName = "Indegree Scala"
 }
 
@@ -17,6 +17,7 @@ package edu.kit.ipd.sonar.server.centralities;
 
 import java.util.HashMap;
 
+import edu.kit.ipd.sonar.server.CompactGraph;
 import edu.kit.ipd.sonar.server.Graph;
 import edu.kit.ipd.sonar.server.Node;
 
@@ -27,31 +28,26 @@ import edu.kit.ipd.sonar.server.Node;
  *
  * @author Till Heistermann <till.heistermann@student.kit.edu>
  */
-public class NodeWeightCentrality extends CentralityImpl {
+public class NodeWeightCentrality extends ArrayCentralityImpl {
 
 
+    /**
+     * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[])
+     * @param cg The graph
+     * @param weights The array to write the values into
+     */
+    public void computeWeights(final CompactGraph cg, final double[] weights) {
+        double[] original = cg.getNodeWeights();
+        System.arraycopy(original, 0, weights, 0, original.length);
+    }
+
     /**
      * @see CentralityImpl#getWeight(Graph g)
      * @param g The graph
      * @return The mapping
      */
     public HashMap<Node, Double> getWeight(final Graph g) {
-
-        if (g == null) {
-            throw new IllegalArgumentException(
-                    "Graph passed to NodeWeight is null.");
-        }
-
-        HashMap<Node, Double> weights = new HashMap<Node, Double>();
-        for (Node node : g.getNodeList().values()) {
-            if (node.getOriginalWeight() != null) {
-                weights.put(node, node.getOriginalWeight());
-            } else {
-                weights.put(node, 0.0);
-            }
-        }
-
-        return weights;
+        return getNodeWeights(g);
     }
 
     /**
@@ -68,7 +64,7 @@ public class NodeWeightCentrality extends CentralityImpl {
      * @return The required api version
      */
     public int getRequiredAPIVersion() {
-        return 0;
+        return API_VERSION;
     }
 
     /**
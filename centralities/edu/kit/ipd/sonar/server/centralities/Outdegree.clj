@@ -23,10 +23,10 @@
 
 (ns edu.kit.ipd.sonar.server.centralities.Outdegree
     (:import
-        (edu.kit.ipd.sonar.server.centralities Centrality Centrality$Type CentralityImpl)
-        (java.util HashMap))
+        (edu.kit.ipd.sonar.server.centralities Centrality Centrality$Type
+          ArrayCentralityImpl DegreeEngine))
     (:gen-class
-        :extends edu.kit.ipd.sonar.server.centralities.CentralityImpl))
+        :extends edu.kit.ipd.sonar.server.centralities.ArrayCentralityImpl))
 
 ; we are a node centrality
 (defn -getType [this] Centrality$Type/NodeCentrality)
@@ -34,21 +34,17 @@
 ; name
 (defn -getName [this] "Outdegree (Clojure)")
 
-; current version
-(defn -getVersion [this] 0)
+; current version, counts all interactions within a time window since 1
+(defn -getVersion [this] 1)
 
 ; min requirements
-(defn -getRequiredAPIVersion [this] 0)
+(defn -getRequiredAPIVersion [this] ArrayCentralityImpl/API_VERSION)
 
-; the actual calculation
-(defn -getWeight[this graph]
-  (let [nodes (.values (.getNodeList graph))
-        result (new HashMap)]
-    (doseq [node nodes]
-      (.put result node
-        (double
-          (count
-            (filter
-              #(.isOutgoingEdge % node) (.getEdgeList graph))))))
-    result)
-)
+; the actual calculation, served from the shared degree engine; the values
+; of a previous window are not needed
+(defn -computeWeights
+  ([this graph weights]
+    (let [degrees (.getOutDegrees (DegreeEngine/of graph))]
+      (System/arraycopy degrees 0 weights 0 (alength weights))))
+  ([this graph weights previous]
+    (-computeWeights this graph weights)))
@@ -17,17 +17,22 @@ package edu.kit.ipd.sonar.server.centralities;
 
 import java.util.HashMap;
 
-import edu.kit.ipd.sonar.server.Annotable;
-import edu.kit.ipd.sonar.server.Edge;
+import edu.kit.ipd.sonar.server.CompactGraph;
 import edu.kit.ipd.sonar.server.Graph;
 import edu.kit.ipd.sonar.server.Node;
 
 /**
  * Calculates the outdegree of all nodes of a graph.
  *
+ * The outdegree is the number of outgoing interactions. In a time window
+ * it counts all interactions of the node within the window, including the
+ * ones with nodes created outside of it, as of version 2.
+ *
+ * @see DegreeEngine
+ *
  * @author Till Heistermann <till.heistermann@student.kit.edu>
  */
-public class OutdegreeCentrality extends CentralityImpl {
+public class OutdegreeCentrality extends ArrayCentralityImpl {
     /**
      * Return the Type of centrality.
      *
@@ -37,32 +42,23 @@ public class OutdegreeCentrality extends CentralityImpl {
         return Type.NodeCentrality;
     }
 
+    /**
+     * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[])
+     * @param cg The graph
+     * @param weights The array to write the values into
+     */
+    public void computeWeights(final CompactGraph cg, final double[] weights) {
+        double[] degrees = DegreeEngine.of(cg).getOutDegrees();
+        System.arraycopy(degrees, 0, weights, 0, weights.length);
+    }
+
     /**
      * @see CentralityImpl#getWeight(Graph g)
      * @param g The graph
      * @return The mapping
      */
     public HashMap<Node, Double> getWeight(final Graph g) {
-
-        if (g == null) {
-            throw new IllegalArgumentException(
-                    "Graph passed to Outdegree is null.");
-        }
-
-        HashMap<Node, Double> values = new HashMap<Node, Double>();
-
-        //add all nodes to the list and set their degree to 0.0:
-        for (Node node : g.getNodeList().values()) {
-            values.put(node, 0.0);
-        }
-
-        //increase the degree of each node by one for each outgoing edge:
-        for (Edge edge : g.getEdgeList()) {
-            double degree = values.get(edge.getSourceNode());
-            values.put(edge.getSourceNode(),
-                       (degree + 1));
-        }
-        return values;
+        return getNodeWeights(g);
     }
 
     /**
@@ -70,7 +66,7 @@ public class OutdegreeCentrality extends CentralityImpl {
      * @return The required api version
      */
     public int getRequiredAPIVersion() {
-        return 0;
+        return API_VERSION;
     }
 
     /**
@@ -78,7 +74,7 @@ public class OutdegreeCentrality extends CentralityImpl {
      * @return The version
      */
     public int getVersion() {
-        return 1;
+        return 2;
     }
 
     /**
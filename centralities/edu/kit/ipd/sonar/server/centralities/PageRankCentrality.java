@@ -15,9 +15,15 @@
  */
 package edu.kit.ipd.sonar.server.centralities;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
 
-import edu.kit.ipd.sonar.server.Edge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.ipd.sonar.server.CompactGraph;
 import edu.kit.ipd.sonar.server.Graph;
 import edu.kit.ipd.sonar.server.Node;
 
@@ -26,16 +32,50 @@ import edu.kit.ipd.sonar.server.Node;
  * Calculates the PageRank (PR) iteratively with a damp factor d = 0.85.
  * It Uses the formula
  * PR(node n) = (1 - d) + d * SUM(i={nodes linking to n}, (PR(i)/Outdegree(i))
+ *                      + d * SUM(i={nodes without outgoing edges}, PR(i)) / N
+ *<p/>
+ * The rank of nodes without outgoing edges is distributed evenly among all
+ * nodes, so the ranks always sum up to the number of nodes N. The power
+ * iteration stops as soon as the ranks changed by less than
+ * pagerank.tolerance per node on average (L1 norm), but after at most
+ * pagerank.maxIterations iterations. Both can be set in the configuration.
+ *<p/>
+ * For the windows of a time series the iteration starts from the ranks of
+ * the previous window, which usually converges in a few iterations.
  *
  * @author Till Heistermann <till.heistermann@student.kit.edu>
  */
-public class PageRankCentrality extends CentralityImpl {
+public class PageRankCentrality extends ArrayCentralityImpl {
+    /** Logger. */
+    private static Logger log = LoggerFactory.getLogger(
+            PageRankCentrality.class);
+
+    /** The default maximum number of iterations. */
+    private static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /** The default tolerance. */
+    private static final double DEFAULT_TOLERANCE = 1e-6;
+
+    /** Minimum number of nodes per parallel task. */
+    private static final int MIN_NODES_PER_TASK = 10000;
 
     /** The dampening factor. Usually set to 0.85. */
     private double dampFactor = 0.85;
 
-    /** The number of iterations that are calculated. */
-    private int maxIterations = 20;
+    /** The maximum number of iterations that are calculated. */
+    private final int maxIterations;
+
+    /** The average change per node at which the iteration stops. */
+    private final double tolerance;
+
+    /**
+     * Creates a new centrality with the parameters from the configuration.
+     */
+    public PageRankCentrality() {
+        maxIterations = (int) getParameter("pagerank.maxIterations",
+                DEFAULT_MAX_ITERATIONS);
+        tolerance = getParameter("pagerank.tolerance", DEFAULT_TOLERANCE);
+    }
 
     /**
      * Return the Type of centrality.
@@ -47,72 +87,187 @@ public class PageRankCentrality extends CentralityImpl {
     }
 
     /**
-     * @see CentralityImpl#getWeight(Graph g)
-     * @param g The graph
-     * @return The mapping
+     * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[])
+     * @param cg The graph
+     * @param weights The array to write the values into
      */
-    public HashMap<Node, Double> getWeight(final Graph g) {
-        if (g == null) {
-            throw new IllegalArgumentException(
-                    "Graph passed to PageRank is null.");
+    public void computeWeights(final CompactGraph cg, final double[] weights) {
+        //initialize all node's page rank with 1.0:
+        double[] pageRank = new double[cg.getNodeCount()];
+        for (int v = 0; v < pageRank.length; v++) {
+            pageRank[v] = 1.0;
         }
+        rank(cg, pageRank, weights);
+    }
 
-        HashMap<Node, Double> pageRank = new HashMap<Node, Double>();
+    /**
+     * Starts the iteration from the ranks of the previous window.
+     *
+     * New nodes start with 1.0. The ranks are scaled to sum up to the
+     * number of nodes again.
+     *
+     * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[],
+     *          PreviousWindow)
+     * @param cg The graph
+     * @param weights The array to write the values into
+     * @param previous The previous window
+     */
+    public void computeWeights(final CompactGraph cg, final double[] weights,
+            final PreviousWindow previous) {
+        int n = cg.getNodeCount();
+        double[] pageRank = new double[n];
+        for (int v = 0; v < n; v++) {
+            pageRank[v] = 1.0;
+        }
 
-        //initialize all node's page rank with 1.0:
-        for (Node node : g.getNodeList().values()) {
-            pageRank.put(node, 1.0);
+        int[] ids = previous.getGraph().getNodeIds();
+        double[] ranks = previous.getWeights();
+        for (int i = 0; i < ids.length; i++) {
+            int v = cg.indexOfId(ids[i]);
+            if (v >= 0 && !Double.isNaN(ranks[i])) {
+                pageRank[v] = ranks[i];
+            }
         }
 
-        HashMap<Node, Double> results = new HashMap<Node, Double>();
-        HashMap<Node, Double> temp;
-
-        HashMap<Node, Integer> outdegree = calcOutdegrees(g);
-        // iterate a number of times, so the PageRank-values can converge:
-        for (int i = 1; i <= maxIterations; i++) {
-            //calculate the new PageRank for all Nodes:
-            for (Node node : g.getNodeList().values()) {
-                double prSum = 0.0;
-                for (Edge edge : node.getEdges()) {
-                    if (edge.isIncomingEdge(node)) {
-                        Node other = edge.getSourceNode();
-                        prSum += pageRank.get(other) / outdegree.get(other);
-                        // as "other" is always the sourceNode of "edge", the
-                        // outdegree will be > 0 and we avoid DIV0 errors.
-                    }
-                }
-                results.put(node,
-                            (1 - dampFactor) + dampFactor * prSum);
+        double sum = 0.0;
+        for (int v = 0; v < n; v++) {
+            sum += pageRank[v];
+        }
+        for (int v = 0; sum > 0.0 && v < n; v++) {
+            pageRank[v] *= n / sum;
+        }
+        rank(cg, pageRank, weights);
+    }
+
+    /**
+     * Runs the power iteration.
+     *
+     * @param cg The graph
+     * @param initial The ranks to start from, overwritten
+     * @param weights The array to write the values into
+     */
+    private void rank(final CompactGraph cg, final double[] initial,
+            final double[] weights) {
+        int n = cg.getNodeCount();
+        double[] pageRank = initial;
+        double[] results = new double[n];
+        double[] share = new double[n];
+        double[] temp;
 
+        int tasks = Parallel.getTaskCount(n, MIN_NODES_PER_TASK);
+        int iterations = 0;
+        double change = 0.0;
+        // iterate until the PageRank-values have converged:
+        while (n > 0 && iterations < maxIterations) {
+            iterations++;
+
+            //the rank each node passes to every successor:
+            double dangling = 0.0;
+            for (int v = 0; v < n; v++) {
+                int outdegree = cg.getOutDegree(v);
+                if (outdegree == 0) {
+                    dangling += pageRank[v];
+                    share[v] = 0.0;
+                } else {
+                    share[v] = pageRank[v] / outdegree;
+                }
             }
 
-            //switch the pointers to the result- and pagerank-maps.
+            double base = (1 - dampFactor) + dampFactor * dangling / n;
+            change = iterate(cg, share, pageRank, results, base, tasks);
+
+            //switch the pointers to the result- and pagerank-arrays.
             temp = pageRank;
             pageRank = results;
             results = temp;
+
+            if (change / n < tolerance) {
+                break;
+            }
         }
 
-        return pageRank;
+        log.debug("PageRank of " + n + " nodes: " + iterations
+                + " iterations, change " + change + ", " + tasks + " tasks");
+
+        System.arraycopy(pageRank, 0, weights, 0, n);
+    }
+
+    /**
+     * @see CentralityImpl#getWeight(Graph g)
+     * @param g The graph
+     * @return The mapping
+     */
+    public HashMap<Node, Double> getWeight(final Graph g) {
+        return getNodeWeights(g);
     }
 
     /**
-     * Subroutine to Calc the Outdegrees of all Nodes within a graph.
-     * @param g The graph for which the outdegrees shall be calculated.
-     * @return a hashmap containing the outdegree of each node.
+     * Calculates the new PageRank of all nodes, in parallel for large
+     * graphs.
+     *
+     * @param cg The graph
+     * @param share The rank every node passes to each of its successors
+     * @param pageRank The current ranks
+     * @param results The array for the new ranks
+     * @param base The rank every node gets regardless of its predecessors
+     * @param tasks The number of parallel tasks
+     * @return The L1 norm of the change
      */
-    private HashMap<Node, Integer> calcOutdegrees(Graph g) {
+    private double iterate(final CompactGraph cg, final double[] share,
+            final double[] pageRank, final double[] results,
+            final double base, final int tasks) {
+        final int n = cg.getNodeCount();
+        if (tasks == 1) {
+            return update(cg, share, pageRank, results, base, 0, n);
+        }
+
+        List<Callable<Double>> parts = new ArrayList<Callable<Double>>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            final int from = (int) ((long) n * i / tasks);
+            final int to = (int) ((long) n * (i + 1) / tasks);
+            parts.add(new Callable<Double>() {
+                public Double call() {
+                    return update(cg, share, pageRank, results, base, from,
+                            to);
+                }
+            });
+        }
 
-        HashMap<Node, Integer> values = new HashMap<Node, Integer>();
-        //add all nodes to the list and set their degree to 0.0:
-        for (Node node : g.getNodeList().values()) {
-            values.put(node, 0);
+        double change = 0.0;
+        for (Double part : Parallel.invokeAll(parts)) {
+            change += part;
         }
-        //increase the degree of each node by one for each outgoing edge:
-        for (Edge edge : g.getEdgeList()) {
-            int degree = values.get(edge.getSourceNode());
-            values.put(edge.getSourceNode(), (degree + 1));
+        return change;
+    }
+
+    /**
+     * Calculates the new PageRank of a range of nodes.
+     *
+     * @param cg The graph
+     * @param share The rank every node passes to each of its successors
+     * @param pageRank The current ranks
+     * @param results The array for the new ranks
+     * @param base The rank every node gets regardless of its predecessors
+     * @param from The first node index (inclusive)
+     * @param to The last node index (exclusive)
+     * @return The L1 norm of the change within the range
+     */
+    private double update(final CompactGraph cg, final double[] share,
+            final double[] pageRank, final double[] results,
+            final double base, final int from, final int to) {
+        int[] inOffsets = cg.getInOffsets();
+        int[] inSources = cg.getInSources();
+        double change = 0.0;
+
+        for (int v = from; v < to; v++) {
+            double prSum = 0.0;
+            for (int p = inOffsets[v]; p < inOffsets[v + 1]; p++) {
+                prSum += share[inSources[p]];
+            }
+            results[v] = base + dampFactor * prSum;
+            change += Math.abs(results[v] - pageRank[v]);
         }
-        return values;
+        return change;
     }
 
     /**
@@ -120,7 +275,7 @@ public class PageRankCentrality extends CentralityImpl {
      * @return The required api version
      */
     public int getRequiredAPIVersion() {
-        return 0;
+        return API_VERSION;
     }
 
     /**
@@ -128,7 +283,7 @@ public class PageRankCentrality extends CentralityImpl {
      * @return The version
      */
     public int getVersion() {
-        return 1;
+        return 2;
     }
 
     /**
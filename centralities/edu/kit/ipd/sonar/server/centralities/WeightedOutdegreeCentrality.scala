@@ -17,31 +17,28 @@ package edu.kit.ipd.sonar.server.centralities
 
 import edu.kit.ipd.sonar.server._
 
-import scala.collection.JavaConversions._
-import scala.collection.mutable.Map
-import java.util.{HashMap => JavaHashMap}
-
 /**
- * Weighted indegree calculations done in Scala.
+ * Weighted outdegree calculations done in Scala.
+ *
+ * The sum of the original weights of the outgoing interactions of a node.
+ * In a time window all interactions of the node within the window count,
+ * including the ones with nodes created outside of it, as of version 2.
+ *
+ * @see DegreeEngine
  *
  * @author David Soria Parra <david.parra@student.kit..edu>
  */
-class WeightedOutdegreeCentrality extends CentralityImpl {
-    def getWeight(g : edu.kit.ipd.sonar.server.Graph) : JavaHashMap[Annotable, java.lang.Double]= {
+class WeightedOutdegreeCentrality extends ArrayCentralityImpl {
+    def computeWeights(g : CompactGraph, weights : Array[Double]) {
         if (g == null)
             throw new IllegalArgumentException("Graph is null")
-        val res = new JavaHashMap[Annotable, java.lang.Double]()
-        val edges = g.getEdgeList
-        g.getNodeList.values.foreach(
-            (n : Node) => res.put(n, edges.filter(
-                (e : Edge) => e.isOutgoingEdge(n)).map(
-                  (e : Edge) => e.getOriginalWeight.doubleValue).sum))
-        res 
+        val degrees = DegreeEngine.of(g).getWeightedOutDegrees
+        System.arraycopy(degrees, 0, weights, 0, weights.length)
     }
 
     override def getType = Centrality.Type.NodeCentrality
-    override def getRequiredAPIVersion = 0
-    override def getVersion = 0
+    override def getRequiredAPIVersion = ArrayCentralityImpl.API_VERSION
+    override def getVersion = 2
     override def getName = "Weighted Outdegree Scala"
 }
 
@@ -0,0 +1,201 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares building and walking the graph model with the layout it had
+ * before, a HashMap from boxed ids to nodes and one HashSet of edges per
+ * node.
+ *
+ * The synthetic graph has random edges between a tenth as many nodes,
+ * created with a fixed seed. Run it with "ant benchmark".
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class GraphBuildBenchmark {
+    /**
+     * The number of edges.
+     */
+    @Param({"1000000"})
+    private int edges;
+
+    /**
+     * The ids of the sources of the edges.
+     */
+    private int[] sources;
+
+    /**
+     * The ids of the destinations of the edges.
+     */
+    private int[] destinations;
+
+    /**
+     * A graph built from the edges.
+     */
+    private Graph graph;
+
+    /**
+     * The nodes of the graph with one edge set each, as before.
+     */
+    private HashMap<Node, HashSet<Edge>> legacyEdges;
+
+    /**
+     * Create the synthetic edges.
+     */
+    @Setup
+    public void setup() {
+        int nodes = Math.max(1, edges / 10);
+        Random random = new Random(42);
+        sources = new int[edges];
+        destinations = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            sources[i] = random.nextInt(nodes);
+            destinations[i] = random.nextInt(nodes);
+        }
+        graph = buildGraph();
+        legacyEdges = buildLegacy();
+    }
+
+    /**
+     * Build the graph with the node index and split edge lists.
+     *
+     * @return The graph
+     */
+    @Benchmark
+    public Graph buildGraph() {
+        Graph g = new Graph();
+        for (int i = 0; i < edges; i++) {
+            Node source = node(g, sources[i]);
+            Node destination = node(g, destinations[i]);
+            g.addEdge(new Edge(source, destination, i));
+        }
+        return g;
+    }
+
+    /**
+     * Build the same graph with the former layout.
+     *
+     * @return The edge set of every node
+     */
+    @Benchmark
+    public HashMap<Node, HashSet<Edge>> buildLegacy() {
+        HashMap<Integer, Node> nodes = new HashMap<Integer, Node>();
+        HashSet<Edge> edgeSet = new HashSet<Edge>();
+        HashMap<Node, HashSet<Edge>> adjacency
+            = new HashMap<Node, HashSet<Edge>>();
+        for (int i = 0; i < edges; i++) {
+            Node source = legacyNode(nodes, adjacency, sources[i]);
+            Node destination = legacyNode(nodes, adjacency, destinations[i]);
+            Edge e = new Edge(source, destination, i);
+            if (edgeSet.add(e)) {
+                adjacency.get(source).add(e);
+                adjacency.get(destination).add(e);
+            }
+        }
+        return adjacency;
+    }
+
+    /**
+     * Sum the out degrees using the outgoing edge lists.
+     *
+     * @param bh The blackhole
+     */
+    @Benchmark
+    public void outgoingEdges(final Blackhole bh) {
+        for (Node n : graph.getNodes()) {
+            bh.consume(n.getOutgoingEdges().size());
+        }
+    }
+
+    /**
+     * Sum the out degrees by filtering the edge sets by direction.
+     *
+     * @param bh The blackhole
+     */
+    @Benchmark
+    public void outgoingEdgesLegacy(final Blackhole bh) {
+        for (Map.Entry<Node, HashSet<Edge>> entry
+                : legacyEdges.entrySet()) {
+            int degree = 0;
+            for (Edge e : entry.getValue()) {
+                if (e.isOutgoingEdge(entry.getKey())) {
+                    degree++;
+                }
+            }
+            bh.consume(degree);
+        }
+    }
+
+    /**
+     * Returns the node with an id, adding it to the graph if necessary.
+     *
+     * @param g The graph
+     * @param id The id
+     * @return The node
+     */
+    private static Node node(final Graph g, final int id) {
+        Node n = g.getNode(id);
+        if (null == n) {
+            n = new Node(id, "", 0);
+            g.addNode(n);
+        }
+        return n;
+    }
+
+    /**
+     * Returns the node with an id, adding it to the former layout if
+     * necessary.
+     *
+     * @param nodes The nodes by id
+     * @param adjacency The edge sets by node
+     * @param id The id
+     * @return The node
+     */
+    private static Node legacyNode(final HashMap<Integer, Node> nodes,
+            final HashMap<Node, HashSet<Edge>> adjacency, final int id) {
+        Node n = nodes.get(id);
+        if (null == n) {
+            n = new Node(id, "", 0);
+            nodes.put(id, n);
+            adjacency.put(n, new HashSet<Edge>());
+        }
+        return n;
+    }
+}
@@ -19,6 +19,7 @@ import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.RemoteServiceRelativePath;
 import edu.kit.ipd.sonar.server.AuthenticationResult;
 import edu.kit.ipd.sonar.server.CalculationFailedException;
+import edu.kit.ipd.sonar.server.CentralitySeries;
 import edu.kit.ipd.sonar.server.DataException;
 import edu.kit.ipd.sonar.server.Graph;
 import edu.kit.ipd.sonar.server.NodeDoesNotExistException;
@@ -133,6 +134,73 @@ public interface RPCService extends RemoteService {
         throws CalculationFailedException, NodeDoesNotExistException,
         NotAuthorizedException, DataException;
 
+    /**
+     * Get the values of node centralities over a series of time windows.
+     *
+     * The windows have the given width. The first one starts at the start
+     * of the time boundary, the next ones every step later, as long as they
+     * end within the time boundary. Every window is calculated like a
+     * global graph with that time boundary and without a node limit.
+     *
+     * Note that the user needs to be logged in and
+     * needs admin rights to be able to use this method. Otherwise a
+     * NotAuthorizedException will be thrown.
+     *
+     * @param timeBoundary  The time boundary of the series.
+     * @param step          The time between the starts of two windows.
+     * @param width         The width of a window.
+     * @param centralities  The node centralities to calculate.
+     *
+     * @throws CalculationFailedException If the calculation fails.
+     * @throws NotAuthorizedException If the user is not authorized
+     * @throws DataException If the database fails to retreive the data.
+     *
+     * @return  The values of every node in every window.
+     */
+    CentralitySeries getCentralitySeries(TimeBoundary timeBoundary,
+                                int                     step,
+                                int                     width,
+                                ArrayList<Centrality>   centralities)
+        throws CalculationFailedException, NotAuthorizedException,
+        DataException;
+
+    /**
+     * Get the values of node centralities over a series of time windows
+     * around a central node.
+     *
+     * Every window is calculated like a peer graph with that time boundary.
+     * The series only holds the nodes that are at most hops hops away from
+     * the central node within the time boundary of the series.
+     *
+     * If the user is not an administrator he can only request the series of
+     * his own node. Otherwise a NotAuthorizedException will be thrown. The
+     * user has to be logged in.
+     *
+     * @param user          The user whose node will be the center node.
+     * @param timeBoundary  The time boundary of the series.
+     * @param step          The time between the starts of two windows.
+     * @param width         The width of a window.
+     * @param centralities  The node centralities to calculate.
+     * @param hops          The number of hops. Nodes that are more than
+     *                          'hops' hops away from the central node
+     *                          won't be included.
+     *
+     * @throws CalculationFailedException If the calculation fails.
+     * @throws NodeDoesNotExistException If the given user doesn't exists.
+     * @throws NotAuthorizedException If the user is not authorized
+     * @throws DataException If the database fails to retreive the data.
+     *
+     * @return  The values of the nodes around the user in every window.
+     */
+    CentralitySeries getPeerCentralitySeries(User      user,
+                                TimeBoundary            timeBoundary,
+                                int                     step,
+                                int                     width,
+                                ArrayList<Centrality>   centralities,
+                                int                     hops)
+        throws CalculationFailedException, NodeDoesNotExistException,
+        NotAuthorizedException, DataException;
+
     /**
      * Returns a hash of the database.
      *
@@ -18,6 +18,7 @@ package edu.kit.ipd.sonar.client.rpc;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import edu.kit.ipd.sonar.server.TimeBoundary;
 import edu.kit.ipd.sonar.server.AuthenticationResult;
+import edu.kit.ipd.sonar.server.CentralitySeries;
 import edu.kit.ipd.sonar.server.centralities.Centrality;
 import edu.kit.ipd.sonar.server.Graph;
 import edu.kit.ipd.sonar.server.User;
@@ -85,6 +86,41 @@ public interface RPCServiceAsync {
             ArrayList<Centrality> centralities, int hops,
             AsyncCallback<Graph> callback);
 
+    /**
+     * Get the values of node centralities over a series of time windows.
+     *
+     * @param timeBoundary  The time boundary of the series.
+     * @param step          The time between the starts of two windows.
+     * @param width         The width of a window.
+     * @param centralities  The node centralities to calculate.
+     *
+     * @param callback  An AsyncCallback that gets called when the data is
+     *                  available.
+     */
+    void getCentralitySeries(TimeBoundary timeBoundary, int step, int width,
+            ArrayList<Centrality> centralities,
+            AsyncCallback<CentralitySeries> callback);
+
+    /**
+     * Get the values of node centralities over a series of time windows
+     * around a central node.
+     *
+     * @param user          The user whose node will be the center node.
+     * @param timeBoundary  The time boundary of the series.
+     * @param step          The time between the starts of two windows.
+     * @param width         The width of a window.
+     * @param centralities  The node centralities to calculate.
+     * @param hops          The number of hops. Nodes that are more than
+     *                          'hops' hops away from the central node
+     *                          won't be included.
+     *
+     * @param callback  An AsyncCallback that gets called when the data is
+     *                  available.
+     */
+    void getPeerCentralitySeries(User user, TimeBoundary timeBoundary,
+            int step, int width, ArrayList<Centrality> centralities,
+            int hops, AsyncCallback<CentralitySeries> callback);
+
     /**
      * Returns a hash of the database.
      *
@@ -62,15 +62,6 @@ public interface Annotable {
     double getWeightForCentrality(Centrality c)
         throws InvalidCentralityException;
 
-    /**
-     * Implements an observer pattern that can be used by a higher level
-     * structure to get notifications about changes in the underlying
-     * annotables.
-     *
-     * @param listener The actual listener implementation
-     */
-    void addListener(AnnotableListener listener);
-
     /**
      * The creation time of the node.
      *
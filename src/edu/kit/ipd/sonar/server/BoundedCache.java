@@ -0,0 +1,212 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A memory bounded, least recently used cache.
+ *
+ * The cache evicts the least recently used entries as soon as either the
+ * number of entries or the estimated size of all values exceeds the
+ * configured limits. Implementations define how the size of a value is
+ * estimated. All methods are synchronized, so a single instance can be
+ * shared between request threads.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+abstract class BoundedCache<K, V> {
+    /**
+     * The initial capacity of the underlying map.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The load factor of the underlying map.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The entries in access order, the eldest entry first.
+     */
+    private final LinkedHashMap<K, V> entries
+        = new LinkedHashMap<K, V>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    /**
+     * The maximum number of entries.
+     */
+    private final int maxEntries;
+
+    /**
+     * The maximum estimated size of all values in bytes.
+     */
+    private final long maxBytes;
+
+    /**
+     * The estimated size of all cached values in bytes.
+     */
+    private long bytes = 0;
+
+    /**
+     * The number of successful lookups.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of failed lookups.
+     */
+    private long misses = 0;
+
+    /**
+     * The number of evicted entries.
+     */
+    private long evictions = 0;
+
+    /**
+     * Initialize a new cache.
+     *
+     * @param maxEntries The maximum number of entries
+     * @param maxBytes The maximum estimated size of all values in bytes
+     */
+    BoundedCache(final int maxEntries, final long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Estimates the memory used by the given value.
+     *
+     * @param value The value
+     * @return The estimated size in bytes
+     */
+    protected abstract long sizeOf(V value);
+
+    /**
+     * Returns the cached value for the given key.
+     *
+     * @param key The key
+     * @return The value or null if not cached
+     */
+    synchronized V get(final K key) {
+        V value = entries.get(key);
+        if (null == value) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Adds a value to the cache and evicts old entries if necessary.
+     *
+     * Values that are larger than the whole cache are not cached at all.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    synchronized void put(final K key, final V value) {
+        long size = sizeOf(value);
+        if (size > maxBytes) {
+            return;
+        }
+
+        V old = entries.put(key, value);
+        if (null != old) {
+            bytes -= sizeOf(old);
+        }
+        bytes += size;
+
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes)
+                && it.hasNext()) {
+            Map.Entry<K, V> eldest = it.next();
+            bytes -= sizeOf(eldest.getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    synchronized void invalidate() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return The number of entries
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated size of all cached values.
+     *
+     * @return The size in bytes
+     */
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of successful lookups.
+     *
+     * @return The number of hits
+     */
+    synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of failed lookups.
+     *
+     * @return The number of misses
+     */
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries evicted because of the limits.
+     *
+     * @return The number of evictions
+     */
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns a short summary of the cache statistics.
+     *
+     * @return The statistics
+     */
+    @Override
+    public synchronized String toString() {
+        return entries.size() + " entries, " + bytes + " bytes, "
+            + hits + " hits, " + misses + " misses, "
+            + evictions + " evictions";
+    }
+}
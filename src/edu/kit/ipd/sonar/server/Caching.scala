@@ -22,21 +22,36 @@ import java.util.ArrayList
  * A trait that enables a calculator to have caching.
  *
  *<p>
- * This traits caches calculations transparently for any calculator.
+ * This traits caches calculations transparently for any calculator. All
+ * caching calculators share the bounded CalculationCache, which is
+ * invalidated whenever the database reloads the graph.
  *</p>
  *
  * @author David Soria Parra <david.parra@student.kit.edu>
  */
 trait Caching extends Calculator {
-    protected val cache: Set[Int] = Set()
+    protected val cache = CalculationCache.getInstance
 
     @throws(classOf[CalculationFailedException])
     abstract override def calc(graph: Graph, centralities: ArrayList[CentralityImpl],
         bound: TimeBoundary, limit: java.lang.Integer, centralNode: Node): Graph = {
-        if (!cache.contains(graph.getStateHash)) {
+        if (null == graph || null == centralities) {
             return super.calc(graph, centralities, bound, limit, centralNode)
         }
-        super.calc(graph, centralities, bound, limit, centralNode)
+
+        val key = cache.key(this, graph, centralities, bound, limit, centralNode)
+        val cached = cache.get(key)
+        if (null != cached) {
+            log debug ("cache hit (" + cache + ")")
+            return cached
+        }
+
+        val result = super.calc(graph, centralities, bound, limit, centralNode)
+        /* don't cache the database graph itself */
+        if (result ne graph) {
+            cache.put(key, result)
+        }
+        result
     }
 
 }
@@ -0,0 +1,215 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.Centrality;
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Caches the results of Calculator#calc.
+ *
+ * A result is identified by the state of the graph it was calculated from,
+ * the calculator, the requested centralities, the time boundary, the limit
+ * and the central node. All caching calculators share the same instance, so
+ * the cache is bounded once for the whole service. The limits are taken
+ * from the configuration.
+ *
+ * @see Caching
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class CalculationCache extends BoundedCache<CalculationCache.Key, Graph> {
+    /**
+     * Estimated memory used by a node without its weights.
+     */
+    private static final long NODE_BYTES = 200;
+
+    /**
+     * Estimated memory used by an edge without its weights.
+     */
+    private static final long EDGE_BYTES = 150;
+
+    /**
+     * Estimated memory used by a single centrality weight of an annotable.
+     */
+    private static final long WEIGHT_BYTES = 64;
+
+    /**
+     * The shared instance.
+     */
+    private static CalculationCache instance = null;
+
+    /**
+     * Identifies a calculation.
+     */
+    static final class Key {
+        /**
+         * The calculator.
+         */
+        private final String calculator;
+
+        /**
+         * The full state hash of the graph.
+         */
+        private final long stateHash;
+
+        /**
+         * The requested centralities in the requested order.
+         */
+        private final List<Centrality> centralities;
+
+        /**
+         * The time boundary, null if unused.
+         */
+        private final TimeBoundary bound;
+
+        /**
+         * The limit.
+         */
+        private final int limit;
+
+        /**
+         * The id of the central node, -1 if unused.
+         */
+        private final int centralNode;
+
+        /**
+         * Initialize a new key.
+         *
+         * @param calculator The calculator
+         * @param stateHash The state hash of the graph
+         * @param centralities The centralities
+         * @param bound The time boundary or null
+         * @param limit The limit
+         * @param centralNode The central node id or -1
+         */
+        Key(final String calculator, final long stateHash,
+                final List<Centrality> centralities, final TimeBoundary bound,
+                final int limit, final int centralNode) {
+            this.calculator = calculator;
+            this.stateHash = stateHash;
+            this.centralities = centralities;
+            this.bound = bound;
+            this.limit = limit;
+            this.centralNode = centralNode;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            if (null == bound) {
+                if (null != k.bound) {
+                    return false;
+                }
+            } else if (!bound.equals(k.bound)) {
+                return false;
+            }
+            return stateHash == k.stateHash
+                && limit == k.limit
+                && centralNode == k.centralNode
+                && calculator.equals(k.calculator)
+                && centralities.equals(k.centralities);
+        }
+
+        @Override
+        public int hashCode() {
+            //Checkstyle: Start ignoring magic numbers
+            int hash = 17;
+            hash = 31 * hash + (int) (stateHash ^ (stateHash >>> 32));
+            hash = 31 * hash + calculator.hashCode();
+            hash = 31 * hash + centralities.hashCode();
+            if (null != bound) {
+                hash = 31 * hash + bound.hashCode();
+            }
+            hash = 31 * hash + limit;
+            return 31 * hash + centralNode;
+            //Checkstyle: Stop ignoring magic numbers
+        }
+    }
+
+    /**
+     * Initialize a new cache.
+     *
+     * @param maxEntries The maximum number of cached results
+     * @param maxBytes The maximum estimated size of all results
+     */
+    CalculationCache(final int maxEntries, final long maxBytes) {
+        super(maxEntries, maxBytes);
+    }
+
+    /**
+     * Returns the shared instance, configured by the current configuration.
+     *
+     * @return The cache
+     */
+    static synchronized CalculationCache getInstance() {
+        if (null == instance) {
+            Configuration config = Configuration.getInstance();
+            instance = new CalculationCache(
+                    config.getCalculatorCacheMaxEntries(),
+                    config.getCalculatorCacheMaxBytes());
+        }
+        return instance;
+    }
+
+    /**
+     * Creates the key for a calculation.
+     *
+     * @param calculator The calculator
+     * @param g The graph
+     * @param c The requested centralities
+     * @param bound The time boundary or null
+     * @param limit The limit or null
+     * @param centralNode The central node or null
+     * @return The key
+     */
+    Key key(final Calculator calculator, final Graph g,
+            final List<CentralityImpl> c, final TimeBoundary bound,
+            final Integer limit, final Node centralNode) {
+        List<Centrality> centralities = new ArrayList<Centrality>();
+        for (CentralityImpl impl : c) {
+            centralities.add(impl.getCentrality());
+        }
+        int lim = 0;
+        if (null != limit) {
+            lim = limit.intValue();
+        }
+        int central = -1;
+        if (null != centralNode) {
+            central = centralNode.getId();
+        }
+        return new Key(calculator.getClass().getName(), g.getFullStateHash(),
+                centralities, bound, lim, central);
+    }
+
+    /**
+     * Estimates the memory used by a result graph.
+     *
+     * @param g The graph
+     * @return The estimated size in bytes
+     */
+    @Override
+    protected long sizeOf(final Graph g) {
+        long weights = g.getCentralities().size();
+        return g.getNodeList().size() * (NODE_BYTES + weights * WEIGHT_BYTES)
+            + g.getEdgeList().size() * (EDGE_BYTES + weights * WEIGHT_BYTES);
+    }
+}
@@ -16,6 +16,7 @@
 package edu.kit.ipd.sonar.server
 
 import edu.kit.ipd.sonar.server.centralities.{Centrality, CentralityImpl}
+import edu.kit.ipd.sonar.server.centralities.ArrayCentralityImpl
 import edu.kit.ipd.sonar.server.centralities.Centrality.Type
 
 import scala.collection.JavaConversions._
@@ -42,6 +43,10 @@ import org.slf4j.LoggerFactory
  * </p><p>
  * The class offers methods to generate graphs. These methods should be used
  * to play well with the Caching trait that overwrites these methods.
+ * </p><p>
+ * Time boundaries and limits are applied as GraphView filters on the
+ * compact graph of the original graph. The centralities are calculated on
+ * the view and only the resulting graph is copied.
  * </p>
  *
  * @author David Soria Parra <david.parra@student.kit.edu>
@@ -72,9 +77,34 @@ abstract class Calculator {
      * @param bound    The boundary
      * @return The bounded graph
      */
-    def bounded(oldGraph: Graph, bound: TimeBoundary) = {
-        graph (oldGraph) {
-            (a:Annotable) => bound.inBoundary(a.getTime)
+    def bounded(oldGraph: Graph, bound: TimeBoundary) =
+        GraphView.of(oldGraph, aggregate).bounded(bound).materialize
+
+    /**
+     * Returns true if repeated interactions are aggregated in the views.
+     *
+     * @return True to aggregate
+     */
+    def aggregate = Configuration.getInstance.aggregateEdges
+
+    /**
+     * Returns a view of a graph, bounded if the boundary does not contain
+     * the whole graph. Repeated interactions are aggregated within the
+     * boundary if configured.
+     *
+     * @param graph The graph
+     * @param bound An optional time boundary. Null if unused
+     * @return The view
+     */
+    def view(graph: Graph, bound: TimeBoundary) = {
+        val all = GraphView.of(graph, aggregate)
+        if (null != bound && !bound.contains(graph.getMaxTimeBoundary)) {
+            val index = TemporalIndex.of(graph.getCompactGraph)
+            log debug ("bounded view of at most " + index.estimateNodes(bound)
+                + " nodes and " + index.estimateEdges(bound) + " edges")
+            all.bounded(bound)
+        } else {
+            all
         }
     }
 
@@ -122,26 +152,145 @@ abstract class Calculator {
         case Type.EdgeCentrality => graph.getEdgeList
     }
 
+    /**
+     * Returns the index of an annotable in a compact graph.
+     *
+     * Nodes and edges are looked up by their ids, as the annotables of the
+     * new graph are copies of the ones in the compact graph.
+     *
+     * @param cg The compact graph
+     * @param a  The node or edge
+     * @return The index or -1 if it is not part of the compact graph
+     */
+    private def indexOf(cg: CompactGraph, a: Annotable): Int = a match {
+        case n: Node => cg.indexOf(n)
+        case e: Edge => cg.indexOf(e)
+        case _ => -1
+    }
+
     /**
      * Add centralities to a graph.
      *
      * Calculates the centrality values based on the old graph and adds the
-     * items to the new graph.
+     * items to the new graph. The values are calculated through the array
+     * based interface on the compact graph of the old graph.
      *
      * @param graph    The graph to add the centrality values to
      * @param oldGraph The graph to be used to calculates values on it
      * @param c        The centrality impl to be used to calc the values.
      * @return The graph with the centralities added
      */
+    @throws(classOf[CalculationFailedException])
     def addCentralities(graph: Graph, oldGraph: Graph, c: CentralityImpl): Unit = {
-        val vals = c.getWeight(oldGraph)
+        addWeights(graph, oldGraph.getCompactGraph, c, weights(oldGraph, c))
+    }
+
+    /**
+     * Add a list of centralities to a graph.
+     *
+     * The centralities are calculated concurrently on the old graph, each
+     * into its own array. The values are added to the new graph afterwards
+     * on the calling thread, one centrality after the other. Values already
+     * calculated on the same graph are taken from the centrality cache.
+     *
+     * @see CentralityEvaluator
+     * @see CentralityCache
+     *
+     * @param graph        The graph to add the centrality values to
+     * @param oldGraph     The graph to be used to calculates values on it
+     * @param centralities The centralities to calculate
+     */
+    @throws(classOf[CalculationFailedException])
+    def addAllCentralities(graph: Graph, oldGraph: Graph,
+        centralities: ArrayList[CentralityImpl]): Unit = {
+        addAllCentralities(graph, oldGraph.getCompactGraph, centralities)
+    }
+
+    /**
+     * Add a list of centralities to a graph, calculated on a compact graph.
+     *
+     * @see #addAllCentralities(Graph, Graph, ArrayList)
+     *
+     * @param graph        The graph to add the centrality values to
+     * @param cg           The compact graph or view to calculate the values on
+     * @param centralities The centralities to calculate
+     */
+    @throws(classOf[CalculationFailedException])
+    def addAllCentralities(graph: Graph, cg: CompactGraph,
+        centralities: ArrayList[CentralityImpl]): Unit = {
+        val vals = CentralityCache.getInstance.getWeights(cg, centralities)
+        for (i <- 0 until centralities.size) {
+            addWeights(graph, cg, centralities.get(i), vals.get(i))
+        }
+    }
+
+    /**
+     * Returns the values of a centrality on a graph.
+     *
+     * The values are taken from the centrality cache if possible and must
+     * not be modified.
+     *
+     * @param graph The graph
+     * @param c     The centrality
+     * @return The values indexed like the nodes or edges of the compact graph
+     */
+    @throws(classOf[CalculationFailedException])
+    def weights(graph: Graph, c: CentralityImpl): Array[Double] =
+        weights(graph.getCompactGraph, c)
+
+    /**
+     * Returns the values of a centrality on a compact graph or view.
+     *
+     * @param cg The compact graph
+     * @param c  The centrality
+     * @return The values indexed like the nodes or edges of the compact graph
+     */
+    @throws(classOf[CalculationFailedException])
+    def weights(cg: CompactGraph, c: CentralityImpl): Array[Double] =
+        CentralityCache.getInstance.getWeights(cg, c)
+
+    /**
+     * Add the values of a centrality to the annotables of a graph.
+     *
+     * The values of the annotables owned by the graph are collected in a
+     * single column that is handed to the graph at once, which computes the
+     * bounds and statistics of the centrality.
+     *
+     * Every requested annotable needs a value. A value of NaN is stored
+     * like any other, a missing one fails the calculation.
+     *
+     * @param graph The graph to add the centrality values to
+     * @param cg    The compact graph the values were calculated on
+     * @param c     The centrality
+     * @param vals  The values indexed like the nodes or edges of cg
+     * @throws CalculationFailedException If a value is missing
+     */
+    @throws(classOf[CalculationFailedException])
+    private def addWeights(graph: Graph, cg: CompactGraph, c: CentralityImpl,
+        vals: Array[Double]): Unit = {
+        val centrality = c.getCentrality
+        val column = new Array[Double](graph.getSlotCount(centrality.getType))
+        val present = new Array[Boolean](column.length)
         annotables(graph, c).foreach((a: Annotable) => {
-            if (!vals.containsKey(a))
+            val i = indexOf(cg, a)
+            if (i < 0 || ArrayCentralityImpl.isMissing(vals(i)))
                 throw new CalculationFailedException("Returned " + a + ", values "
                     + "from the centrality plugins do "
                     + "not contain the requested annotable object")
-            a.addWeight(c.getCentrality, vals.get(a))
+            val slot = a match {
+                case n: Node => n.getSlot(graph)
+                case e: Edge => e.getSlot(graph)
+                case _ => -1
+            }
+            if (slot < 0)
+                a.addWeight(centrality, vals(i))
+            else {
+                column(slot) = vals(i)
+                present(slot) = true
+            }
         })
+        graph.setWeights(centrality, column, present,
+            Configuration.getInstance.getStatisticsQuantiles)
     }
 }
 
@@ -113,18 +113,19 @@ final class CalculatorUtil {
         Graph newGraph = getNewGraphOfNodes(oldGraph, workingSet, af);
 
         /* .. before we can continue with adding the edges */
-        HashMap<Integer, Node> lookup = newGraph.getNodeList();
         for (Node oldNode : workingSet) {
-            for (Edge oldEdge : oldNode.getEdges()) {
+            /* every edge between two nodes of the working set is an
+               outgoing edge of one of them */
+            for (Edge oldEdge : oldNode.getOutgoingEdges()) {
                 /* use id's as we new nodes and old nodes have
                    different references, so equals won't work */
-                int outgoingNodeIdx = oldEdge.getDestinationNode().getId();
-                int incomingNodeIdx = oldEdge.getSourceNode().getId();
-                if (lookup.containsKey(outgoingNodeIdx)
-                        && lookup.containsKey(incomingNodeIdx)
+                Node source = newGraph.getNode(
+                        oldEdge.getSourceNode().getId());
+                Node destination = newGraph.getNode(
+                        oldEdge.getDestinationNode().getId());
+                if (null != source && null != destination
                         && (af == null || af.accept(oldEdge))) {
-                    Edge newEdge = new Edge(lookup.get(incomingNodeIdx),
-                            lookup.get(outgoingNodeIdx),
+                    Edge newEdge = new Edge(source, destination,
                             oldEdge.getTime());
                     newGraph.addEdge(newEdge);
                  }
@@ -0,0 +1,270 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.Centrality;
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Caches the values of single centralities.
+ *
+ * The values of a centrality are stored as the array calculated on the
+ * compact graph. A result is identified by the centrality (name and version)
+ * and the compact graph it was calculated on. The compact graph is identified
+ * by its full state hash and its number of nodes and edges, so a graph and a
+ * view with the same content share the values. This covers the state of
+ * the database graph, the time boundary and the node set. For a time window
+ * the interactions of the window with the rest of the graph are part of
+ * the key as well, as the degrees of a window count them. Global and peer
+ * requests on the same graph, and the node limit of the global calculator,
+ * therefore share the values. As the key depends only on the content of the
+ * graph, results of unchanged time windows stay valid when the database
+ * graph is reloaded.
+ *<p/>
+ * The cached arrays are shared and must not be modified. The limits are
+ * taken from the configuration. The cache is only used if calculator
+ * caching is enabled.
+ *
+ * @see CentralityEvaluator
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class CentralityCache
+    extends BoundedCache<CentralityCache.Key, double[]> {
+    /**
+     * Estimated memory used by an array without its values.
+     */
+    private static final long ARRAY_BYTES = 16;
+
+    /**
+     * Memory used by a single value.
+     */
+    private static final long VALUE_BYTES = 8;
+
+    /**
+     * The shared instance.
+     */
+    private static CentralityCache instance = null;
+
+    /**
+     * True if values are cached.
+     */
+    private final boolean enabled;
+
+    /**
+     * Identifies the values of a centrality on a graph.
+     */
+    static final class Key {
+        /**
+         * The full state hash of the graph.
+         */
+        private final long stateHash;
+
+        /**
+         * The window hash of the graph.
+         */
+        private final long windowHash;
+
+        /**
+         * The number of nodes of the graph.
+         */
+        private final int nodes;
+
+        /**
+         * The number of edges of the graph.
+         */
+        private final int edges;
+
+        /**
+         * The centrality.
+         */
+        private final Centrality centrality;
+
+        /**
+         * Initialize a new key.
+         *
+         * @param cg The compact graph
+         * @param c The centrality
+         */
+        Key(final CompactGraph cg, final Centrality c) {
+            stateHash = cg.getStateHash();
+            windowHash = cg.getWindowHash();
+            nodes = cg.getNodeCount();
+            edges = cg.getEdgeCount();
+            centrality = c;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return stateHash == k.stateHash
+                && windowHash == k.windowHash
+                && nodes == k.nodes
+                && edges == k.edges
+                && centrality.equals(k.centrality);
+        }
+
+        @Override
+        public int hashCode() {
+            //Checkstyle: Start ignoring magic numbers
+            int hash = 17;
+            hash = 31 * hash + (int) (stateHash ^ (stateHash >>> 32));
+            hash = 31 * hash + (int) (windowHash ^ (windowHash >>> 32));
+            hash = 31 * hash + nodes;
+            hash = 31 * hash + edges;
+            return 31 * hash + centrality.hashCode();
+            //Checkstyle: Stop ignoring magic numbers
+        }
+    }
+
+    /**
+     * Initialize a new cache.
+     *
+     * @param enabled True to cache values
+     * @param maxEntries The maximum number of cached results
+     * @param maxBytes The maximum estimated size of all results
+     */
+    CentralityCache(final boolean enabled, final int maxEntries,
+            final long maxBytes) {
+        super(maxEntries, maxBytes);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the shared instance, configured by the current configuration.
+     *
+     * @return The cache
+     */
+    static synchronized CentralityCache getInstance() {
+        if (null == instance) {
+            Configuration config = Configuration.getInstance();
+            instance = new CentralityCache(
+                    config.calculatorCachingEnabled(),
+                    config.getCentralityCacheMaxEntries(),
+                    config.getCentralityCacheMaxBytes());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the values of a centrality on a graph, calculated or cached.
+     *
+     * @param g The graph
+     * @param c The centrality
+     * @return The values indexed like the nodes or edges of the compact graph
+     * @throws CalculationFailedException if the centrality failed
+     */
+    double[] getWeights(final Graph g, final CentralityImpl c)
+        throws CalculationFailedException {
+        return getWeights(g.getCompactGraph(), c);
+    }
+
+    /**
+     * Returns the values of a centrality on a compact graph, calculated or
+     * cached.
+     *
+     * @param cg The compact graph or view
+     * @param c The centrality
+     * @return The values indexed like the nodes or edges of the compact graph
+     * @throws CalculationFailedException if the centrality failed
+     */
+    double[] getWeights(final CompactGraph cg, final CentralityImpl c)
+        throws CalculationFailedException {
+        List<CentralityImpl> list = new ArrayList<CentralityImpl>(1);
+        list.add(c);
+        return getWeights(cg, list).get(0);
+    }
+
+    /**
+     * Returns the values of a list of centralities on a graph.
+     *
+     * Centralities that are not cached are calculated concurrently.
+     *
+     * @param g The graph
+     * @param centralities The centralities
+     * @return The values of every centrality in the order of the
+     *         centralities
+     * @throws CalculationFailedException if a centrality failed
+     */
+    List<double[]> getWeights(final Graph g,
+            final List<CentralityImpl> centralities)
+        throws CalculationFailedException {
+        return getWeights(g.getCompactGraph(), centralities);
+    }
+
+    /**
+     * Returns the values of a list of centralities on a compact graph.
+     *
+     * Centralities that are not cached are calculated concurrently.
+     *
+     * @param cg The compact graph or view
+     * @param centralities The centralities
+     * @return The values of every centrality in the order of the
+     *         centralities
+     * @throws CalculationFailedException if a centrality failed
+     */
+    List<double[]> getWeights(final CompactGraph cg,
+            final List<CentralityImpl> centralities)
+        throws CalculationFailedException {
+        if (!enabled) {
+            return CentralityEvaluator.evaluate(cg, centralities);
+        }
+
+        List<double[]> results = new ArrayList<double[]>(centralities.size());
+        List<Key> keys = new ArrayList<Key>(centralities.size());
+        List<CentralityImpl> missing = new ArrayList<CentralityImpl>();
+        for (CentralityImpl c : centralities) {
+            Key key = new Key(cg, c.getCentrality());
+            double[] values = get(key);
+            if (null == values) {
+                missing.add(c);
+            }
+            keys.add(key);
+            results.add(values);
+        }
+
+        if (missing.isEmpty()) {
+            return results;
+        }
+
+        List<double[]> calculated = CentralityEvaluator.evaluate(cg, missing);
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (null == results.get(i)) {
+                double[] values = calculated.get(next++);
+                results.set(i, values);
+                put(keys.get(i), values);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Estimates the memory used by the values of a centrality.
+     *
+     * @param values The values
+     * @return The estimated size in bytes
+     */
+    @Override
+    protected long sizeOf(final double[] values) {
+        return ARRAY_BYTES + values.length * VALUE_BYTES;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.ArrayCentralityImpl;
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+import edu.kit.ipd.sonar.server.centralities.Parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates the centralities requested for a graph concurrently.
+ *
+ * Every centrality is calculated as a task of the shared pool of
+ * Parallel and writes into its own array. Centralities that split their work
+ * into tasks again use the same pool, see Parallel for how the nesting is
+ * bounded. The centralities only read
+ * the compact graph, so they do not interfere with each other. The values are
+ * added to the nodes and edges afterwards by the calling thread, so the weight
+ * maps of the annotables and the min/max tracking of the graph are never
+ * changed concurrently.
+ *
+ * @see Calculator#addCentralities
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class CentralityEvaluator {
+    /**
+     * The logger.
+     */
+    private static Logger log
+        = LoggerFactory.getLogger(CentralityEvaluator.class);
+
+    /**
+     * Utility class.
+     */
+    private CentralityEvaluator() {
+    }
+
+    /**
+     * Calculates the values of the given centralities on a graph.
+     *
+     * A single centrality is calculated on the calling thread.
+     *
+     * @param cg The graph
+     * @param centralities The centralities
+     * @return The values of every centrality in the order of the
+     *         centralities, indexed like the nodes or edges of the graph
+     * @throws CalculationFailedException if a centrality failed with a
+     *         checked exception or the calling thread was interrupted
+     */
+    static List<double[]> evaluate(final CompactGraph cg,
+            final List<CentralityImpl> centralities)
+        throws CalculationFailedException {
+        List<double[]> results = new ArrayList<double[]>(centralities.size());
+        if (centralities.size() == 1) {
+            results.add(ArrayCentralityImpl.adapt(
+                        centralities.get(0)).getWeights(cg));
+            return results;
+        }
+
+        List<Callable<double[]>> tasks
+            = new ArrayList<Callable<double[]>>(centralities.size());
+        for (CentralityImpl c : centralities) {
+            final ArrayCentralityImpl impl = ArrayCentralityImpl.adapt(c);
+            tasks.add(new Callable<double[]>() {
+                public double[] call() {
+                    long start = System.currentTimeMillis();
+                    double[] values = impl.getWeights(cg);
+                    log.debug(impl.getName() + " took "
+                        + (System.currentTimeMillis() - start) + "ms");
+                    return values;
+                }
+            });
+        }
+
+        try {
+            results.addAll(Parallel.execute(tasks));
+            return results;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            log.error("centrality failed: " + cause);
+            throw new CalculationFailedException("Calculation failed: "
+                    + cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CalculationFailedException("Calculation interrupted");
+        }
+    }
+}
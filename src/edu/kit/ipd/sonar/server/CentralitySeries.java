@@ -0,0 +1,197 @@
+/*
+ * This file is part of Sonar.
+ *
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.Centrality;
+import com.google.gwt.user.client.rpc.IsSerializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The values of centralities over a series of time windows.
+ *
+ * The windows have the same width and start at a fixed step from each
+ * other. For every centrality and window the series holds one value per
+ * node of the series, either every node of the graph or the ego network
+ * of a central node. Nodes that are not part of a window have the value
+ * NaN in that window.
+ *
+ * The class is used by both the server and the client.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class CentralitySeries implements IsSerializable {
+    /**
+     * The centralities of the series.
+     */
+    private ArrayList<Centrality> centralities;
+
+    /**
+     * The start time of every window.
+     */
+    private int[] windowStarts;
+
+    /**
+     * The width of every window.
+     */
+    private int width;
+
+    /**
+     * The ids of the nodes of the series in ascending order.
+     */
+    private int[] nodeIds;
+
+    /**
+     * The values of every centrality and window, in the order of the node
+     * ids. The values of window w of centrality c are in the row
+     * c * windowStarts.length + w.
+     */
+    private double[][] values;
+
+    /**
+     * Initialize a new object.
+     */
+    CentralitySeries() {
+    }
+
+    /**
+     * Initialize a new series.
+     *
+     * @param centralities The centralities
+     * @param starts The start time of every window
+     * @param width The width of every window
+     * @param ids The ids of the nodes of the series in ascending order
+     * @param values The values of every centrality and window
+     */
+    CentralitySeries(final ArrayList<Centrality> centralities,
+            final int[] starts, final int width, final int[] ids,
+            final double[][] values) {
+        this.centralities = centralities;
+        this.windowStarts = starts;
+        this.width = width;
+        this.nodeIds = ids;
+        this.values = values;
+    }
+
+    /**
+     * Returns the centralities of the series.
+     *
+     * @return The centralities
+     */
+    public ArrayList<Centrality> getCentralities() {
+        return centralities;
+    }
+
+    /**
+     * Returns the number of windows.
+     *
+     * @return The number of windows
+     */
+    public int getWindowCount() {
+        return windowStarts.length;
+    }
+
+    /**
+     * Returns the time boundary of a window.
+     *
+     * @param window The window
+     * @return The time boundary
+     */
+    public TimeBoundary getWindow(final int window) {
+        int start = windowStarts[window];
+        return new TimeBoundary(start, windowEnd(start, width));
+    }
+
+    /**
+     * Returns the ids of the nodes of the series in ascending order.
+     *
+     * @return The node ids
+     */
+    public int[] getNodeIds() {
+        return nodeIds;
+    }
+
+    /**
+     * Returns the values of a centrality in a window.
+     *
+     * @param c The centrality
+     * @param window The window
+     * @return The values in the order of the node ids
+     * @throws InvalidCentralityException if the centrality is not part of
+     * the series
+     */
+    public double[] getValues(final Centrality c, final int window)
+        throws InvalidCentralityException {
+        return values[row(c) + window];
+    }
+
+    /**
+     * Returns the values of a centrality of one node over all windows.
+     *
+     * @param c The centrality
+     * @param nodeId The id of the node
+     * @return The value of every window, NaN if the node is not part of a
+     *         window
+     * @throws InvalidCentralityException if the centrality is not part of
+     * the series
+     * @throws NodeDoesNotExistException if the node does not exist
+     */
+    public double[] getSeries(final Centrality c, final int nodeId)
+        throws InvalidCentralityException, NodeDoesNotExistException {
+        int v = Arrays.binarySearch(nodeIds, nodeId);
+        if (v < 0) {
+            throw new NodeDoesNotExistException();
+        }
+
+        int first = row(c);
+        double[] res = new double[windowStarts.length];
+        for (int w = 0; w < res.length; w++) {
+            res[w] = values[first + w][v];
+        }
+        return res;
+    }
+
+    /**
+     * Returns the first row of a centrality.
+     *
+     * @param c The centrality
+     * @return The row of the first window
+     * @throws InvalidCentralityException if the centrality is not part of
+     * the series
+     */
+    private int row(final Centrality c) throws InvalidCentralityException {
+        int i = centralities.indexOf(c);
+        if (i < 0) {
+            throw new InvalidCentralityException(c);
+        }
+        return i * windowStarts.length;
+    }
+
+    /**
+     * Returns the last time of a window.
+     *
+     * @param start The start of the window
+     * @param width The width of the window
+     * @return The end of the window, at most Integer.MAX_VALUE
+     */
+    static int windowEnd(final int start, final int width) {
+        long end = (long) start + width - 1;
+        if (end > Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) end;
+    }
+}
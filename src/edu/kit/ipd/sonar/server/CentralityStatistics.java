@@ -0,0 +1,212 @@
+/*
+ * This file is part of Sonar.
+ *
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+import java.util.Arrays;
+
+/**
+ * Summary statistics of the values of a centrality in a graph.
+ *
+ * The statistics are computed in a single pass over the weight column of a
+ * centrality once it is calculated. Missing values and NaN are skipped,
+ * as NaN has no order.
+ * Quantiles are optional as they need the values to be sorted.
+ *
+ * The class is used by both the server and the client, for example to
+ * scale the values for the display.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class CentralityStatistics implements IsSerializable {
+    /**
+     * The number of values.
+     */
+    private int count;
+
+    /**
+     * The smallest value.
+     */
+    private double min = Double.NaN;
+
+    /**
+     * The largest value.
+     */
+    private double max = Double.NaN;
+
+    /**
+     * The mean of the values.
+     */
+    private double mean = Double.NaN;
+
+    /**
+     * The standard deviation of the values.
+     */
+    private double stddev = Double.NaN;
+
+    /**
+     * The quantiles at i / (quantiles.length - 1), null if they were not
+     * computed.
+     */
+    private double[] quantiles;
+
+    /**
+     * Initialize a new object.
+     *
+     * Necessary for serialization
+     */
+    CentralityStatistics() {
+    }
+
+    /**
+     * Compute the statistics of a weight column without missing values.
+     *
+     * @param values The values
+     * @param intervals The number of intervals between the quantiles or 0
+     *                  to skip the quantiles
+     */
+    CentralityStatistics(final double[] values, final int intervals) {
+        this(values, null, intervals);
+    }
+
+    /**
+     * Compute the statistics of a weight column.
+     *
+     * @param values The values
+     * @param present Marks the values that are present, null if all are
+     * @param intervals The number of intervals between the quantiles or 0
+     *                  to skip the quantiles
+     */
+    CentralityStatistics(final double[] values, final boolean[] present,
+            final int intervals) {
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = 0; i < values.length; i++) {
+            double v = values[i];
+            if (counts(values, present, i)) {
+                if (0 == count) {
+                    min = v;
+                    max = v;
+                } else {
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                sum += v;
+                sumOfSquares += v * v;
+                count++;
+            }
+        }
+        if (0 == count) {
+            return;
+        }
+
+        mean = sum / count;
+        /* rounding can make the variance of equal values slightly negative */
+        stddev = Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+
+        if (intervals > 0) {
+            double[] sorted = new double[count];
+            int n = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (counts(values, present, i)) {
+                    sorted[n++] = values[i];
+                }
+            }
+            Arrays.sort(sorted);
+
+            quantiles = new double[intervals + 1];
+            for (int i = 0; i <= intervals; i++) {
+                quantiles[i] = sorted[(int) ((long) i * (count - 1)
+                        / intervals)];
+            }
+        }
+    }
+
+    /**
+     * Returns true if a value is part of the statistics.
+     *
+     * @param values The values
+     * @param present Marks the values that are present, null if all are
+     * @param i The index of the value
+     * @return True if the value is present and not NaN
+     */
+    private static boolean counts(final double[] values,
+            final boolean[] present, final int i) {
+        return (null == present || present[i]) && !Double.isNaN(values[i]);
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return The number of nodes or edges with a value other than NaN
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest value.
+     *
+     * @return The smallest value or NaN if there are no values
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value.
+     *
+     * @return The largest value or NaN if there are no values
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the mean of the values.
+     *
+     * @return The mean or NaN if there are no values
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the standard deviation of the values.
+     *
+     * @return The standard deviation or NaN if there are no values
+     */
+    public double getStandardDeviation() {
+        return stddev;
+    }
+
+    /**
+     * Returns the quantiles.
+     *
+     * The quantile i is the value at the rank i / intervals, the first one
+     * is the minimum and the last one is the maximum.
+     *
+     * @return The quantiles or null if they were not computed
+     */
+    public double[] getQuantiles() {
+        if (null == quantiles) {
+            return null;
+        }
+        double[] copy = new double[quantiles.length];
+        System.arraycopy(quantiles, 0, copy, 0, quantiles.length);
+        return copy;
+    }
+}
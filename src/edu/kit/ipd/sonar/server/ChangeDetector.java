@@ -0,0 +1,38 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.hibernate.HibernateException;
+
+/**
+ * Detects changes of the data base the graph is loaded from.
+ *
+ * A change detector returns a token describing the current state of the
+ * data base. Two tokens are compared with equals; if they differ, the data
+ * base has changed and the graph has to be refreshed. Probing should be
+ * much cheaper than loading the graph.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+interface ChangeDetector {
+    /**
+     * Returns a token describing the current state of the data base.
+     *
+     * @return The token, never null
+     * @throws HibernateException if the data base cannot be queried
+     */
+    Object probe() throws HibernateException;
+}
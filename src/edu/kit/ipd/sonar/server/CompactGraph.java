@@ -0,0 +1,1049 @@
+/*
+ * This file is part of Sonar.
+ *
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An immutable, int indexed snapshot of a graph in compressed sparse row
+ * (CSR) layout.
+ *
+ * Nodes are numbered densly from 0 to getNodeCount() - 1 in ascending order
+ * of their database id. Edges are numbered from 0 to getEdgeCount() - 1 in
+ * ascending order of (source index, destination index, creation time), so
+ * the outgoing edges of node v are exactly the edges outOffsets[v] to
+ * outOffsets[v + 1] - 1. Repeated interactions between two nodes are
+ * ordered by their time, so the numbering does not depend on the order the
+ * edges were added in. Incoming edges are stored in a second CSR structure
+ * that refers back to the edge numbers.
+ *<p/>
+ * The snapshot is built once per graph state by Graph#getCompactGraph and is
+ * shared by all centralities and calculators working on that graph. The
+ * arrays returned by the getters are the internal arrays and must not be
+ * modified.
+ *<p/>
+ * A compact graph can also be built as a subgraph of another compact graph,
+ * for example for a time bounded view. Such a subgraph shares the node and
+ * edge objects with the original and does not copy them. The aggregated
+ * form of a compact graph merges repeated interactions between two nodes
+ * into one edge per pair.
+ *
+ * @see Graph#getCompactGraph()
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public final class CompactGraph {
+    /**
+     * Added to the state hash of an aggregated graph, so it differs from
+     * the state hash of the interactions it was built from.
+     */
+    private static final long AGGREGATED_KEY = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Orders nodes by their id.
+     */
+    private static final Comparator<Node> BY_ID = new Comparator<Node>() {
+        public int compare(final Node a, final Node b) {
+            if (a.getId() < b.getId()) {
+                return -1;
+            }
+            if (a.getId() > b.getId()) {
+                return 1;
+            }
+            return 0;
+        }
+    };
+
+    /**
+     * Orders edges by their creation time.
+     */
+    private static final Comparator<Edge> BY_TIME = new Comparator<Edge>() {
+        public int compare(final Edge a, final Edge b) {
+            if (a.getTime() < b.getTime()) {
+                return -1;
+            }
+            if (a.getTime() > b.getTime()) {
+                return 1;
+            }
+            return 0;
+        }
+    };
+
+    /**
+     * The graph the snapshot was built from. For subgraphs a copy of the
+     * selected nodes and edges, built on demand.
+     */
+    private transient volatile Graph graph;
+
+    /**
+     * The sum of the keys of all nodes and edges, as Graph#getStateHash.
+     */
+    private final long stateHash;
+
+    /**
+     * True if the graph aggregates repeated interactions between two nodes.
+     */
+    private final boolean aggregateEdges;
+
+    /**
+     * The nodes ordered by their id.
+     */
+    private final Node[] nodes;
+
+    /**
+     * The database ids of the nodes in ascending order.
+     */
+    private final int[] nodeIds;
+
+    /**
+     * The creation time of every node.
+     */
+    private final int[] nodeTimes;
+
+    /**
+     * The original weight of every node, 0.0 if not set.
+     */
+    private final double[] nodeWeights;
+
+    /**
+     * The edges in CSR order.
+     */
+    private final Edge[] edges;
+
+    /**
+     * The source node index of every edge.
+     */
+    private final int[] edgeSources;
+
+    /**
+     * The destination node index of every edge.
+     */
+    private final int[] edgeTargets;
+
+    /**
+     * The creation time of every edge.
+     */
+    private final int[] edgeTimes;
+
+    /**
+     * The original weight of every edge, 0.0 if not set.
+     */
+    private final double[] edgeWeights;
+
+    /**
+     * Offsets into the outgoing adjacency, length getNodeCount() + 1.
+     */
+    private final int[] outOffsets;
+
+    /**
+     * Offsets into the incoming adjacency, length getNodeCount() + 1.
+     */
+    private final int[] inOffsets;
+
+    /**
+     * The source node index of every incoming adjacency slot.
+     */
+    private final int[] inSources;
+
+    /**
+     * The edge number of every incoming adjacency slot.
+     */
+    private final int[] inEdges;
+
+    /**
+     * The time window this graph was cut out of a whole graph with, null if
+     * it is not a time window.
+     */
+    private final TimeBoundary window;
+
+    /**
+     * The whole graph of the time window, null if this is not a time
+     * window.
+     */
+    private final CompactGraph windowBase;
+
+    /**
+     * The sum of the keys of the interactions within the time window that
+     * are not part of this graph, 0 if this is not a time window.
+     */
+    private final long windowHash;
+
+    /**
+     * The aggregated form of this graph, built on demand.
+     */
+    private transient volatile CompactGraph aggregated;
+
+    /**
+     * Builds a new snapshot of the given graph.
+     *
+     * The graph must not be modified while the snapshot is built.
+     *
+     * @param g The graph
+     */
+    CompactGraph(final Graph g) {
+        graph = g;
+        stateHash = g.getFullStateHash();
+        aggregateEdges = g.isAggregatingEdges();
+        window = null;
+        windowBase = null;
+        windowHash = 0;
+
+        nodes = g.getNodes();
+        int n = nodes.length;
+        Arrays.sort(nodes, BY_ID);
+
+        nodeIds = new int[n];
+        nodeTimes = new int[n];
+        nodeWeights = new double[n];
+        for (int i = 0; i < n; i++) {
+            nodeIds[i] = nodes[i].getId();
+            nodeTimes[i] = nodes[i].getTime();
+            nodeWeights[i] = weightOf(nodes[i].getOriginalWeight());
+        }
+
+        int m = g.getEdgeList().size();
+        Edge[] unsorted = g.getEdgeList().toArray(new Edge[m]);
+        /* both counting sorts are stable, so edges between the same nodes
+           stay ordered by time */
+        Arrays.sort(unsorted, BY_TIME);
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        for (int i = 0; i < m; i++) {
+            src[i] = indexOfId(unsorted[i].getSourceNode().getId());
+            dst[i] = indexOfId(unsorted[i].getDestinationNode().getId());
+        }
+
+        /* two pass counting sort: by destination, then stable by source */
+        int[] byTarget = countingOrder(dst, null, n);
+        int[] order = countingOrder(src, byTarget, n);
+
+        edges = new Edge[m];
+        edgeSources = new int[m];
+        edgeTargets = new int[m];
+        edgeTimes = new int[m];
+        edgeWeights = new double[m];
+        for (int i = 0; i < m; i++) {
+            int e = order[i];
+            edges[i] = unsorted[e];
+            edgeSources[i] = src[e];
+            edgeTargets[i] = dst[e];
+            edgeTimes[i] = unsorted[e].getTime();
+            edgeWeights[i] = weightOf(unsorted[e].getOriginalWeight());
+        }
+
+        outOffsets = offsets(edgeSources, n);
+        inOffsets = offsets(edgeTargets, n);
+        inSources = new int[m];
+        inEdges = new int[m];
+        fillIncoming(edgeSources, edgeTargets, inOffsets, inSources, inEdges);
+    }
+
+    /**
+     * Builds the snapshot of a graph that consists of the nodes and edges
+     * of another snapshot and some added ones.
+     *
+     * The node and edge objects of the other snapshot are shared and its
+     * arrays are copied, so only the added edges have to be sorted.
+     *
+     * @param g The graph
+     * @param base The snapshot of the nodes and edges the graph was copied
+     *             from
+     * @param added The added nodes, all with ids above the ids of the base
+     * @param newEdges The added edges ordered by time, none earlier than
+     *                 the edges of the base
+     */
+    private CompactGraph(final Graph g, final CompactGraph base,
+            final Node[] added, final Edge[] newEdges) {
+        graph = g;
+        stateHash = g.getFullStateHash();
+        aggregateEdges = g.isAggregatingEdges();
+        window = null;
+        windowBase = null;
+        windowHash = 0;
+
+        Node[] newNodes = added.clone();
+        Arrays.sort(newNodes, BY_ID);
+        int n0 = base.nodes.length;
+        int n = n0 + newNodes.length;
+        nodes = new Node[n];
+        nodeIds = new int[n];
+        nodeTimes = new int[n];
+        nodeWeights = new double[n];
+        System.arraycopy(base.nodes, 0, nodes, 0, n0);
+        System.arraycopy(base.nodeIds, 0, nodeIds, 0, n0);
+        System.arraycopy(base.nodeTimes, 0, nodeTimes, 0, n0);
+        System.arraycopy(base.nodeWeights, 0, nodeWeights, 0, n0);
+        for (int i = n0; i < n; i++) {
+            nodes[i] = newNodes[i - n0];
+            nodeIds[i] = nodes[i].getId();
+            nodeTimes[i] = nodes[i].getTime();
+            nodeWeights[i] = weightOf(nodes[i].getOriginalWeight());
+        }
+
+        int m0 = base.edges.length;
+        int m = m0 + newEdges.length;
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        System.arraycopy(base.edgeSources, 0, src, 0, m0);
+        System.arraycopy(base.edgeTargets, 0, dst, 0, m0);
+        for (int i = m0; i < m; i++) {
+            src[i] = indexOfId(newEdges[i - m0].getSourceNode().getId());
+            dst[i] = indexOfId(newEdges[i - m0].getDestinationNode().getId());
+        }
+
+        /* the base edges are in CSR order and the added edges follow them
+           ordered by time, so both stable counting sorts keep the edges
+           between the same nodes ordered by time */
+        int[] byTarget = countingOrder(dst, null, n);
+        int[] order = countingOrder(src, byTarget, n);
+
+        edges = new Edge[m];
+        edgeSources = new int[m];
+        edgeTargets = new int[m];
+        edgeTimes = new int[m];
+        edgeWeights = new double[m];
+        for (int i = 0; i < m; i++) {
+            int e = order[i];
+            edgeSources[i] = src[e];
+            edgeTargets[i] = dst[e];
+            if (e < m0) {
+                edges[i] = base.edges[e];
+                edgeTimes[i] = base.edgeTimes[e];
+                edgeWeights[i] = base.edgeWeights[e];
+            } else {
+                edges[i] = newEdges[e - m0];
+                edgeTimes[i] = edges[i].getTime();
+                edgeWeights[i] = weightOf(edges[i].getOriginalWeight());
+            }
+        }
+
+        outOffsets = offsets(edgeSources, n);
+        inOffsets = offsets(edgeTargets, n);
+        inSources = new int[m];
+        inEdges = new int[m];
+        fillIncoming(edgeSources, edgeTargets, inOffsets, inSources, inEdges);
+    }
+
+    /**
+     * Returns the snapshot of a graph that was copied from another graph
+     * and extended.
+     *
+     * If the added nodes have higher ids than the nodes of the base and no
+     * added edge is earlier than the edges of the base, as for the rows
+     * loaded above a watermark, the base is appended to in linear time
+     * without sorting its edges again, and so is its TemporalDegreeIndex.
+     * Otherwise the snapshot is built from the graph.
+     *
+     * @see Graph#Graph(Graph)
+     *
+     * @param g The graph
+     * @param base The snapshot of the graph g was copied from
+     * @param added The nodes added to g since
+     * @param addedEdges The edges added to g since
+     * @return The snapshot of g
+     */
+    static CompactGraph append(final Graph g, final CompactGraph base,
+            final Node[] added, final Edge[] addedEdges) {
+        int n = base.nodeIds.length;
+        for (int i = 0; i < added.length; i++) {
+            if (n > 0 && added[i].getId() <= base.nodeIds[n - 1]) {
+                return new CompactGraph(g);
+            }
+        }
+
+        int latest = Integer.MIN_VALUE;
+        for (int e = 0; e < base.edgeTimes.length; e++) {
+            latest = Math.max(latest, base.edgeTimes[e]);
+        }
+        for (int i = 0; i < addedEdges.length; i++) {
+            if (addedEdges[i].getTime() < latest) {
+                return new CompactGraph(g);
+            }
+        }
+
+        Edge[] sorted = addedEdges.clone();
+        Arrays.sort(sorted, BY_TIME);
+        CompactGraph cg = new CompactGraph(g, base, added, sorted);
+        TemporalDegreeIndex.extend(base, cg, sorted);
+        return cg;
+    }
+
+    /**
+     * Builds the subgraph of another compact graph.
+     *
+     * Edges are only taken over if both of their nodes are selected. The
+     * subgraph refers to the same node and edge objects as the original.
+     *
+     * @param base The original graph
+     * @param nodeSelection The indices of the selected nodes in ascending
+     *                      order
+     * @param edgeSelection The indices of the selected edges in ascending
+     *                      order
+     */
+    CompactGraph(final CompactGraph base, final int[] nodeSelection,
+            final int[] edgeSelection) {
+        this(base, nodeSelection, edgeSelection, null, 0);
+    }
+
+    /**
+     * Builds the subgraph of another compact graph that was cut out of it
+     * by a time window.
+     *
+     * @param base The original graph
+     * @param nodeSelection The indices of the selected nodes in ascending
+     *                      order
+     * @param edgeSelection The indices of the selected edges in ascending
+     *                      order
+     * @param bound The time window, null if the subgraph is no time window
+     *              of the whole original graph
+     * @param outside The sum of the keys of the edges within the window
+     *                that are not selected
+     */
+    CompactGraph(final CompactGraph base, final int[] nodeSelection,
+            final int[] edgeSelection, final TimeBoundary bound,
+            final long outside) {
+        aggregateEdges = base.aggregateEdges;
+        window = bound;
+        if (null == bound) {
+            windowBase = null;
+            windowHash = 0;
+        } else {
+            windowBase = base;
+            windowHash = outside;
+        }
+        int n = nodeSelection.length;
+        int[] index = new int[base.getNodeCount()];
+        for (int v = 0; v < index.length; v++) {
+            index[v] = -1;
+        }
+
+        long hash = 0;
+        nodes = new Node[n];
+        nodeIds = new int[n];
+        nodeTimes = new int[n];
+        nodeWeights = new double[n];
+        for (int i = 0; i < n; i++) {
+            int v = nodeSelection[i];
+            index[v] = i;
+            nodes[i] = base.nodes[v];
+            nodeIds[i] = base.nodeIds[v];
+            nodeTimes[i] = base.nodeTimes[v];
+            nodeWeights[i] = base.nodeWeights[v];
+            hash += Graph.nodeKey(nodeIds[i]);
+        }
+
+        int m = 0;
+        for (int i = 0; i < edgeSelection.length; i++) {
+            int e = edgeSelection[i];
+            if (index[base.edgeSources[e]] >= 0
+                    && index[base.edgeTargets[e]] >= 0) {
+                m++;
+            }
+        }
+
+        /* the index mapping keeps the order of the nodes, so the selected
+           edges are still sorted by source and destination */
+        edges = new Edge[m];
+        edgeSources = new int[m];
+        edgeTargets = new int[m];
+        edgeTimes = new int[m];
+        edgeWeights = new double[m];
+        int next = 0;
+        for (int i = 0; i < edgeSelection.length; i++) {
+            int e = edgeSelection[i];
+            int s = index[base.edgeSources[e]];
+            int t = index[base.edgeTargets[e]];
+            if (s < 0 || t < 0) {
+                continue;
+            }
+            edges[next] = base.edges[e];
+            edgeSources[next] = s;
+            edgeTargets[next] = t;
+            edgeTimes[next] = base.edgeTimes[e];
+            edgeWeights[next] = base.edgeWeights[e];
+            hash += Graph.edgeKey(base.edges[e]);
+            next++;
+        }
+        stateHash = hash;
+
+        outOffsets = offsets(edgeSources, n);
+        inOffsets = offsets(edgeTargets, n);
+        inSources = new int[m];
+        inEdges = new int[m];
+        fillIncoming(edgeSources, edgeTargets, inOffsets, inSources, inEdges);
+    }
+
+    /**
+     * Builds the aggregated form of another compact graph.
+     *
+     * @param base The original graph
+     * @param hash The state hash of the new graph
+     * @param edges The aggregated edges in CSR order
+     * @param times The creation time of every edge
+     * @param weights The original weight of every edge
+     * @param first The index of the first original edge of every edge
+     */
+    private CompactGraph(final CompactGraph base, final long hash,
+            final Edge[] edges, final int[] times, final double[] weights,
+            final int[] first) {
+        stateHash = hash;
+        aggregateEdges = true;
+        window = base.window;
+        windowBase = base.windowBase;
+        windowHash = base.windowHash;
+        nodes = base.nodes;
+        nodeIds = base.nodeIds;
+        nodeTimes = base.nodeTimes;
+        nodeWeights = base.nodeWeights;
+
+        int m = edges.length;
+        this.edges = edges;
+        edgeSources = new int[m];
+        edgeTargets = new int[m];
+        for (int e = 0; e < m; e++) {
+            edgeSources[e] = base.edgeSources[first[e]];
+            edgeTargets[e] = base.edgeTargets[first[e]];
+        }
+        edgeTimes = times;
+        edgeWeights = weights;
+
+        int n = nodes.length;
+        outOffsets = offsets(edgeSources, n);
+        inOffsets = offsets(edgeTargets, n);
+        inSources = new int[m];
+        inEdges = new int[m];
+        fillIncoming(edgeSources, edgeTargets, inOffsets, inSources, inEdges);
+    }
+
+    /**
+     * Returns the aggregated form of this graph.
+     *
+     * Repeated interactions between two nodes are merged into one edge
+     * that counts them, sums up their original weights and has the
+     * creation time of the earliest one. An edge without repeated
+     * interactions stays the same object, merged edges are new objects
+     * that share the nodes but are not added to their edge lists.
+     *<p/>
+     * If there are no repeated interactions, the graph itself is returned.
+     * Otherwise the result is built on the first call.
+     *
+     * @see Edge#aggregate(Edge)
+     *
+     * @return The aggregated graph
+     */
+    CompactGraph aggregated() {
+        CompactGraph a = aggregated;
+        if (null != a) {
+            return a;
+        }
+
+        int m = 0;
+        for (int e = 0; e < edges.length; e++) {
+            if (isFirstOfPair(e)) {
+                m++;
+            }
+        }
+        if (m == edges.length) {
+            aggregated = this;
+            return this;
+        }
+
+        /* edges between the same nodes are adjacent and ordered by time,
+           so the first one of a pair is the earliest */
+        Edge[] merged = new Edge[m];
+        int[] times = new int[m];
+        double[] weights = new double[m];
+        int[] first = new int[m];
+        int next = -1;
+        for (int e = 0; e < edges.length; e++) {
+            if (isFirstOfPair(e)) {
+                next++;
+                merged[next] = edges[e];
+                times[next] = edgeTimes[e];
+                weights[next] = edgeWeights[e];
+                first[next] = e;
+            } else {
+                if (first[next] == e - 1) {
+                    merged[next] = edges[e - 1].getDetachedCopy();
+                }
+                merged[next].aggregate(edges[e]);
+                weights[next] += edgeWeights[e];
+            }
+        }
+        a = new CompactGraph(this, stateHash + AGGREGATED_KEY, merged, times,
+                weights, first);
+        aggregated = a;
+        return a;
+    }
+
+    /**
+     * Returns true if an edge is the first edge between its nodes.
+     *
+     * @param e The edge index
+     * @return True if the edge before has other nodes
+     */
+    private boolean isFirstOfPair(final int e) {
+        return 0 == e || edgeSources[e] != edgeSources[e - 1]
+            || edgeTargets[e] != edgeTargets[e - 1];
+    }
+
+    /**
+     * Returns the graph this snapshot was built from.
+     *
+     * For a subgraph a graph with copies of the selected nodes and edges is
+     * built on the first call.
+     *
+     * @see #toGraph()
+     *
+     * @return The graph
+     */
+    public Graph getGraph() {
+        Graph g = graph;
+        if (null == g) {
+            g = toGraph();
+            graph = g;
+        }
+        return g;
+    }
+
+    /**
+     * Creates a new graph with copies of all nodes and edges.
+     *
+     * The nodes are copied by Node#getCleanCopy, the edges keep their
+     * creation time, original weight and count. The new graph aggregates
+     * edges like the original one. Centrality values are not copied.
+     *
+     * @return The new graph
+     */
+    Graph toGraph() {
+        Graph g = new Graph(aggregateEdges);
+        Node[] copies = new Node[nodes.length];
+        for (int v = 0; v < nodes.length; v++) {
+            copies[v] = nodes[v].getCleanCopy();
+            g.addNode(copies[v]);
+        }
+        for (int e = 0; e < edges.length; e++) {
+            Edge copy = new Edge(copies[edgeSources[e]],
+                    copies[edgeTargets[e]], edgeTimes[e]);
+            copy.setOriginalWeight(edges[e].getOriginalWeight());
+            copy.setCount(edges[e].getCount());
+            g.addEdge(copy);
+        }
+        return g;
+    }
+
+    /**
+     * Returns the state hash of the graph, computed in the same way as the
+     * state hash of a Graph with the same nodes and edges.
+     *
+     * @return The full 64 bit state hash
+     */
+    long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Returns the sum of the keys of the interactions within the time
+     * window of the graph that are not part of it.
+     *
+     * Values that count the interactions of the nodes with the rest of the
+     * whole graph, like the TemporalDegreeIndex, depend on them as well.
+     *
+     * @return The hash, 0 if the graph is not a time window
+     */
+    long getWindowHash() {
+        return windowHash;
+    }
+
+    /**
+     * Returns the time window this graph was cut out of a whole graph with.
+     *
+     * @return The window or null if the graph is not a time window
+     */
+    TimeBoundary getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns the whole graph this time window was cut out of.
+     *
+     * @return The graph or null if the graph is not a time window
+     */
+    CompactGraph getWindowBase() {
+        return windowBase;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return The number of nodes
+     */
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return The number of edges
+     */
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the node with the given index.
+     *
+     * @param index The node index
+     * @return The node
+     */
+    public Node getNode(final int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the edge with the given index.
+     *
+     * @param index The edge index
+     * @return The edge
+     */
+    public Edge getEdge(final int index) {
+        return edges[index];
+    }
+
+    /**
+     * Returns the index of the given node.
+     *
+     * @param n The node
+     * @return The index or -1 if the node is not part of the snapshot
+     */
+    public int indexOf(final Node n) {
+        return indexOfId(n.getId());
+    }
+
+    /**
+     * Returns the index of the node with the given database id.
+     *
+     * @param id The id of the node
+     * @return The index or -1 if the node is not part of the snapshot
+     */
+    public int indexOfId(final int id) {
+        return search(nodeIds, 0, nodeIds.length, id);
+    }
+
+    /**
+     * Returns the index of the first edge between the given nodes.
+     *
+     * If the nodes interacted repeatedly, the edges between them follow
+     * the returned one ordered by time.
+     *
+     * @param source The source node index
+     * @param target The destination node index
+     * @return The index of the earliest edge or -1 if there is no such edge
+     */
+    public int indexOfEdge(final int source, final int target) {
+        int end = outOffsets[source + 1];
+        int i = lowerBound(edgeTargets, outOffsets[source], end, target);
+        if (i < end && edgeTargets[i] == target) {
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the given edge.
+     *
+     * The edge is looked up by its nodes and its creation time, so each of
+     * several edges between the same nodes has its own index.
+     *
+     * @param e The edge
+     * @return The edge index or -1 if the edge is not part of the snapshot
+     */
+    public int indexOf(final Edge e) {
+        int s = indexOf(e.getSourceNode());
+        int t = indexOf(e.getDestinationNode());
+        if (s < 0 || t < 0) {
+            return -1;
+        }
+        int from = lowerBound(edgeTargets, outOffsets[s], outOffsets[s + 1],
+                t);
+        int to = lowerBound(edgeTargets, from, outOffsets[s + 1], t + 1);
+        int i = lowerBound(edgeTimes, from, to, e.getTime());
+        if (i < to && edgeTimes[i] == e.getTime()) {
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of outgoing edges of a node.
+     *
+     * @param v The node index
+     * @return The outdegree
+     */
+    public int getOutDegree(final int v) {
+        return outOffsets[v + 1] - outOffsets[v];
+    }
+
+    /**
+     * Returns the number of incoming edges of a node.
+     *
+     * @param v The node index
+     * @return The indegree
+     */
+    public int getInDegree(final int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    /**
+     * Returns the database ids of the nodes in index order.
+     *
+     * @return The ids
+     */
+    public int[] getNodeIds() {
+        return nodeIds;
+    }
+
+    /**
+     * Returns the creation times of the nodes in index order.
+     *
+     * @return The times
+     */
+    public int[] getNodeTimes() {
+        return nodeTimes;
+    }
+
+    /**
+     * Returns the original weights of the nodes in index order.
+     *
+     * @return The weights, 0.0 where no original weight is set
+     */
+    public double[] getNodeWeights() {
+        return nodeWeights;
+    }
+
+    /**
+     * Returns the source node index of every edge.
+     *
+     * @return The source indices
+     */
+    public int[] getEdgeSources() {
+        return edgeSources;
+    }
+
+    /**
+     * Returns the destination node index of every edge.
+     *
+     * This array doubles as the target array of the outgoing adjacency.
+     *
+     * @return The destination indices
+     */
+    public int[] getEdgeTargets() {
+        return edgeTargets;
+    }
+
+    /**
+     * Returns the creation times of the edges in index order.
+     *
+     * @return The times
+     */
+    public int[] getEdgeTimes() {
+        return edgeTimes;
+    }
+
+    /**
+     * Returns the original weights of the edges in index order.
+     *
+     * @return The weights, 0.0 where no original weight is set
+     */
+    public double[] getEdgeWeights() {
+        return edgeWeights;
+    }
+
+    /**
+     * Returns the offsets of the outgoing adjacency.
+     *
+     * The outgoing edges of node v are the edges outOffsets[v] (inclusive)
+     * to outOffsets[v + 1] (exclusive).
+     *
+     * @return The offsets
+     */
+    public int[] getOutOffsets() {
+        return outOffsets;
+    }
+
+    /**
+     * Returns the offsets of the incoming adjacency.
+     *
+     * The incoming adjacency of node v are the slots inOffsets[v] (inclusive)
+     * to inOffsets[v + 1] (exclusive) of getInSources and getInEdges.
+     *
+     * @return The offsets
+     */
+    public int[] getInOffsets() {
+        return inOffsets;
+    }
+
+    /**
+     * Returns the source node index of every incoming adjacency slot.
+     *
+     * @return The source indices
+     */
+    public int[] getInSources() {
+        return inSources;
+    }
+
+    /**
+     * Returns the edge index of every incoming adjacency slot.
+     *
+     * @return The edge indices
+     */
+    public int[] getInEdges() {
+        return inEdges;
+    }
+
+    /**
+     * Converts a nullable original weight to a primitive.
+     *
+     * @param weight The weight or null
+     * @return The weight or 0.0 if null
+     */
+    private static double weightOf(final Double weight) {
+        if (null == weight) {
+            return 0.0;
+        }
+        return weight.doubleValue();
+    }
+
+    /**
+     * Counts the keys and returns the start offset of every key.
+     *
+     * @param keys The key of every element
+     * @param range The keys are in [0, range)
+     * @return The offsets, length range + 1
+     */
+    private static int[] offsets(final int[] keys, final int range) {
+        int[] offsets = new int[range + 1];
+        for (int i = 0; i < keys.length; i++) {
+            offsets[keys[i] + 1]++;
+        }
+        for (int k = 0; k < range; k++) {
+            offsets[k + 1] += offsets[k];
+        }
+        return offsets;
+    }
+
+    /**
+     * Fills the incoming adjacency.
+     *
+     * @param src The source node index of every edge
+     * @param dst The destination node index of every edge
+     * @param inOffsets The offsets of the incoming adjacency
+     * @param inSources The array for the source of every slot
+     * @param inEdges The array for the edge of every slot
+     */
+    private static void fillIncoming(final int[] src, final int[] dst,
+            final int[] inOffsets, final int[] inSources,
+            final int[] inEdges) {
+        int[] fill = new int[inOffsets.length - 1];
+        for (int e = 0; e < src.length; e++) {
+            int t = dst[e];
+            int slot = inOffsets[t] + fill[t]++;
+            inSources[slot] = src[e];
+            inEdges[slot] = e;
+        }
+    }
+
+    /**
+     * Stable counting sort of positions by key.
+     *
+     * @param keys The key of every element
+     * @param in The order to sort stable or null for the natural order
+     * @param range The keys are in [0, range)
+     * @return The positions sorted by key
+     */
+    private static int[] countingOrder(final int[] keys, final int[] in,
+            final int range) {
+        int[] count = new int[range + 1];
+        for (int i = 0; i < keys.length; i++) {
+            count[keys[i] + 1]++;
+        }
+        for (int k = 0; k < range; k++) {
+            count[k + 1] += count[k];
+        }
+        int[] out = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int e = i;
+            if (null != in) {
+                e = in[i];
+            }
+            out[count[keys[e]]++] = e;
+        }
+        return out;
+    }
+
+    /**
+     * Returns the first position in a sorted range of an int array whose
+     * value is not less than a key.
+     *
+     * @param a The array
+     * @param from The first index (inclusive)
+     * @param to The last index (exclusive)
+     * @param key The value to look for
+     * @return The position, to if all values are less than the key
+     */
+    private static int lowerBound(final int[] a, final int from,
+            final int to, final int key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Binary search in a sorted range of an int array.
+     *
+     * @param a The array
+     * @param from The first index (inclusive)
+     * @param to The last index (exclusive)
+     * @param key The value to look for
+     * @return The index of the key or -1 if not found
+     */
+    private static int search(final int[] a, final int from, final int to,
+            final int key) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else if (a[mid] > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -17,6 +17,7 @@ package edu.kit.ipd.sonar.server;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.HashMap;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
@@ -63,7 +64,7 @@ public final class Configuration {
 
     /** The provided Version of the Centrality-Plugin-API.
      * Has to be set here mannually to increase it. */
-    private final int apiVersion = 0;
+    private final int apiVersion = 1;
 
     /** The Admin Password that provides access
      * to the extended functions of Sonar. */
@@ -72,15 +73,74 @@ public final class Configuration {
     /** The Hash algorithm used to store User Passwords in the database. */
     private final String userPwHashAlgorithm;
 
+    /** Parameters of the centrality plugins by name. */
+    private final HashMap<String, String> centralityParameters
+        = new HashMap<String, String>();
+
     /** Specifies if the centrality-calculation will be cached. */
     private final boolean calculatorCachingEnabled;
 
+    /** The default maximum number of cached calculation results. */
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 64;
+
+    /** The default maximum size of all cached calculation results. */
+    private static final long DEFAULT_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+
+    /** The maximum number of cached calculation results. */
+    private final int calculatorCacheMaxEntries;
+
+    /** The maximum estimated size of all cached calculation results. */
+    private final long calculatorCacheMaxBytes;
+
+    /** The default maximum number of cached centrality results. */
+    private static final int DEFAULT_CENTRALITY_CACHE_MAX_ENTRIES = 256;
+
+    /** The default maximum size of all cached centrality results. */
+    private static final long DEFAULT_CENTRALITY_CACHE_MAX_BYTES
+        = 64L * 1024 * 1024;
+
+    /** The maximum number of cached centrality results. */
+    private final int centralityCacheMaxEntries;
+
+    /** The maximum estimated size of all cached centrality results. */
+    private final long centralityCacheMaxBytes;
+
+    /** Default number of quantile intervals of centrality statistics. */
+    private static final int DEFAULT_STATISTICS_QUANTILES = 0;
+
+    /** Number of quantile intervals of centrality statistics. */
+    private final int statisticsQuantiles;
+
     /** Specifies if the database-requests will be cached. */
     private final boolean databaseCachingEnabled;
 
+    /** Specifies if a changed database is loaded incrementally. */
+    private final boolean databaseDeltaLoadingEnabled;
+
+    /** The default delay between two background refreshes in seconds. */
+    private static final long DEFAULT_REFRESH_INTERVAL = 60;
+
+    /** The delay between two background refreshes in seconds. */
+    private final long databaseRefreshInterval;
+
+    /** The file the cached graph is stored in, null to not store it. */
+    private final String databaseSnapshotFile;
+
+    /** The default minimum time between two change probes in ms. */
+    private static final long DEFAULT_MIN_PROBE_INTERVAL = 1000;
+
+    /** The SQL query used to detect changes, null to count rows. */
+    private final String changeDetectionQuery;
+
+    /** The minimum time between two change probes in ms. */
+    private final long minProbeInterval;
+
     /** Specifies if hibernate is used to access the database. */
     private final boolean hibernateEnabled;
 
+    /** Specifies if repeated interactions are aggregated into one edge. */
+    private final boolean aggregateEdges;
+
     /** The path to the hibernate-configuration-file. */
 
     private final URL hibernateConfigURL;
@@ -113,6 +173,13 @@ public final class Configuration {
                     = elem.getAttribute("userPasswordAlgorithm");
 
             // Check (optional) values stored under the Tag <centralities>
+            list = configFileDOM.getElementsByTagName("parameter");
+            for (int i = 0; i < list.getLength(); i++) {
+                elem = (Element) list.item(i);
+                centralityParameters.put(elem.getAttribute("name"),
+                        elem.getAttribute("value"));
+            }
+
             // Check (optional) values stored under the Tag <caching>
             // if nothing is specified, use false as the default value.
 
@@ -126,6 +193,16 @@ public final class Configuration {
                 } else {
                     databaseCachingEnabled = false;
                 }
+                databaseDeltaLoadingEnabled = getBooleanAttribute(elem,
+                        "deltaLoading", true);
+                databaseRefreshInterval = getLongAttribute(elem,
+                        "refreshInterval", DEFAULT_REFRESH_INTERVAL);
+                String snapshotPath = elem.getAttribute("snapshotFile");
+                if (snapshotPath.length() == 0) {
+                    databaseSnapshotFile = null;
+                } else {
+                    databaseSnapshotFile = snapshotPath;
+                }
 
                 list = configFileDOM.getElementsByTagName("calculator");
                 elem = (Element) list.item(0);
@@ -134,10 +211,31 @@ public final class Configuration {
                 } else {
                     calculatorCachingEnabled = false;
                 }
+                calculatorCacheMaxEntries = (int) getLongAttribute(elem,
+                        "maxEntries", DEFAULT_CACHE_MAX_ENTRIES);
+                calculatorCacheMaxBytes = getLongAttribute(elem,
+                        "maxBytes", DEFAULT_CACHE_MAX_BYTES);
+                centralityCacheMaxEntries = (int) getLongAttribute(elem,
+                        "centralityMaxEntries",
+                        DEFAULT_CENTRALITY_CACHE_MAX_ENTRIES);
+                centralityCacheMaxBytes = getLongAttribute(elem,
+                        "centralityMaxBytes",
+                        DEFAULT_CENTRALITY_CACHE_MAX_BYTES);
+                statisticsQuantiles = (int) getLongAttribute(elem,
+                        "statisticsQuantiles",
+                        DEFAULT_STATISTICS_QUANTILES);
             } else {
                 databaseCachingEnabled = false;
+                databaseDeltaLoadingEnabled = true;
+                databaseRefreshInterval = DEFAULT_REFRESH_INTERVAL;
+                databaseSnapshotFile = null;
                 calculatorCachingEnabled = false;
-
+                calculatorCacheMaxEntries = DEFAULT_CACHE_MAX_ENTRIES;
+                calculatorCacheMaxBytes = DEFAULT_CACHE_MAX_BYTES;
+                centralityCacheMaxEntries
+                    = DEFAULT_CENTRALITY_CACHE_MAX_ENTRIES;
+                centralityCacheMaxBytes = DEFAULT_CENTRALITY_CACHE_MAX_BYTES;
+                statisticsQuantiles = DEFAULT_STATISTICS_QUANTILES;
             }
 
             // Check values stored under the Tag <database><hibernate>
@@ -149,6 +247,26 @@ public final class Configuration {
             hibernateConfigURL =
                 getClass().getClassLoader().getResource(hibernateConfigPath);
             hibernateEnabled = true;
+            aggregateEdges = getBooleanAttribute(elem, "aggregateEdges",
+                    true);
+
+            // Check (optional) values stored under the Tag
+            // <database><changeDetection>
+            list = configFileDOM.getElementsByTagName("changeDetection");
+            if (list.getLength() >= 1) {
+                elem = (Element) list.item(0);
+                String query = elem.getAttribute("query");
+                if (query.length() == 0) {
+                    changeDetectionQuery = null;
+                } else {
+                    changeDetectionQuery = query;
+                }
+                minProbeInterval = getLongAttribute(elem,
+                        "minProbeInterval", DEFAULT_MIN_PROBE_INTERVAL);
+            } else {
+                changeDetectionQuery = null;
+                minProbeInterval = DEFAULT_MIN_PROBE_INTERVAL;
+            }
 
 
         } else {
@@ -156,8 +274,19 @@ public final class Configuration {
             //set default values:
             hibernateConfigURL = null;
             hibernateEnabled = false;
+            aggregateEdges = true;
+            changeDetectionQuery = null;
+            minProbeInterval = DEFAULT_MIN_PROBE_INTERVAL;
             databaseCachingEnabled = false;
+            databaseDeltaLoadingEnabled = true;
+            databaseRefreshInterval = DEFAULT_REFRESH_INTERVAL;
+            databaseSnapshotFile = null;
             calculatorCachingEnabled = false;
+            calculatorCacheMaxEntries = DEFAULT_CACHE_MAX_ENTRIES;
+            calculatorCacheMaxBytes = DEFAULT_CACHE_MAX_BYTES;
+            centralityCacheMaxEntries = DEFAULT_CENTRALITY_CACHE_MAX_ENTRIES;
+            centralityCacheMaxBytes = DEFAULT_CENTRALITY_CACHE_MAX_BYTES;
+            statisticsQuantiles = DEFAULT_STATISTICS_QUANTILES;
             userPwHashAlgorithm = "MD5";
             adminPassword = "";
         }
@@ -165,6 +294,40 @@ public final class Configuration {
     }
 
 
+    /**
+     * Returns the value of an optional numeric attribute.
+     *
+     * @param elem The element holding the attribute
+     * @param name The name of the attribute
+     * @param defaultValue The value used if the attribute is not set
+     * @return The value of the attribute or the default value
+     */
+    private static long getLongAttribute(final Element elem,
+            final String name, final long defaultValue) {
+        String value = elem.getAttribute(name);
+        if (null == value || value.length() == 0) {
+            return defaultValue;
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Returns the value of an optional boolean attribute.
+     *
+     * @param elem The element holding the attribute
+     * @param name The name of the attribute
+     * @param defaultValue The value used if the attribute is not set
+     * @return The value of the attribute or the default value
+     */
+    private static boolean getBooleanAttribute(final Element elem,
+            final String name, final boolean defaultValue) {
+        String value = elem.getAttribute(name);
+        if (null == value || value.length() == 0) {
+            return defaultValue;
+        }
+        return value.equalsIgnoreCase("true");
+    }
+
     /**
      * Looks for an XML-File at the given path,
      * checks it against the defined schema and
@@ -257,6 +420,21 @@ public final class Configuration {
         return apiVersion;
     }
 
+    /**
+     * Returns a parameter of the centrality plugins.
+     *
+     * Parameters are set with
+     * <code>&lt;parameter name="..." value="..." /&gt;</code> within the
+     * <code>centralities</code> tag. Plugins should prefix the names
+     * of their parameters with the name of the plugin.
+     *
+     * @param name The name of the parameter
+     * @return The value or null if the parameter is not set
+     */
+    public String getCentralityParameter(final String name) {
+        return centralityParameters.get(name);
+    }
+
     /**
      * Returns if database caching is enabled.
      * @return if database caching is enabled.
@@ -265,6 +443,44 @@ public final class Configuration {
         return databaseCachingEnabled;
     }
 
+    /**
+     * Returns if a changed database is loaded incrementally.
+     *
+     * If enabled, only nodes and edges that are newer than the cached graph
+     * are fetched. The graph is reloaded completely if rows were deleted
+     * or inserted out of order.
+     *
+     * @return if delta loading is enabled.
+     */
+    public boolean databaseDeltaLoadingEnabled() {
+        return databaseDeltaLoadingEnabled;
+    }
+
+    /**
+     * Returns the delay between two background refreshes of the graph.
+     *
+     * The graph is only refreshed in the background if database caching
+     * is enabled.
+     *
+     * @return the refresh interval in seconds.
+     */
+    public long getDatabaseRefreshInterval() {
+        return databaseRefreshInterval;
+    }
+
+    /**
+     * Returns the file the cached graph is stored in.
+     *
+     * The graph is read from the file on startup and brought up to date
+     * from the database afterwards. The file is only used if database
+     * caching is enabled.
+     *
+     * @return the path of the file or null if the graph is not stored.
+     */
+    public String getDatabaseSnapshotFile() {
+        return databaseSnapshotFile;
+    }
+
     /**
      * Returns if calculator caching is enabled.
      * @return if calculator caching is enabled.
@@ -273,6 +489,48 @@ public final class Configuration {
         return calculatorCachingEnabled;
     }
 
+    /**
+     * Returns the maximum number of cached calculation results.
+     * @return the maximum number of entries.
+     */
+    public int getCalculatorCacheMaxEntries() {
+        return calculatorCacheMaxEntries;
+    }
+
+    /**
+     * Returns the maximum estimated size of all cached calculation results.
+     * @return the maximum size in bytes.
+     */
+    public long getCalculatorCacheMaxBytes() {
+        return calculatorCacheMaxBytes;
+    }
+
+    /**
+     * Returns the maximum number of cached centrality results.
+     * The centrality results are cached if calculator caching is enabled.
+     * @return the maximum number of entries.
+     */
+    public int getCentralityCacheMaxEntries() {
+        return centralityCacheMaxEntries;
+    }
+
+    /**
+     * Returns the maximum estimated size of all cached centrality results.
+     * @return the maximum size in bytes.
+     */
+    public long getCentralityCacheMaxBytes() {
+        return centralityCacheMaxBytes;
+    }
+
+    /**
+     * Returns the number of quantile intervals computed for the values of
+     * every centrality, e.g. 4 for quartiles.
+     * @return the number of intervals. 0 if no quantiles are computed.
+     */
+    public int getStatisticsQuantiles() {
+        return statisticsQuantiles;
+    }
+
     /**
      * Return if Hibernate support is set in the configuration file or not.
      * @return true if Hibernate is activated.
@@ -281,6 +539,41 @@ public final class Configuration {
         return hibernateEnabled;
     }
 
+    /**
+     * Returns if repeated interactions between two nodes are aggregated
+     * into one edge that counts them and sums up their weights.
+     *
+     * Edges are aggregated unless disabled, so the centralities see one
+     * edge per pair of nodes. The loaded graph always keeps every
+     * interaction, the calculators aggregate the interactions within the
+     * requested time boundary only.
+     * @return true if edges are aggregated.
+     */
+    public boolean aggregateEdges() {
+        return aggregateEdges;
+    }
+
+    /**
+     * Returns the SQL query used to detect changes of the database.
+     *
+     * The query has to return a single value that changes whenever the
+     * graph data changes, e.g. the latest version of a change log table
+     * or a counter maintained by triggers.
+     *
+     * @return the query. Null if changes are detected by counting rows.
+     */
+    public String getChangeDetectionQuery() {
+        return changeDetectionQuery;
+    }
+
+    /**
+     * Returns the minimum time between two probes for database changes.
+     * @return the interval in milliseconds.
+     */
+    public long getMinProbeInterval() {
+        return minProbeInterval;
+    }
+
     /**
      * Returns the URL to the Hibernate configuration file.
      * @return url to the Hibernate configuration file. Null if not found.
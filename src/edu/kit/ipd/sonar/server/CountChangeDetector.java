@@ -0,0 +1,86 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.hibernate.HibernateException;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+/**
+ * Detects changes by counting the nodes and edges and looking at their
+ * highest id and creation time.
+ *
+ * Appending rows is always detected. Deleting and inserting the same number
+ * of rows or updating rows in place is only detected if the highest id or
+ * creation time changes. Use a QueryChangeDetector if the data base
+ * maintains a version table or change counter.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class CountChangeDetector implements ChangeDetector {
+    /**
+     * The session factory to query.
+     */
+    private final SessionFactory sessions;
+
+    /**
+     * Creates a new detector.
+     *
+     * @param factory The session factory to query
+     */
+    CountChangeDetector(final SessionFactory factory) {
+        sessions = factory;
+    }
+
+    /**
+     * Returns the count and maximum creation time of the edges and the
+     * count and maximum id of the nodes.
+     *
+     * @return The token
+     * @throws HibernateException if the data base cannot be queried
+     */
+    public Object probe() throws HibernateException {
+        StatelessSession s = sessions.openStatelessSession();
+        Transaction tx = null;
+
+        try {
+            tx = s.beginTransaction();
+            Object[] edges = (Object[]) s.createQuery(
+                    "select count(*), max(e.createTime) from Edge as e")
+                    .uniqueResult();
+            Object[] nodes = (Object[]) s.createQuery(
+                    "select count(*), max(n.id) from Node as n")
+                    .uniqueResult();
+            tx.commit();
+
+            ArrayList<Object> token = new ArrayList<Object>();
+            token.addAll(Arrays.asList(edges));
+            token.addAll(Arrays.asList(nodes));
+            return token;
+        } catch (RuntimeException e) {
+            if (tx != null && tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            s.close();
+        }
+    }
+}
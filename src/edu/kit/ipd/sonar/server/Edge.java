@@ -20,7 +20,6 @@ import com.google.gwt.user.client.rpc.IsSerializable;
 
 import java.io.Serializable;
 import java.util.HashMap;
-import java.util.HashSet;
 
 /**
  * Represents an edge between nodes of a graph.
@@ -28,6 +27,12 @@ import java.util.HashSet;
  * An edge is always directed and can be annoted as well as serialized. The edge
  * class is used by both the server and the client.
  *
+ * An edge is identified by the ids of its nodes, packed into a long key, and
+ * its creation time, like the rows of the edge table. The graph loaded from
+ * the database keeps repeated interactions between the same nodes as
+ * distinct edges. Views of it and graphs that aggregate merge them into one
+ * edge per pair that counts the interactions.
+ *
  * Edges have to make sure that it's hashCode implementation returns the same
  * value before and after a serialization step, making it possible that client
  * and server refer to the same hash value
@@ -37,11 +42,6 @@ import java.util.HashSet;
  * @author David Soria Parra <david.parra@student.kit.edu>
  */
 public class Edge implements Annotable, IsSerializable, Serializable {
-    /**
-     * The initial value of the hash from hashCode.
-     */
-    private static final int HASH_INIT = 5381;
-
     /**
      * Number to multiply the hash with.
      * 33 is the usual one used with bernsteins hash.
@@ -49,9 +49,14 @@ public class Edge implements Annotable, IsSerializable, Serializable {
     private static final int HASH_MULTIPLY = 33;
 
     /**
-     * An array that holds all subscriped listener.
+     * The number of bits of an int.
+     */
+    private static final int INT_BITS = 32;
+
+    /**
+     * Masks the lower 32 bits of a long.
      */
-    private transient HashSet<AnnotableListener> listeners;
+    private static final long INT_MASK = 0xffffffffL;
 
     /**
      * The node where the edge points to.
@@ -74,16 +79,30 @@ public class Edge implements Annotable, IsSerializable, Serializable {
     private int createTime;
 
     /**
-     * Mapping of centrality to weight for this edge.
+     * The number of interactions aggregated into this edge.
+     */
+    private int count = 1;
+
+    /**
+     * Mapping of centrality to weight for this edge, used as long as the
+     * edge is not part of a graph. Created on demand.
      */
     private HashMap<Centrality, Double> weightMapping;
 
+    /**
+     * The graph that stores the weights of this edge in its columns.
+     */
+    private Graph owner;
+
+    /**
+     * The position of this edge in the weight columns of the owner.
+     */
+    private int slot = -1;
+
     /**
      * Initialize a new object.
      */
     Edge() {
-        weightMapping = new HashMap<Centrality, Double>();
-        listeners = new HashSet<AnnotableListener>();
     }
 
     /**
@@ -97,15 +116,11 @@ public class Edge implements Annotable, IsSerializable, Serializable {
         sourceNode = source;
         destinationNode = destination;
 
-        try {
-            if (source != null) {
-                source.addEdge(this);
-            }
-            if (destination != null) {
-                destination.addEdge(this);
-            }
-        } catch (Exception e) {
-            /* TODO: add logging */
+        if (source != null) {
+            source.attachEdge(this);
+        }
+        if (destination != null && destination != source) {
+            destination.attachEdge(this);
         }
     }
 
@@ -129,6 +144,24 @@ public class Edge implements Annotable, IsSerializable, Serializable {
     public Edge getCleanCopy() {
         Edge edge = new Edge(null, null, createTime);
         edge.setOriginalWeight(getOriginalWeight());
+        edge.setCount(count);
+
+        return edge;
+    }
+
+    /**
+     * Creates a copy of the Edge between the same nodes that is not added
+     * to the edge lists of the nodes.
+     *
+     * Used for aggregated edges that only exist in a view of a graph, which
+     * must not show up in the graph the nodes belong to.
+     *
+     * @return The copy
+     */
+    Edge getDetachedCopy() {
+        Edge edge = getCleanCopy();
+        edge.sourceNode = sourceNode;
+        edge.destinationNode = destinationNode;
 
         return edge;
     }
@@ -176,6 +209,72 @@ public class Edge implements Annotable, IsSerializable, Serializable {
         return createTime;
     }
 
+    /**
+     * Returns the key of the pair of nodes.
+     *
+     * The id of the source node is stored in the upper, the id of the
+     * destination node in the lower 32 bits.
+     *
+     * @return The key
+     */
+    public long getKey() {
+        return pairKey(sourceNode.getId(), destinationNode.getId());
+    }
+
+    /**
+     * Returns the number of interactions between the nodes this edge
+     * stands for.
+     *
+     * The count is 1 unless repeated interactions are aggregated. The
+     * original weight of an aggregated edge is the sum of the original
+     * weights of its interactions.
+     *
+     * @return The count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Sets the number of interactions.
+     *
+     * @param count The count
+     */
+    void setCount(final int count) {
+        this.count = count;
+    }
+
+    /**
+     * Adds the interactions of another edge between the same nodes.
+     *
+     * The counts and original weights are summed up and the edge keeps the
+     * earlier creation time.
+     *
+     * @param other The other edge
+     */
+    void aggregate(final Edge other) {
+        count += other.count;
+        if (null == originalWeight) {
+            originalWeight = other.originalWeight;
+        } else if (null != other.originalWeight) {
+            originalWeight = originalWeight + other.originalWeight;
+        }
+        createTime = Math.min(createTime, other.createTime);
+    }
+
+    /**
+     * Returns the key of a pair of nodes.
+     *
+     * @see #getKey()
+     *
+     * @param source The id of the source node
+     * @param destination The id of the destination node
+     * @return The key
+     */
+    static long pairKey(final int source, final int destination) {
+        return ((long) source << INT_BITS) | (destination & INT_MASK);
+    }
+
     /**
      * Check if this Edge is an outgoing edge of the given node.
      *
@@ -224,9 +323,14 @@ public class Edge implements Annotable, IsSerializable, Serializable {
      * @param weight The weight for the object
      */
     public void addWeight(final Centrality c, final Double weight) {
-        weightMapping.put(c, weight);
-        for (AnnotableListener l : listeners) {
-            l.newWeightEvent(c, weight);
+        if (null != owner) {
+            owner.putWeight(c, Centrality.Type.EdgeCentrality, slot,
+                    weight.doubleValue());
+        } else {
+            if (null == weightMapping) {
+                weightMapping = new HashMap<Centrality, Double>();
+            }
+            weightMapping.put(c, weight);
         }
     }
 
@@ -239,7 +343,14 @@ public class Edge implements Annotable, IsSerializable, Serializable {
      * @return A mapping of centralities to their values.
      */
     public HashMap<Centrality, Double> getCentralities() {
-        return weightMapping;
+        HashMap<Centrality, Double> res = new HashMap<Centrality, Double>();
+        if (null != weightMapping) {
+            res.putAll(weightMapping);
+        }
+        if (null != owner) {
+            owner.collectWeights(res, Centrality.Type.EdgeCentrality, slot);
+        }
+        return res;
     }
 
     /**
@@ -254,7 +365,15 @@ public class Edge implements Annotable, IsSerializable, Serializable {
      */
     public double getWeightForCentrality(final Centrality c)
         throws InvalidCentralityException {
-        if (weightMapping.containsKey(c)) {
+        if (null != owner) {
+            Double weight = owner.getWeight(c,
+                    Centrality.Type.EdgeCentrality, slot);
+            if (null != weight) {
+                return weight.doubleValue();
+            }
+        }
+
+        if (null != weightMapping && weightMapping.containsKey(c)) {
             return weightMapping.get(c).doubleValue();
         }
 
@@ -262,28 +381,85 @@ public class Edge implements Annotable, IsSerializable, Serializable {
     }
 
     /**
-     * Add a listener to the observer pattern described
-     * in Annotable#addListener.
+     * Returns true if weights were added to the edge.
+     *
+     * @return True if getCentralities is not empty
+     */
+    boolean hasWeights() {
+        return (null != weightMapping && !weightMapping.isEmpty())
+            || (null != owner
+                && owner.hasWeights(Centrality.Type.EdgeCentrality, slot));
+    }
+
+    /**
+     * Makes a graph the owner of the weights of this edge.
+     *
+     * Only the first graph the edge is added to becomes the owner. Weights
+     * added before are kept in the map of the edge.
+     *
+     * @param g The graph
+     * @param position The position in the weight columns of the graph
+     * @return True if the graph became the owner
+     */
+    boolean setOwner(final Graph g, final int position) {
+        if (null != owner) {
+            return false;
+        }
+        owner = g;
+        slot = position;
+        return true;
+    }
+
+    /**
+     * Disconnects the edge from its nodes unless a graph owns it.
      *
-     * @see Annotable#addListener(AnnotableListener listener)
+     * Used for duplicates that were rejected by a graph.
+     */
+    void detach() {
+        if (null != owner) {
+            return;
+        }
+        if (sourceNode != null) {
+            sourceNode.detachEdge(this);
+        }
+        if (destinationNode != null && destinationNode != sourceNode) {
+            destinationNode.detachEdge(this);
+        }
+    }
+
+    /**
+     * Returns the position of this edge in the weight columns of a graph.
      *
-     * @param listener The listener implementation.
+     * @param g The graph
+     * @return The position or -1 if the graph does not own the edge
      */
-    public void addListener(final AnnotableListener listener) {
-        listeners.add(listener);
+    int getSlot(final Graph g) {
+        if (g != owner) {
+            return -1;
+        }
+        return slot;
     }
 
     /**
-     * Two edges are equals if their destination and source edes match.
+     * Two edges are equal if their source nodes, destination nodes and
+     * creation times match.
+     *
+     * Edges without nodes are only equal to themselves.
      *
      * @param o The object to check
      *
      * @return True if equals, otherwise false.
      */
     public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o instanceof Edge) {
             Edge e = (Edge) o;
-            return e.hashCode() == hashCode();
+            if (!hasNodes() || !e.hasNodes()) {
+                return false;
+            }
+            return e.getKey() == getKey() && e.createTime == createTime;
         }
         return false;
     }
@@ -292,26 +468,31 @@ public class Edge implements Annotable, IsSerializable, Serializable {
      * New hashCode.
      *
      * We have to implement hashCode base on the information
-     * of the nodes to which the edge belongs. We have to make sure
-     * that the hashcode of two edges with the same nodes but different
-     * directions are not the same.
+     * of the nodes to which the edge belongs. The hash is folded from the
+     * key of the nodes and the creation time, so edges with the same nodes
+     * but different directions or times usually differ. Equal hashes do
+     * not make edges equal.
      *
      * @return The hashCode
      */
     @Override
     public int hashCode() {
-        Node source = getSourceNode();
-        Node dest = getDestinationNode();
-        if (source == null || dest == null) {
+        if (!hasNodes()) {
             /* fallback */
             return super.hashCode();
-        } else {
-            /* lazy impl of the bernstein DJBX33A */
-            int hash = HASH_INIT;
-            hash = HASH_MULTIPLY * hash + source.getId();
-            hash = HASH_MULTIPLY * hash + dest.getId();
-            return hash;
         }
+        long key = getKey();
+        int hash = (int) (key ^ (key >>> INT_BITS));
+        return HASH_MULTIPLY * hash + createTime;
+    }
+
+    /**
+     * Returns true if both nodes are set.
+     *
+     * @return True if the edge has nodes
+     */
+    private boolean hasNodes() {
+        return sourceNode != null && destinationNode != null;
     }
 
     /**
@@ -0,0 +1,218 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+/**
+ * The nodes within a number of hops around a central node.
+ *
+ * The ego network is extracted by a breadth first search on the compact
+ * graph, so every node is reached on a shortest path and gets its exact hop
+ * distance from the center. The distance array doubles as the visited set,
+ * so the search takes O(V + E) time at most and never looks at a node
+ * twice.
+ *
+ * @see PeerCalculator
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class EgoNetwork {
+    /**
+     * The edges followed by the search.
+     */
+    enum Direction {
+        /**
+         * Follow edges from their source to their destination.
+         */
+        OUTGOING,
+
+        /**
+         * Follow edges from their destination to their source.
+         */
+        INCOMING,
+
+        /**
+         * Follow edges in both directions.
+         */
+        BOTH
+    };
+
+    /**
+     * The graph.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * The hop distance of every node, -1 if not part of the network.
+     */
+    private final int[] distances;
+
+    /**
+     * The node indices of the network in the order they were reached.
+     */
+    private final int[] nodes;
+
+    /**
+     * Creates a new ego network.
+     *
+     * @param cg The graph
+     * @param distances The hop distance of every node
+     * @param nodes The node indices of the network
+     */
+    private EgoNetwork(final CompactGraph cg, final int[] distances,
+            final int[] nodes) {
+        this.graph = cg;
+        this.distances = distances;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Extracts the ego network of a node.
+     *
+     * @param cg The graph
+     * @param center The central node
+     * @param hops The maximum distance from the center
+     * @param direction The edges to follow
+     * @return The ego network, empty if the center is not part of the graph
+     */
+    static EgoNetwork extract(final CompactGraph cg, final Node center,
+            final int hops, final Direction direction) {
+        return extract(cg, cg.indexOf(center), hops, direction);
+    }
+
+    /**
+     * Extracts the ego network of a node.
+     *
+     * @param cg The graph
+     * @param center The index of the central node, -1 for none
+     * @param hops The maximum distance from the center
+     * @param direction The edges to follow
+     * @return The ego network, empty if the center is -1
+     */
+    static EgoNetwork extract(final CompactGraph cg, final int center,
+            final int hops, final Direction direction) {
+        int n = cg.getNodeCount();
+        int[] dist = new int[n];
+        for (int v = 0; v < n; v++) {
+            dist[v] = -1;
+        }
+        if (center < 0) {
+            return new EgoNetwork(cg, dist, new int[0]);
+        }
+
+        boolean out = direction != Direction.INCOMING;
+        boolean in = direction != Direction.OUTGOING;
+        int[] outOffsets = cg.getOutOffsets();
+        int[] targets = cg.getEdgeTargets();
+        int[] inOffsets = cg.getInOffsets();
+        int[] sources = cg.getInSources();
+
+        /* the queue holds the reached nodes, head is the next to expand */
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        dist[center] = 0;
+        queue[tail++] = center;
+        while (head < tail) {
+            int v = queue[head++];
+            if (dist[v] >= hops) {
+                continue;
+            }
+            if (out) {
+                for (int p = outOffsets[v]; p < outOffsets[v + 1]; p++) {
+                    int w = targets[p];
+                    if (dist[w] < 0) {
+                        dist[w] = dist[v] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            if (in) {
+                for (int p = inOffsets[v]; p < inOffsets[v + 1]; p++) {
+                    int w = sources[p];
+                    if (dist[w] < 0) {
+                        dist[w] = dist[v] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+        }
+
+        int[] reached = new int[tail];
+        System.arraycopy(queue, 0, reached, 0, tail);
+        return new EgoNetwork(cg, dist, reached);
+    }
+
+    /**
+     * Returns the graph the network was extracted from.
+     *
+     * @return The graph
+     */
+    CompactGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the number of nodes of the network, including the center.
+     *
+     * @return The number of nodes
+     */
+    int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the node indices of the network in order of their distance.
+     *
+     * @return The node indices, must not be modified
+     */
+    int[] getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the hop distance of every node of the graph.
+     *
+     * @return The distances, -1 for nodes outside the network, must not
+     *         be modified
+     */
+    int[] getDistances() {
+        return distances;
+    }
+
+    /**
+     * Returns the hop distance of a node from the center.
+     *
+     * @param n The node
+     * @return The distance or -1 if the node is not part of the network
+     */
+    int getDistance(final Node n) {
+        int v = graph.indexOf(n);
+        if (v < 0) {
+            return -1;
+        }
+        return distances[v];
+    }
+
+    /**
+     * Checks if a node is part of the network.
+     *
+     * @param n The node
+     * @return True if the node is within the hop limit
+     */
+    boolean contains(final Node n) {
+        return getDistance(n) >= 0;
+    }
+}
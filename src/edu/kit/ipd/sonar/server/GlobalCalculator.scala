@@ -58,34 +58,22 @@ class GlobalCalculator extends Calculator {
             return g
         }
 
-        /* bound the graph if necessary */
-        val cur = if (null != bound && !bound.contains(g.getMaxTimeBoundary)) {
-            bounded(g, bound)
-        } else {
-            g
-        }
+        /* bound the graph if necessary, nothing is copied yet */
+        val cur = view(g, bound)
 
         errorif ("Graph is empty") {
-            cur.getNodeList.size == 0
+            cur.isEmpty
         }
 
-        cur setCentralNode null
         val next = if (lim > 0) {
-            val limitedList = limited(cur, centralities, lim)
-            graph(cur) {
-                (a:Annotable) => a match {
-                    case n: Node => limitedList contains n
-                    case _ => true
-                }
-            }
-        } else if (g == cur) {
-            graph(cur)
+            cur.restrict(limited(cur.getCompactGraph, centralities, lim))
         } else {
             cur
         }
 
-        centralities.foreach(addCentralities(next, cur, _))
-        next
+        val result = next.materialize
+        addAllCentralities(result, cur.getCompactGraph, centralities)
+        result
     }
 
     private def errorif (msg: String)(pred: => Boolean) {
@@ -97,29 +85,27 @@ class GlobalCalculator extends Calculator {
     /**
      * Limit the graph with with the given centrality.
      *
-     * @param graph The graph to be limited
+     * @param graph The compact graph of the view to be limited
      * @param c A list of centralities used to limit
      * @param limit The maximum amount of nodes
      *
-     * @return Returns a new graph
+     * @return The indices of the limit nodes with the highest values
      */
-    private def limited (graph: Graph, c: Buffer[CentralityImpl], limit: Int) = {
+    private def limited (graph: CompactGraph, c: Buffer[CentralityImpl],
+        limit: Int) = {
         val vals = c.find(_.getType == Type.NodeCentrality) match {
-            case Some(calc) => calc.getWeight(graph)
+            case Some(calc) => weights(graph, calc)
             case _ => throw new IllegalArgumentException("Need at least one"
                 + "Node Centrality")
         }
 
-        if (vals == null) {
+        /* select the top nodes with a bounded heap, nodes without a
+           value are not ranked */
+        val top = TopK.select(vals, limit)
+        if (top.isEmpty && graph.getNodeCount > 0) {
             throw new CalculationFailedException("Centraltiy returned null")
         }
-
-        /* we need to convert to doubleValue to get a scala double that we need
-        for comparision as >= is not defined on java.lang.Double */
-        vals.toList
-            .sortWith((x, y) => x._2.doubleValue >= y._2.doubleValue)
-            .slice(0, limit) /* limit the list */
-            .map(_._1) /* map the actual node */
+        top
     }
 }
 
@@ -17,6 +17,7 @@ package edu.kit.ipd.sonar.server;
 
 import edu.kit.ipd.sonar.server.centralities.Centrality;
 import com.google.gwt.user.client.rpc.IsSerializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -31,20 +32,36 @@ import java.util.Set;
  * and edges in the graph as well as their maximum time boundary.
  * Adding nodes should only be done using the graph object. The graph
  * is append only.
+ *<p/>
+ * The centrality values of the nodes and edges of a graph are stored in the
+ * graph, one double column per centrality. Every centrality gets a small
+ * dense id within the graph, the position of its column. Every node and
+ * edge owned by the graph has a fixed position in the columns.
  *
  * @author David Soria Parra <david.parra@student.kit.edu>
  */
-public class Graph implements IsSerializable, AnnotableListener {
+public class Graph implements IsSerializable {
+    //Checkstyle: Start ignoring magic numbers
     /**
-     * The initial value of the hash from hashCode.
+     * First multiplier of the 64 bit finalizer of MurmurHash3.
      */
-    private static final int HASH_INIT = 5381;
+    private static final long MIX_MULTIPLY_1 = 0xff51afd7ed558ccdL;
 
     /**
-     * Number to multiply the hash with.
-     * 33 is the usual one used with bernsteins hash.
+     * Second multiplier of the 64 bit finalizer of MurmurHash3.
      */
-    private static final int HASH_MULTIPLY = 33;
+    private static final long MIX_MULTIPLY_2 = 0xc4ceb9fe1a85ec53L;
+
+    /**
+     * Shift of the 64 bit finalizer of MurmurHash3.
+     */
+    private static final int MIX_SHIFT = 33;
+
+    /**
+     * Number of bits in an int.
+     */
+    private static final int INT_BITS = 32;
+    //Checkstyle: Stop ignoring magic numbers
 
     /**
      * Current time boundary.
@@ -73,9 +90,60 @@ public class Graph implements IsSerializable, AnnotableListener {
      */
     private Set<Edge> edgeList;
     /**
-     * Internal node list.
+     * Internal node list, mapping the ids to the nodes.
+     */
+    private NodeIndex nodeList;
+
+    /**
+     * The node list as a HashMap.
+     * Built on demand, dropped whenever a node is added. The map is only
+     * published once it is complete, as published graphs are read by
+     * several threads at once.
+     */
+    private transient volatile HashMap<Integer, Node> nodeMap;
+
+    /**
+     * The centralities with weight columns. The position of a centrality is
+     * its dense id in this graph.
+     */
+    private ArrayList<Centrality> columnCentralities;
+
+    /**
+     * The node weight column of every centrality id, null if unused.
+     */
+    private ArrayList<double[]> nodeColumns;
+
+    /**
+     * The edge weight column of every centrality id, null if unused.
+     */
+    private ArrayList<double[]> edgeColumns;
+
+    /**
+     * Marks the slots of every node column that have a value, null if
+     * every slot of the column has one. NaN is a valid value.
+     */
+    private ArrayList<boolean[]> nodePresence;
+
+    /**
+     * Marks the slots of every edge column that have a value, null if
+     * every slot of the column has one.
+     */
+    private ArrayList<boolean[]> edgePresence;
+
+    /**
+     * The statistics of the centralities whose values were set at once.
+     */
+    private HashMap<Centrality, CentralityStatistics> statistics;
+
+    /**
+     * The number of node positions in the columns.
+     */
+    private int nodeSlots = 0;
+
+    /**
+     * The number of edge positions in the columns.
      */
-    private HashMap<Integer, Node> nodeList;
+    private int edgeSlots = 0;
 
     /**
      * The central node of the graph.
@@ -84,14 +152,112 @@ public class Graph implements IsSerializable, AnnotableListener {
     private Node centralNode;
 
     /**
-     * Initialize a new object.
+     * The sum of the hashed keys of all nodes and edges.
+     * Maintained on every add, so the state hash is available in O(1).
+     */
+    private long stateHash = 0;
+
+    /**
+     * The compact snapshot of the current graph state.
+     * Built on demand, dropped whenever the graph changes.
+     */
+    private transient volatile CompactGraph compactGraph;
+
+    /**
+     * True if repeated interactions between two nodes are aggregated into
+     * one edge.
+     */
+    private boolean aggregateEdges;
+
+    /**
+     * The number of interactions represented by the edges.
+     */
+    private int interactions = 0;
+
+    /**
+     * The edges by the key of their nodes, used to aggregate edges.
+     * Built on demand.
+     */
+    private transient HashMap<Long, Edge> pairs;
+
+    /**
+     * The compact graph of the graph this one was copied from, as long as
+     * its compact graph can be built by appending to it. Null otherwise.
+     */
+    private transient CompactGraph copiedFrom;
+
+    /**
+     * The nodes added since the copy.
+     */
+    private transient ArrayList<Node> addedNodes;
+
+    /**
+     * The edges added since the copy.
+     */
+    private transient ArrayList<Edge> addedEdges;
+
+    /**
+     * Initialize a new object that aggregates repeated interactions between
+     * two nodes into one edge.
      */
     Graph() {
+        this(true);
+    }
+
+    /**
+     * Initialize a new object.
+     *
+     * @param aggregateEdges True to aggregate repeated interactions between
+     *                       two nodes into one edge
+     */
+    Graph(final boolean aggregateEdges) {
+        this.aggregateEdges = aggregateEdges;
         minCentrality = new HashMap<Centrality, Double>();
         maxCentrality = new HashMap<Centrality, Double>();
         edgeList = new HashSet<Edge>();
-        nodeList = new HashMap<Integer, Node>();
+        nodeList = new NodeIndex();
         centralityList = new HashSet<Centrality>();
+        columnCentralities = new ArrayList<Centrality>();
+        nodeColumns = new ArrayList<double[]>();
+        edgeColumns = new ArrayList<double[]>();
+        nodePresence = new ArrayList<boolean[]>();
+        edgePresence = new ArrayList<boolean[]>();
+        statistics = new HashMap<Centrality, CentralityStatistics>();
+    }
+
+    /**
+     * Initialize a new object with the nodes and edges of another graph,
+     * so nodes and edges can be added without changing the other graph.
+     *
+     * The node and edge objects are shared, only the node index and the
+     * edge set are copied. Edges added later are still attached to the
+     * shared nodes, so their edge lists show the edges of the latest copy.
+     * The compact graph of the copy is built by appending the added nodes
+     * and edges to the compact graph of the other graph.
+     *<p/>
+     * The shared nodes and edges keep storing their centrality values in
+     * the other graph, so it must not have any.
+     *
+     * @see CompactGraph#append(Graph, CompactGraph, Node[], Edge[])
+     *
+     * @param base The graph to copy
+     */
+    Graph(final Graph base) {
+        this(base.aggregateEdges);
+        if (!base.columnCentralities.isEmpty()
+                || !base.centralityList.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Graph with centrality values");
+        }
+
+        nodeList = new NodeIndex(base.nodeList);
+        edgeList = new HashSet<Edge>(base.edgeList);
+        timeBound = base.timeBound;
+        stateHash = base.stateHash;
+        interactions = base.interactions;
+        copiedFrom = base.getCompactGraph();
+        addedNodes = new ArrayList<Node>();
+        addedEdges = new ArrayList<Edge>();
     }
 
     /**
@@ -99,21 +265,65 @@ public class Graph implements IsSerializable, AnnotableListener {
      *
      * Both nodes have to be part of the graph already.
      *
+     * If the graph aggregates edges and already has an edge between the
+     * nodes, the edge is added to that edge instead, unless it has the same
+     * creation time.
+     *
+     * @see Edge#getCount()
+     *
      * @param edge The edge to be added to the graph
      */
     public void addEdge(final Edge edge) {
-        if (!nodeList.containsValue(edge.getSourceNode())) {
+        /* nodes are equal if their ids are equal, so looking up the id is
+           the same as searching the node among the values */
+        if (!nodeList.containsKey(edge.getSourceNode().getId())) {
             addNode(edge.getSourceNode());
         }
 
-        if (!nodeList.containsValue(edge.getDestinationNode())) {
+        if (!nodeList.containsKey(edge.getDestinationNode().getId())) {
             addNode(edge.getDestinationNode());
         }
 
-        edgeList.add(edge);
+        Edge existing = null;
+        if (aggregateEdges) {
+            existing = getPairs().get(edge.getKey());
+        }
+
+        /* an edge with the same nodes and time is the same row again and
+           is rejected like any other duplicate */
+        if (null != existing && !existing.equals(edge)) {
+            /* the time of the edge may change, so it is added again */
+            edgeList.remove(existing);
+            stateHash -= edgeKey(existing);
+            existing.aggregate(edge);
+            edgeList.add(existing);
+            /* the compact graph of the copy has the edge as it was */
+            copiedFrom = null;
+            stateHash += edgeKey(existing);
+            interactions += edge.getCount();
+            edge.detach();
+        } else if (edgeList.add(edge)) {
+            stateHash += edgeKey(edge);
+            interactions += edge.getCount();
+            if (aggregateEdges) {
+                getPairs().put(edge.getKey(), edge);
+            }
+            if (null != addedEdges) {
+                addedEdges.add(edge);
+            }
+            if (edge.setOwner(this, edgeSlots)) {
+                edgeSlots++;
+            }
+        } else {
+            /* a duplicate that is not part of any graph must not stay in the
+               edge lists of its nodes */
+            edge.detach();
+        }
+        compactGraph = null;
         updateTimeBound(edge.getTime());
-        updateCentralities(edge.getCentralities());
-        listenOnAnnotable(edge);
+        if (edge.hasWeights()) {
+            updateCentralities(edge.getCentralities());
+        }
     }
 
     /**
@@ -124,10 +334,21 @@ public class Graph implements IsSerializable, AnnotableListener {
      * @param node The node to add.
      */
     public void addNode(final Node node) {
-        nodeList.put(node.getId(), node);
+        if (null == nodeList.put(node)) {
+            stateHash += nodeKey(node.getId());
+            if (null != addedNodes) {
+                addedNodes.add(node);
+            }
+        }
+        nodeMap = null;
+        if (node.setOwner(this, nodeSlots)) {
+            nodeSlots++;
+        }
+        compactGraph = null;
         updateTimeBound(node.getTime());
-        updateCentralities(node.getCentralities());
-        listenOnAnnotable(node);
+        if (node.hasWeights()) {
+            updateCentralities(node.getCentralities());
+        }
     }
 
     /**
@@ -135,11 +356,52 @@ public class Graph implements IsSerializable, AnnotableListener {
      *
      * The returned HashMap will have the Ids of the nodes, as
      * provided by the database, as keys and the nodes itself as values.
+     *<p/>
+     * The map is built on demand from the internal node index and must not
+     * be modified. Code on the server should use getNode or getNodes
+     * instead, which need no boxing.
      *
      * @return The mapped node list
      */
     public HashMap<Integer, Node> getNodeList() {
-        return nodeList;
+        HashMap<Integer, Node> map = nodeMap;
+        if (null == map) {
+            map = new HashMap<Integer, Node>();
+            for (int i = 0; i < nodeList.size(); i++) {
+                Node n = nodeList.getAt(i);
+                map.put(n.getId(), n);
+            }
+            nodeMap = map;
+        }
+        return map;
+    }
+
+    /**
+     * Returns the node with an id.
+     *
+     * @param id The id of the node
+     * @return The node or null if it doesn't exist
+     */
+    Node getNode(final int id) {
+        return nodeList.get(id);
+    }
+
+    /**
+     * Returns all nodes in the order they were added.
+     *
+     * @return A new array of the nodes
+     */
+    Node[] getNodes() {
+        return nodeList.toArray();
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return The number of nodes
+     */
+    int getNodeCount() {
+        return nodeList.size();
     }
 
     /**
@@ -150,7 +412,7 @@ public class Graph implements IsSerializable, AnnotableListener {
      * @return the node or null if it doesn't exist
      */
     public Node getNodeById(final Integer id) throws NodeDoesNotExistException {
-        Node n = nodeList.get(id);
+        Node n = nodeList.get(id.intValue());
         if (null == n) {
             throw new NodeDoesNotExistException();
         }
@@ -167,15 +429,54 @@ public class Graph implements IsSerializable, AnnotableListener {
         return edgeList;
     }
 
+    /**
+     * Returns a compact, int indexed snapshot of the graph.
+     *
+     * The snapshot is built once per graph state and shared by all callers
+     * until the graph changes. Centralities should use it instead of walking
+     * the edge sets of the nodes.
+     *<p/>
+     * The snapshot of a copy of another graph is built by appending the
+     * nodes and edges added to the copy to the snapshot of the other graph.
+     *
+     * @see CompactGraph
+     *
+     * @return The snapshot
+     */
+    public CompactGraph getCompactGraph() {
+        CompactGraph cg = compactGraph;
+        if (null == cg) {
+            if (null != copiedFrom) {
+                cg = CompactGraph.append(this, copiedFrom,
+                        addedNodes.toArray(new Node[addedNodes.size()]),
+                        addedEdges.toArray(new Edge[addedEdges.size()]));
+            } else {
+                cg = new CompactGraph(this);
+            }
+            compactGraph = cg;
+        }
+        return cg;
+    }
+
     /**
      * Returns a hash that identifies the change state of the Graph. Therefore
-     * uses overridden hashCode implementation.
+     * uses overridden hashCode implementation. This is O(1), the hash is
+     * updated whenever a node or edge is added.
      * @return hash value
      */
     public int getStateHash() {
         return this.hashCode();
     }
 
+    /**
+     * Returns the full 64 bit state hash the hashCode is folded from.
+     *
+     * @return The state hash
+     */
+    long getFullStateHash() {
+        return stateHash;
+    }
+
     /**
      * If two graphs have the same hashcode they are equal.
      *
@@ -198,26 +499,90 @@ public class Graph implements IsSerializable, AnnotableListener {
      * Two graphs are equal if and only if they share 100% the same edges and
      * nodes.
      *
-     * NOTE: This hash function is straight forward. It may not work properly
-     * in special use cases.
+     * Every node and edge is mapped to a well mixed 64 bit key and the keys
+     * are summed up. The sum does not depend on the order in which the
+     * elements were added and is updated in constant time by addNode and
+     * addEdge.
      *
      * @return The hashCode
      */
     @Override
     public int hashCode() {
-        int hash = HASH_INIT;
+        return (int) (stateHash ^ (stateHash >>> INT_BITS));
+    }
 
-        /* acquiring all edges, hash them and add */
-        for (Edge e : edgeList) {
-            hash += HASH_MULTIPLY * hash + e.hashCode();
-        }
+    /**
+     * Returns the key of a node used for the state hash.
+     *
+     * @param id The id of the node
+     * @return The key
+     */
+    static long nodeKey(final int id) {
+        return mix(id);
+    }
+
+    /**
+     * Returns the key of an edge used for the state hash.
+     *
+     * The key depends on the direction, the creation time and the count
+     * of the edge and differs from the keys of the nodes.
+     *
+     * @param edge The edge
+     * @return The key
+     */
+    static long edgeKey(final Edge edge) {
+        long key = mix(mix(edge.getSourceNode().getId())
+                + edge.getDestinationNode().getId());
+        return mix(mix(key + edge.getTime()) + edge.getCount());
+    }
+
+    /**
+     * Returns true if repeated interactions between two nodes are
+     * aggregated into one edge.
+     *
+     * @return True if edges are aggregated
+     */
+    boolean isAggregatingEdges() {
+        return aggregateEdges;
+    }
 
-        /* acquire nodes, hash indirectly and add */
-        for (Node n : nodeList.values()) {
-            hash += HASH_MULTIPLY * hash + n.getId();
+    /**
+     * Returns the number of interactions represented by the edges.
+     *
+     * Without aggregation this is the number of edges.
+     *
+     * @return The number of interactions
+     */
+    int getInteractionCount() {
+        return interactions;
+    }
+
+    /**
+     * Returns the edges by the key of their nodes.
+     *
+     * @return The map
+     */
+    private HashMap<Long, Edge> getPairs() {
+        if (null == pairs) {
+            pairs = new HashMap<Long, Edge>();
+            for (Edge e : edgeList) {
+                pairs.put(e.getKey(), e);
+            }
         }
+        return pairs;
+    }
 
-        return hash;
+    /**
+     * Mixes the bits of a value with the MurmurHash3 finalizer.
+     *
+     * @param value The value
+     * @return The mixed value
+     */
+    private static long mix(final long value) {
+        long h = value;
+        h = (h ^ (h >>> MIX_SHIFT)) * MIX_MULTIPLY_1;
+        h = (h ^ (h >>> MIX_SHIFT)) * MIX_MULTIPLY_2;
+        return h ^ (h >>> MIX_SHIFT);
     }
 
     /**
@@ -281,13 +646,256 @@ public class Graph implements IsSerializable, AnnotableListener {
      * does not exists.
      */
     void setCentralNode(final Node node) throws NodeDoesNotExistException {
-        if (null != node && !nodeList.containsValue(node)) {
+        if (null != node && !nodeList.containsKey(node.getId())) {
             throw new NodeDoesNotExistException();
         }
 
         centralNode = node;
     }
 
+    /**
+     * Returns the dense id of a centrality in this graph.
+     *
+     * @param c The centrality
+     * @return The id or -1 if the graph has no weights of the centrality
+     */
+    int getCentralityId(final Centrality c) {
+        return columnCentralities.indexOf(c);
+    }
+
+    /**
+     * Returns the number of positions in the weight columns.
+     *
+     * The position of a node or edge is returned by its getSlot method.
+     *
+     * @param type NodeCentrality for the node columns, EdgeCentrality for
+     *             the edge columns
+     * @return The number of positions
+     */
+    int getSlotCount(final Centrality.Type type) {
+        if (Centrality.Type.EdgeCentrality == type) {
+            return edgeSlots;
+        }
+        return nodeSlots;
+    }
+
+    /**
+     * Sets all weights of a centrality at once.
+     *
+     * The array becomes the weight column of the centrality and must not be
+     * modified afterwards. Every node and edge gets a value, NaN included.
+     * The bounds and statistics of the centrality are computed in a single
+     * pass.
+     *
+     * @param c The centrality
+     * @param values The values indexed by the positions of the nodes or
+     *               edges, depending on the type of the centrality
+     */
+    void setWeights(final Centrality c, final double[] values) {
+        setWeights(c, values, null, 0);
+    }
+
+    /**
+     * Sets the weights of a centrality at once and computes quantiles.
+     *
+     * @see #setWeights(Centrality, double[])
+     *
+     * @param c The centrality
+     * @param values The values indexed by the positions of the nodes or
+     *               edges, depending on the type of the centrality
+     * @param present Marks the positions that have a value, null if all of
+     *                them have one. Must not be modified afterwards.
+     * @param intervals The number of intervals between the quantiles or 0
+     *                  to skip the quantiles
+     */
+    void setWeights(final Centrality c, final double[] values,
+            final boolean[] present, final int intervals) {
+        int id = register(c);
+        columnsOf(c.getType()).set(id, values);
+        presenceOf(c.getType()).set(id, present);
+        centralityList.add(c);
+
+        CentralityStatistics s = new CentralityStatistics(values, present,
+                intervals);
+        statistics.put(c, s);
+        if (s.getCount() > 0) {
+            updateCentralityBounds(c, s.getMin());
+            updateCentralityBounds(c, s.getMax());
+        }
+    }
+
+    /**
+     * Returns the statistics of the values of a centrality.
+     *
+     * Statistics are available for centralities whose values were set at
+     * once. Adding single weights afterwards discards them, only the
+     * bounds are kept up to date.
+     *
+     * @param c The centrality
+     * @return The statistics or null if none are available
+     */
+    public CentralityStatistics getStatistics(final Centrality c) {
+        return statistics.get(c);
+    }
+
+    /**
+     * Returns the weight of a node or edge.
+     *
+     * @param c The centrality
+     * @param type NodeCentrality for nodes, EdgeCentrality for edges
+     * @param slot The position of the node or edge
+     * @return The weight or null if there is none
+     */
+    Double getWeight(final Centrality c, final Centrality.Type type,
+            final int slot) {
+        int id = getCentralityId(c);
+        if (id < 0 || !isPresent(type, id, slot)) {
+            return null;
+        }
+        return Double.valueOf(columnsOf(type).get(id)[slot]);
+    }
+
+    /**
+     * Sets the weight of a single node or edge.
+     *
+     * @param c The centrality
+     * @param type NodeCentrality for nodes, EdgeCentrality for edges
+     * @param slot The position of the node or edge
+     * @param weight The weight
+     */
+    void putWeight(final Centrality c, final Centrality.Type type,
+            final int slot, final double weight) {
+        int id = register(c);
+        ArrayList<double[]> columns = columnsOf(type);
+        ArrayList<boolean[]> presence = presenceOf(type);
+        double[] column = columns.get(id);
+        boolean[] present = presence.get(id);
+        if (null == column || slot >= column.length) {
+            int size = Math.max(slot + 1, getSlotCount(type));
+            double[] grown = new double[size];
+            boolean[] grownPresent = new boolean[size];
+            if (null != column) {
+                System.arraycopy(column, 0, grown, 0, column.length);
+                for (int i = 0; i < column.length; i++) {
+                    grownPresent[i] = null == present || present[i];
+                }
+            }
+            column = grown;
+            present = grownPresent;
+            columns.set(id, column);
+            presence.set(id, present);
+        }
+        column[slot] = weight;
+        if (null != present) {
+            present[slot] = true;
+        }
+
+        centralityList.add(c);
+        statistics.remove(c);
+        if (!Double.isNaN(weight)) {
+            updateCentralityBounds(c, weight);
+        }
+    }
+
+    /**
+     * Adds the weights of a node or edge to a map.
+     *
+     * @param map The map
+     * @param type NodeCentrality for nodes, EdgeCentrality for edges
+     * @param slot The position of the node or edge
+     */
+    void collectWeights(final HashMap<Centrality, Double> map,
+            final Centrality.Type type, final int slot) {
+        for (int id = 0; id < columnCentralities.size(); id++) {
+            if (isPresent(type, id, slot)) {
+                map.put(columnCentralities.get(id),
+                        columnsOf(type).get(id)[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns true if a node or edge has any weight.
+     *
+     * @param type NodeCentrality for nodes, EdgeCentrality for edges
+     * @param slot The position of the node or edge
+     * @return True if there is a weight
+     */
+    boolean hasWeights(final Centrality.Type type, final int slot) {
+        for (int id = 0; id < columnCentralities.size(); id++) {
+            if (isPresent(type, id, slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if a column has a value for a node or edge.
+     *
+     * @param type NodeCentrality for nodes, EdgeCentrality for edges
+     * @param id The dense id of the centrality
+     * @param slot The position of the node or edge
+     * @return True if there is a value, which might be NaN
+     */
+    private boolean isPresent(final Centrality.Type type, final int id,
+            final int slot) {
+        double[] column = columnsOf(type).get(id);
+        if (null == column || slot < 0 || slot >= column.length) {
+            return false;
+        }
+        boolean[] present = presenceOf(type).get(id);
+        return null == present || present[slot];
+    }
+
+    /**
+     * Returns the dense id of a centrality, assigning a new one if
+     * necessary.
+     *
+     * @param c The centrality
+     * @return The id
+     */
+    private int register(final Centrality c) {
+        int id = getCentralityId(c);
+        if (id < 0) {
+            id = columnCentralities.size();
+            columnCentralities.add(c);
+            nodeColumns.add(null);
+            edgeColumns.add(null);
+            nodePresence.add(null);
+            edgePresence.add(null);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the node or the edge columns.
+     *
+     * @param type NodeCentrality for the node columns, EdgeCentrality for
+     *             the edge columns
+     * @return The columns
+     */
+    private ArrayList<double[]> columnsOf(final Centrality.Type type) {
+        if (Centrality.Type.EdgeCentrality == type) {
+            return edgeColumns;
+        }
+        return nodeColumns;
+    }
+
+    /**
+     * Returns the node or the edge presence marks.
+     *
+     * @param type NodeCentrality for the node marks, EdgeCentrality for
+     *             the edge marks
+     * @return The presence marks
+     */
+    private ArrayList<boolean[]> presenceOf(final Centrality.Type type) {
+        if (Centrality.Type.EdgeCentrality == type) {
+            return edgePresence;
+        }
+        return nodePresence;
+    }
+
     /**
      * Update the max time boundary based on the given time.
      *
@@ -351,28 +959,4 @@ public class Graph implements IsSerializable, AnnotableListener {
             maxCentrality.put(c, d);
         }
     }
-
-    /**
-     * Implements an AnnotableListener.
-     *
-     * Update our centrality list and update the maximum and minimum values of
-     * weights whenever we get notified by an annotable object.
-     *
-     * @param centrality the centrality to add the weight zu
-     * @param weight the new weight
-     */
-    public void newWeightEvent(final Centrality centrality,
-            final double weight) {
-        centralityList.add(centrality);
-        updateCentralityBounds(centrality, weight);
-    }
-
-    /**
-     * Add a listener to an annotable that keeps track of a newWeightEvent.
-     *
-     * @param a The annotable
-     */
-    private void listenOnAnnotable(final Annotable a) {
-        a.addListener(this);
-    }
 }
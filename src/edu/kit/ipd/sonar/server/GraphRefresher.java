@@ -0,0 +1,124 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically runs a refresh task on a background thread.
+ *
+ * The refresher is used by the database to load changes of the graph off
+ * the request threads. The task is run with a fixed delay between the end
+ * of one run and the start of the next, so slow loads never pile up.
+ * Exceptions thrown by the task are logged and do not stop the refresher.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class GraphRefresher {
+    /**
+     * Logger.
+     */
+    private static Logger logger = LoggerFactory.getLogger(
+            GraphRefresher.class);
+
+    /**
+     * The task to run.
+     */
+    private final Runnable task;
+
+    /**
+     * The delay between two runs.
+     */
+    private final long interval;
+
+    /**
+     * The unit of the interval.
+     */
+    private final TimeUnit unit;
+
+    /**
+     * The executor running the task, null if not started.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a new refresher.
+     *
+     * @param refreshTask The task to run
+     * @param delay The delay between two runs
+     * @param delayUnit The unit of the delay
+     */
+    GraphRefresher(final Runnable refreshTask, final long delay,
+            final TimeUnit delayUnit) {
+        task = refreshTask;
+        interval = delay;
+        unit = delayUnit;
+    }
+
+    /**
+     * Starts the refresher. The first run starts immediately.
+     */
+    synchronized void start() {
+        if (null != executor) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactory() {
+                    public Thread newThread(final Runnable r) {
+                        Thread t = new Thread(r, "sonar-graph-refresher");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Graph refresh failed: " + e.getMessage());
+                }
+            }
+        }, 0, interval, unit);
+        logger.info("Graph refresher started, interval: " + interval + " "
+                + unit);
+    }
+
+    /**
+     * Stops the refresher. A running refresh is not interrupted.
+     */
+    synchronized void stop() {
+        if (null != executor) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Returns if the refresher is running.
+     *
+     * @return True if started and not stopped
+     */
+    synchronized boolean isRunning() {
+        return null != executor;
+    }
+}
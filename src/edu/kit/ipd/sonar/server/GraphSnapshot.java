@@ -0,0 +1,98 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+/**
+ * An immutable version of the graph loaded from the database together with
+ * the information needed to decide whether and how it has to be refreshed.
+ *
+ * Snapshots are published as a whole, so readers always see a graph
+ * together with the watermark and change token it was loaded with. The graph
+ * of a published snapshot is never modified; a refresh builds a new graph.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class GraphSnapshot {
+    /**
+     * The graph.
+     */
+    private final Graph graph;
+
+    /**
+     * The high-water mark of the graph, null if it cannot be extended.
+     */
+    private final GraphWatermark watermark;
+
+    /**
+     * The change token of the database the graph was loaded from.
+     */
+    private final Object changeToken;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param g The graph
+     * @param mark The watermark or null
+     * @param token The change token of the database
+     */
+    GraphSnapshot(final Graph g, final GraphWatermark mark,
+            final Object token) {
+        graph = g;
+        watermark = mark;
+        changeToken = token;
+    }
+
+    /**
+     * Returns the graph.
+     *
+     * @return The graph
+     */
+    Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the high-water mark of the graph.
+     *
+     * @return The watermark or null if the graph has to be reloaded
+     * completely on the next change
+     */
+    GraphWatermark getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Returns the change token of the database the graph was loaded from.
+     *
+     * @see ChangeDetector
+     *
+     * @return The change token
+     */
+    Object getChangeToken() {
+        return changeToken;
+    }
+
+    /**
+     * Returns a string representation for logging.
+     *
+     * @return The string
+     */
+    @Override
+    public String toString() {
+        return "graph " + graph.getStateHash() + ", change token " + changeToken
+            + ", watermark " + watermark;
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.BitSet;
+
+/**
+ * A filtered view of a compact graph.
+ *
+ * A view selects nodes and edges of a base snapshot with two bitsets and
+ * does not copy them. Filters like the time boundary or the node limit are
+ * layered on top of each other, every filter returns a new view on the same
+ * base. An edge is only part of a view if both of its nodes are.
+ *<p/>
+ * A view can aggregate repeated interactions between two nodes. The filters
+ * always select the single interactions of the base, and only the compact
+ * graph of the view merges the selected interactions of every pair. So a
+ * time bounded view sees the interactions within its boundary only, no
+ * matter when the nodes first interacted.
+ *<p/>
+ * Centralities run on the compact graph of the view, which shares the node
+ * and edge objects of the base. A graph with copies of the nodes and edges
+ * is only created by materialize, when the result is handed to the client.
+ *
+ * @see CompactGraph
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class GraphView {
+    /**
+     * The snapshot the view is based on.
+     */
+    private final CompactGraph base;
+
+    /**
+     * The selected node indices of the base.
+     */
+    private final BitSet nodes;
+
+    /**
+     * The selected edge indices of the base.
+     */
+    private final BitSet edges;
+
+    /**
+     * True if the view aggregates repeated interactions.
+     */
+    private final boolean aggregate;
+
+    /**
+     * The time window if the view was bounded from a view of the whole
+     * graph, null otherwise.
+     */
+    private final TimeBoundary window;
+
+    /**
+     * The sum of the keys of the edges within the time window that are not
+     * selected.
+     */
+    private final long windowHash;
+
+    /**
+     * The compact graph of the selection, built on demand.
+     */
+    private CompactGraph compactGraph;
+
+    /**
+     * Creates a new view.
+     *
+     * @param base The snapshot
+     * @param nodes The selected nodes
+     * @param edges The selected edges, all nodes of them are selected
+     * @param aggregate True to aggregate repeated interactions
+     */
+    private GraphView(final CompactGraph base, final BitSet nodes,
+            final BitSet edges, final boolean aggregate) {
+        this(base, nodes, edges, aggregate, null, 0);
+    }
+
+    /**
+     * Creates a new time window of the whole graph.
+     *
+     * @param base The snapshot
+     * @param nodes The selected nodes
+     * @param edges The selected edges, all nodes of them are selected
+     * @param aggregate True to aggregate repeated interactions
+     * @param window The time window, null if the view is no window of the
+     *               whole graph
+     * @param windowHash The sum of the keys of the edges within the window
+     *                   that are not selected
+     */
+    private GraphView(final CompactGraph base, final BitSet nodes,
+            final BitSet edges, final boolean aggregate,
+            final TimeBoundary window, final long windowHash) {
+        this.base = base;
+        this.nodes = nodes;
+        this.edges = edges;
+        this.aggregate = aggregate;
+        this.window = window;
+        this.windowHash = windowHash;
+    }
+
+    /**
+     * Returns a view that selects the whole graph and keeps repeated
+     * interactions as distinct edges.
+     *
+     * @param g The graph
+     * @return The view
+     */
+    static GraphView of(final Graph g) {
+        return of(g, false);
+    }
+
+    /**
+     * Returns a view that selects the whole graph.
+     *
+     * @see Configuration#aggregateEdges()
+     *
+     * @param g The graph
+     * @param aggregate True to aggregate repeated interactions between two
+     *                  nodes into one edge
+     * @return The view
+     */
+    static GraphView of(final Graph g, final boolean aggregate) {
+        if (null == g) {
+            throw new IllegalArgumentException("Passed graph is null");
+        }
+
+        CompactGraph cg = g.getCompactGraph();
+        BitSet n = new BitSet(cg.getNodeCount());
+        n.set(0, cg.getNodeCount());
+        BitSet e = new BitSet(cg.getEdgeCount());
+        e.set(0, cg.getEdgeCount());
+        return new GraphView(cg, n, e, aggregate);
+    }
+
+    /**
+     * Returns a view that only selects the nodes and edges in a time
+     * boundary.
+     *
+     * The nodes and edges of the boundary are cut out of the temporal index
+     * of the snapshot by binary search, so only the elements within the
+     * boundary are looked at.
+     *
+     * A boundary of a view of the whole graph is kept as the time window of
+     * the compact graph, so the TemporalDegreeIndex can answer the degrees
+     * of the window.
+     *
+     * @see TemporalIndex
+     * @see CompactGraph#getWindow()
+     *
+     * @param bound The time boundary
+     * @return The bounded view
+     */
+    GraphView bounded(final TimeBoundary bound) {
+        TemporalIndex index = TemporalIndex.of(base);
+        BitSet n = new BitSet(base.getNodeCount());
+        BitSet e = new BitSet(base.getEdgeCount());
+        if (0 == index.estimateNodes(bound)) {
+            return new GraphView(base, n, e, aggregate);
+        }
+
+        int[] byTime = index.getNodesByTime();
+        int end = index.endNode(bound);
+        for (int i = index.firstNode(bound); i < end; i++) {
+            if (nodes.get(byTime[i])) {
+                n.set(byTime[i]);
+            }
+        }
+
+        boolean whole = getNodeCount() == base.getNodeCount()
+            && getEdgeCount() == base.getEdgeCount();
+        long outside = 0;
+        byTime = index.getEdgesByTime();
+        end = index.endEdge(bound);
+        for (int i = index.firstEdge(bound); i < end; i++) {
+            if (edges.get(byTime[i]) && connects(n, byTime[i])) {
+                e.set(byTime[i]);
+            } else {
+                outside += Graph.edgeKey(base.getEdge(byTime[i]));
+            }
+        }
+        if (!whole) {
+            return new GraphView(base, n, e, aggregate);
+        }
+        return new GraphView(base, n, e, aggregate, bound, outside);
+    }
+
+    /**
+     * Returns a view that only selects the given nodes and the edges
+     * between them.
+     *
+     * @param selection Node indices of the compact graph of this view
+     * @return The restricted view
+     */
+    GraphView restrict(final int[] selection) {
+        CompactGraph cg = getCompactGraph();
+        BitSet n = new BitSet(base.getNodeCount());
+        for (int i = 0; i < selection.length; i++) {
+            n.set(base.indexOfId(cg.getNodeIds()[selection[i]]));
+        }
+
+        BitSet e = new BitSet(base.getEdgeCount());
+        for (int i = edges.nextSetBit(0); i >= 0; i = edges.nextSetBit(i + 1)) {
+            if (connects(n, i)) {
+                e.set(i);
+            }
+        }
+        return new GraphView(base, n, e, aggregate);
+    }
+
+    /**
+     * Returns the edges of this view that are not part of another view.
+     *
+     * The difference is taken on the bitsets of the two views, so it costs
+     * a few word operations per 64 edges of the snapshot plus a lookup per
+     * edge of the result.
+     *<p/>
+     * If the views aggregate, an edge of this view is not part of the other
+     * one as soon as the interactions of its pair differ between the views.
+     * So a pair that gained or lost interactions is returned by the
+     * difference in both directions.
+     *
+     * @param other A view of the same snapshot
+     * @return Edge indices of the compact graph of this view in ascending
+     *         order
+     */
+    int[] edgesNotIn(final GraphView other) {
+        if (other.base != base) {
+            throw new IllegalArgumentException("Views of different graphs");
+        }
+
+        BitSet diff = (BitSet) edges.clone();
+        CompactGraph cg = getCompactGraph();
+        if (!aggregate) {
+            diff.andNot(other.edges);
+            int[] res = new int[diff.cardinality()];
+            int next = 0;
+            for (int e = diff.nextSetBit(0); e >= 0;
+                    e = diff.nextSetBit(e + 1)) {
+                res[next++] = cg.indexOf(base.getEdge(e));
+            }
+            return res;
+        }
+
+        /* every interaction in only one of the views changes its pair */
+        diff.xor(other.edges);
+        BitSet changed = new BitSet(cg.getEdgeCount());
+        for (int e = diff.nextSetBit(0); e >= 0; e = diff.nextSetBit(e + 1)) {
+            int s = cg.indexOfId(base.getNodeIds()[base.getEdgeSources()[e]]);
+            int t = cg.indexOfId(base.getNodeIds()[base.getEdgeTargets()[e]]);
+            if (s >= 0 && t >= 0) {
+                int pair = cg.indexOfEdge(s, t);
+                if (pair >= 0) {
+                    changed.set(pair);
+                }
+            }
+        }
+        return toArray(changed);
+    }
+
+    /**
+     * Returns true if both nodes of an edge are selected.
+     *
+     * @param n The selected nodes
+     * @param e The edge index
+     * @return True if the edge connects selected nodes
+     */
+    private boolean connects(final BitSet n, final int e) {
+        return n.get(base.getEdgeSources()[e])
+            && n.get(base.getEdgeTargets()[e]);
+    }
+
+    /**
+     * Returns true if the view does not contain any node.
+     *
+     * @return True if empty
+     */
+    boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Returns the number of selected nodes.
+     *
+     * @return The number of nodes
+     */
+    int getNodeCount() {
+        return nodes.cardinality();
+    }
+
+    /**
+     * Returns the number of selected edges.
+     *
+     * @return The number of edges
+     */
+    int getEdgeCount() {
+        return edges.cardinality();
+    }
+
+    /**
+     * Returns the compact graph of the view.
+     *
+     * If the view selects everything, this is the snapshot itself. Otherwise
+     * a compact subgraph that shares the nodes and edges of the snapshot is
+     * built on the first call. An aggregating view returns the aggregated
+     * form of that graph.
+     *
+     * @see CompactGraph#aggregated()
+     *
+     * @return The compact graph
+     */
+    CompactGraph getCompactGraph() {
+        if (null == compactGraph) {
+            CompactGraph cg = base;
+            if (getNodeCount() != base.getNodeCount()
+                    || getEdgeCount() != base.getEdgeCount()) {
+                cg = new CompactGraph(base, toArray(nodes), toArray(edges),
+                        window, windowHash);
+            }
+            if (aggregate) {
+                cg = cg.aggregated();
+            }
+            compactGraph = cg;
+        }
+        return compactGraph;
+    }
+
+    /**
+     * Creates a new graph with copies of the selected nodes and edges.
+     *
+     * The new graph has no central node and no centrality values.
+     *
+     * @return The new graph
+     */
+    Graph materialize() {
+        return getCompactGraph().toGraph();
+    }
+
+    /**
+     * Returns the set bits in ascending order.
+     *
+     * @param set The bits
+     * @return The indices of the set bits
+     */
+    private static int[] toArray(final BitSet set) {
+        int[] a = new int[set.cardinality()];
+        int next = 0;
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            a[next++] = i;
+        }
+        return a;
+    }
+}
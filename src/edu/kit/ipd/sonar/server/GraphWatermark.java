@@ -0,0 +1,111 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+/**
+ * The high-water mark of a graph loaded from the database.
+ *
+ * The watermark records how many node and edge rows were read and the
+ * highest node id and edge creation time seen. As long as the database is
+ * only appended to, all rows up to the watermark are unchanged and only
+ * the rows above it have to be fetched to bring a cached graph up to date.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class GraphWatermark {
+    /**
+     * The number of node rows up to and including maxNodeId.
+     */
+    private final long nodeCount;
+
+    /**
+     * The number of edge rows up to and including maxEdgeTime.
+     */
+    private final long edgeCount;
+
+    /**
+     * The highest node id.
+     */
+    private final int maxNodeId;
+
+    /**
+     * The highest edge creation time.
+     */
+    private final int maxEdgeTime;
+
+    /**
+     * Creates a new watermark.
+     *
+     * @param nodes The number of node rows
+     * @param edgeRows The number of edge rows
+     * @param nodeId The highest node id
+     * @param edgeTime The highest edge creation time
+     */
+    GraphWatermark(final long nodes, final long edgeRows, final int nodeId,
+            final int edgeTime) {
+        nodeCount = nodes;
+        edgeCount = edgeRows;
+        maxNodeId = nodeId;
+        maxEdgeTime = edgeTime;
+    }
+
+    /**
+     * Returns the number of node rows covered by the watermark.
+     *
+     * @return The number of nodes
+     */
+    long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of edge rows covered by the watermark.
+     *
+     * @return The number of edges
+     */
+    long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the highest node id covered by the watermark.
+     *
+     * @return The node id
+     */
+    int getMaxNodeId() {
+        return maxNodeId;
+    }
+
+    /**
+     * Returns the highest edge creation time covered by the watermark.
+     *
+     * @return The creation time
+     */
+    int getMaxEdgeTime() {
+        return maxEdgeTime;
+    }
+
+    /**
+     * Returns a string representation for logging.
+     *
+     * @return The string
+     */
+    @Override
+    public String toString() {
+        return "nodes: " + nodeCount + " (id <= " + maxNodeId + "), edges: "
+            + edgeCount + " (time <= " + maxEdgeTime + ")";
+    }
+}
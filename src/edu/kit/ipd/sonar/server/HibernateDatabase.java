@@ -15,6 +15,8 @@
  */
 package edu.kit.ipd.sonar.server;
 
+import java.io.File;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -22,11 +24,16 @@ import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.hibernate.HibernateException;
 import org.hibernate.ObjectNotFoundException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
 
 import org.slf4j.Logger;
@@ -46,15 +53,51 @@ class HibernateDatabase implements Database {
     private SessionFactory _session = null;
 
     /**
-     * Holds the cached Graph. Caching has been implemented for preformance
-     * reasons.
+     * Number of rows fetched per round-trip while streaming the graph.
      */
-    private volatile Graph cachedGraph = null;
+    private static final int FETCH_SIZE = 1000;
 
     /**
-     * Holds an identifier to identify the cache as valid or invalid.
+     * Holds the current graph snapshot. Caching has been implemented for
+     * preformance reasons. A refresh publishes a new snapshot as a whole,
+     * so readers never see a graph together with a stale change token.
      */
-    private volatile Long cacheId = null;
+    private final AtomicReference<GraphSnapshot> snapshot
+        = new AtomicReference<GraphSnapshot>();
+
+    /**
+     * Serializes refreshes, so concurrent callers never load in parallel.
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * Detects changes of the data base.
+     */
+    private final ChangeDetector detector;
+
+    /**
+     * Refreshes the graph in the background if database caching is enabled.
+     * Null otherwise.
+     */
+    private final GraphRefresher refresher;
+
+    /**
+     * Stores the graph on the local disk for restarts. Null if the graph is
+     * not stored.
+     */
+    private final SnapshotFile snapshotFile;
+
+    /**
+     * True until the first refresh has tried to restore the graph from the
+     * snapshot file. Guarded by the refresh lock.
+     */
+    private boolean restorePending;
+
+    /**
+     * The change token of a graph read from the snapshot file. It equals no
+     * token of the data base, so the graph is checked for changes first.
+     */
+    private static final Object RESTORED = new Object();
 
     /**
      * Logger for error logging.
@@ -74,6 +117,89 @@ class HibernateDatabase implements Database {
             logger.error("Hibernate initialization failed: " + e.getMessage());
         }
 
+        Configuration config = Configuration.getInstance();
+        detector = createChangeDetector(config);
+        if (_session != null && config.databaseCachingEnabled()) {
+            if (config.getDatabaseSnapshotFile() != null) {
+                snapshotFile = new SnapshotFile(
+                        new File(config.getDatabaseSnapshotFile()));
+                restorePending = true;
+            } else {
+                snapshotFile = null;
+            }
+            refresher = new GraphRefresher(new Runnable() {
+                public void run() {
+                    refresh();
+                }
+            }, config.getDatabaseRefreshInterval(), TimeUnit.SECONDS);
+            refresher.start();
+        } else {
+            snapshotFile = null;
+            refresher = null;
+        }
+    }
+
+    /**
+     * Publishes the graph stored in the snapshot file, so only the changes
+     * since it was stored are loaded from the data base. Runs in the first
+     * refresh, which the refresher starts right away, so the server starts
+     * without waiting for the file. A file that cannot be read is ignored
+     * and replaced after the refresh.
+     */
+    private void restore() {
+        if (!snapshotFile.exists()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        GraphSnapshot restored;
+        try {
+            restored = snapshotFile.read(RESTORED);
+        } catch (IOException e) {
+            logger.warn("Cannot restore the graph: " + e.getMessage());
+            return;
+        }
+        /* the stored graph of an older version may be aggregated */
+        if (restored.getGraph().isAggregatingEdges()) {
+            logger.info("Stored graph aggregates edges.");
+            return;
+        }
+        TemporalDegreeIndex.of(restored.getGraph().getCompactGraph());
+        snapshot.set(restored);
+        logger.info("Graph restored from " + snapshotFile.getFile() + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Writes a snapshot to the snapshot file, if there is one. Failures are
+     * only logged, the graph is stored again after the next change.
+     * @param next the snapshot
+     */
+    private void store(final GraphSnapshot next) {
+        if (snapshotFile == null || next.getWatermark() == null) {
+            return;
+        }
+        try {
+            snapshotFile.write(next);
+        } catch (IOException e) {
+            logger.warn("Cannot store the graph: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the change detector described by the configuration.
+     * @param config the configuration
+     * @return the change detector
+     */
+    private ChangeDetector createChangeDetector(final Configuration config) {
+        ChangeDetector probe;
+        if (config.getChangeDetectionQuery() != null) {
+            probe = new QueryChangeDetector(_session,
+                    config.getChangeDetectionQuery());
+        } else {
+            probe = new CountChangeDetector(_session);
+        }
+        return new RateLimitedChangeDetector(probe,
+                config.getMinProbeInterval());
     }
 
     /**
@@ -84,25 +210,78 @@ class HibernateDatabase implements Database {
      * @return A new graph from the database.
      */
     public Graph getGraph() throws DataException {
-        Graph g = null;
+        return currentSnapshot().getGraph();
+    }
 
-        /* Fundamental caching routine. */
-        if (!this.dbChanged() && this.cachedGraph != null) {
-            g = this.cachedGraph;
-            logger.debug("Graph does not seem to have changed. "
-                    + "Taking cached one.");
-        } else {
-            g = startGraph();
-            this.cachedGraph = g;
+    /**
+     * Returns the current snapshot, loading the graph if necessary.
+     * @throws DataException if no graph could be loaded.
+     * @return The current snapshot
+     */
+    private GraphSnapshot currentSnapshot() throws DataException {
+        GraphSnapshot current = snapshot.get();
+
+        /* With background refreshing, requests only wait for the first load.
+         * Without it, every request checks the data base for changes. */
+        if (current == null || refresher == null) {
+            current = refresh();
         }
 
-        if (g == null) {
+        if (current == null) {
             logger.error("HibernateDatabase: No graph loaded. Aborted.");
             throw new DataException("Hibernate could not load a graph from the"
                     + "Database");
         }
-        logger.debug("Graph created: " + g.getStateHash());
-        return g;
+        logger.debug("Graph taken from snapshot: " + current);
+        return current;
+    }
+
+    /**
+     * Checks the data base for changes and publishes a new graph snapshot if
+     * necessary. Only one refresh runs at a time; callers that arrive during
+     * a refresh wait for it and usually find the graph unchanged afterwards.
+     * If loading fails, the previous snapshot is kept.
+     * @return the current snapshot, null if no graph could be loaded yet
+     */
+    GraphSnapshot refresh() {
+        synchronized (refreshLock) {
+            if (restorePending) {
+                restorePending = false;
+                restore();
+            }
+            GraphSnapshot current = snapshot.get();
+
+            Object changeToken;
+            try {
+                changeToken = detector.probe();
+            } catch (HibernateException e) {
+                logger.error("Cannot check the data base for changes: "
+                        + e.getMessage());
+                return current;
+            }
+
+            if (current != null
+                    && current.getChangeToken().equals(changeToken)) {
+                logger.debug("Graph does not seem to have changed. "
+                        + "Taking cached one.");
+                return current;
+            }
+
+            GraphSnapshot next = loadSnapshot(current, changeToken);
+            if (next == null) {
+                return current;
+            }
+
+            /* the compact graph and its degree index are built before the
+               graph is published; after a delta both are extended from
+               the ones of the current graph */
+            TemporalDegreeIndex.of(next.getGraph().getCompactGraph());
+            snapshot.set(next);
+            /* results calculated on the old graph are stale now */
+            CalculationCache.getInstance().invalidate();
+            store(next);
+            return next;
+        }
     }
 
     /**
@@ -177,15 +356,44 @@ class HibernateDatabase implements Database {
 
     }
 
+    /**
+     * Loads the next graph snapshot from the data source. If delta loading
+     * is enabled and the data base has only been appended to since the
+     * current snapshot was loaded, just the new rows are fetched and added
+     * to a copy of its graph. Otherwise the whole graph is reloaded.
+     * @param current the current snapshot, might be null
+     * @param changeToken the change token of the data base
+     * @return the next snapshot or null if no graph could be loaded
+     */
+    private GraphSnapshot loadSnapshot(final GraphSnapshot current,
+            final Object changeToken) {
+        if (current != null && current.getWatermark() != null
+                && Configuration.getInstance().databaseDeltaLoadingEnabled()) {
+            try {
+                GraphSnapshot next = loadDelta(current, changeToken);
+                if (next != null) {
+                    return next;
+                }
+            } catch (HibernateException e) {
+                logger.error("Delta loading failed: " + e.getMessage());
+            }
+        }
+
+        return startGraph(changeToken);
+    }
+
     /**
      * Starts to fetch the graph structure from the data source. Also does
      * generic Hibernate Database Error Management.
+     * @param changeToken the change token of the data base
      * @return the fetched Graph
      */
-    private Graph startGraph() {
+    private GraphSnapshot startGraph(final Object changeToken) {
         try {
-            Graph g = new Graph();
-            return loadGraph(g);
+            /* every interaction is kept, the calculators aggregate them
+               within the time boundary of a request */
+            Graph g = new Graph(false);
+            return loadGraph(g, changeToken);
         } catch (Exception e) {
             if (e instanceof HibernateException) {
                 logger.error(e.getMessage());
@@ -200,128 +408,216 @@ class HibernateDatabase implements Database {
 
     /**
      * Tries to fetch the nodes and edges for the Graph from the data source.
-     * This is an internal function! It traverses through all nodes and tries to
-     * fetch their connected edges by calling the private loadEdgesForNode
-     * function.
+     * This is an internal function! The nodes and the edges are each fetched
+     * with a single streaming query and added to the graph in one pass.
+     * Edges that refer to nodes that do not exist in the data base are
+     * reported as inconsistencies and skipped.
      * @param g the graph
-     * @return the graph added by the nodes and edges
+     * @param changeToken the change token of the data base
+     * @return the snapshot of the graph added by the nodes and edges
      * @throws HibernateException
      */
-    private Graph loadGraph(Graph g) {
+    private GraphSnapshot loadGraph(final Graph g,
+            final Object changeToken) {
         Transaction tx = null;
+        long start = System.currentTimeMillis();
         logger.debug("Node Loader started.");
 
-        /* Acquire Hibernate Session */
-        Session session = _session.openSession();
+        /* Acquire stateless Hibernate Session, we don't need any entities */
+        StatelessSession session = _session.openStatelessSession();
 
         try {
             tx = session.beginTransaction(); /* start DB transaction */
-            List nodes = session.createQuery("select n from Node as n").list();
 
-            logger.debug("Starting Node iteration for " + nodes.size());
+            LoadState state = new LoadState(null);
+            loadNodes(session, g, state);
+            logger.debug("Nodes loaded: " + g.getNodeCount());
+            loadEdges(session, g, state);
 
-            /* traversing through all nodes */
-            for (Iterator iter = nodes.iterator(); iter.hasNext();) {
-                Node node = (Node) iter.next();
-                g.addNode(node);
-                logger.trace(node.toString());
-                g = loadEdgesForNode(g, node, session); /* load the edges */
-            }
-            logger.info("Graph build complete. Nodes: "
-                    + g.getNodeList().size() + ", Edges: "
-                    + g.getEdgeList().size());
             tx.commit(); /* transaction completed. */
+            logger.info("Graph build complete. Nodes: "
+                    + g.getNodeCount() + ", Edges: "
+                    + g.getEdgeList().size() + ", Time: "
+                    + (System.currentTimeMillis() - start) + "ms");
+            return new GraphSnapshot(g, state.getWatermark(), changeToken);
 
         } catch (RuntimeException e) {
-            if (tx != null && tx.isActive()) {
-                try { /* rollback could possibly fail */
-                    tx.rollback();
-                } catch (HibernateException ex) {
-                    logger.debug("Error rolling back transaction");
-                }
-                // throw again the first exception
-                throw e;
-            }
+            rollback(tx);
             throw e;
         } finally {
             session.close();
         }
-
-        return g;
     }
 
     /**
-     * Loads the Edges for the specified Node. This is an internal function! I
-     * is used to load all edges that are connected to the specified node in
-     * order to load the nodes from the data base and to interconnect nodes and
-     * edges and add them to the graph data structure. This method also detects
-     * inconsistencies in the data base in form of Edges that do not or no
-     * longer belong to any nodes but have not been deleted from the data base.
-     * @param g the Graph object to load the edges for
-     * @param node the node object to load the edges for
-     * @param s the active Hibernate session
-     * @return the Graph with the edges added
+     * Fetches only the nodes and edges above the watermark of the given
+     * snapshot and adds them to a copy of its graph. The published graph
+     * itself is never modified, as it might still be in use. The copy
+     * shares the node and edge objects, and its compact graph is built by
+     * appending the new rows to the compact graph of the published one.
+     * If rows below the watermark were deleted or inserted out of order,
+     * the graph cannot be extended and null is returned.
+     * @param current the snapshot to extend
+     * @param changeToken the change token of the data base
+     * @return the extended snapshot or null if a full reload is needed
+     * @throws HibernateException
      */
-    private Graph loadEdgesForNode(final Graph g, final Node node,
-            final Session s) {
-        /* fetch current session */
-        Session session = s;
+    private GraphSnapshot loadDelta(final GraphSnapshot current,
+            final Object changeToken) {
+        Transaction tx = null;
+        long start = System.currentTimeMillis();
+        GraphWatermark mark = current.getWatermark();
+
+        StatelessSession session = _session.openStatelessSession();
 
         try {
-            List edges = session.createQuery(
-                    "select e from Edge as e where e.sourceNode="
-                            + node.getId() + " OR e.destinationNode="
-                            + node.getId()).list();
+            tx = session.beginTransaction(); /* start DB transaction */
+
+            long nodes = count(session, "select count(*) from Node as n"
+                    + " where n.id <= :mark", mark.getMaxNodeId());
+            long edges = count(session, "select count(*) from Edge as e"
+                    + " where e.createTime <= :mark", mark.getMaxEdgeTime());
+            if (nodes != mark.getNodeCount()
+                    || edges != mark.getEdgeCount()) {
+                tx.commit();
+                logger.info("Rows below the watermark (" + mark
+                        + ") changed. Nodes: " + nodes + ", Edges: " + edges
+                        + ". Reloading the graph.");
+                return null;
+            }
 
-            logger.debug("Looking up edges for " + node.toString());
+            Graph g = new Graph(current.getGraph());
+            LoadState state = new LoadState(mark);
+            loadNodes(session, g, state);
+            loadEdges(session, g, state);
 
-            /*
-             * iterate over all edges that are associated with the specified
-             * node
-             */
-            for (Iterator edgeIter = edges.iterator(); edgeIter.hasNext();) {
-
-                Edge edge = (Edge) edgeIter.next();
-
-                try {
-                    if (edge.getDestinationNode().getName() == null
-                            || edge.getSourceNode().getName() == null) {
-                        logger.info("Database inconsistency detected.");
-                    }
-
-                    node.addEdge(edge);
-                    g.addEdge(edge);
-                    logger.debug(edge.toString()
-                            + " found in database and added to parent "
-                            + node.toString());
-
-                } catch (Exception e) {
-                    if (e instanceof ObjectNotFoundException) {
-                        logger.info("Database inconsistency detected"
-                                + "for an edge of Node " + node.toString());
-                    } else {
-                        throw new HibernateException("Database is"
-                                + "inconsistent. This inconsistencs"
-                                + "could not be handled by Sonar: "
-                                + e.getMessage());
-                    }
-                } // try-catch
-
-            } // for
+            tx.commit(); /* transaction completed. */
+            logger.info("Graph delta complete. New nodes: "
+                    + (state.getNodes() - mark.getNodeCount())
+                    + ", New edges: "
+                    + (state.getEdges() - mark.getEdgeCount())
+                    + ", Time: " + (System.currentTimeMillis() - start)
+                    + "ms");
+            return new GraphSnapshot(g, state.getWatermark(), changeToken);
 
-        } catch (Exception e) {
-            if (e instanceof ObjectNotFoundException) {
-                logger.info("Database inconsistency detected for Node "
-                        + node.getName());
-            } else {
-                throw new HibernateException("Database is inconsistent."
-                        + "This inconsistency could not be handled by Sonar: "
-                        + e.getMessage());
+        } catch (RuntimeException e) {
+            rollback(tx);
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Streams all nodes above the watermark of the load state into the graph.
+     * @param session the session to query
+     * @param g the graph to add the nodes to
+     * @param state the load state to update
+     */
+    private void loadNodes(final StatelessSession session, final Graph g,
+            final LoadState state) {
+        ScrollableResults nodes = session.createQuery(
+                "select n.id, n.name, n.createTime, n.originalWeight"
+                + " from Node as n where n.id > :mark")
+                .setInteger("mark", state.getMaxNodeId())
+                .setFetchSize(FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (nodes.next()) {
+                Node node = new Node(nodes.getInteger(0).intValue(),
+                        nodes.getString(1),
+                        intValue(nodes.getInteger(2)));
+                node.setOriginalWeight(nodes.getDouble(3));
+                g.addNode(node);
+                state.nodeLoaded(node.getId());
             }
-        } // try-catch
+        } finally {
+            nodes.close();
+        }
+    }
 
-        return g;
+    /**
+     * Streams all edges above the watermark of the load state into the graph.
+     * @param session the session to query
+     * @param g the graph to add the edges to
+     * @param state the load state to update
+     */
+    private void loadEdges(final StatelessSession session, final Graph g,
+            final LoadState state) {
+        ScrollableResults edges = session.createQuery(
+                "select e.sourceNode.id, e.destinationNode.id,"
+                + " e.createTime, e.originalWeight from Edge as e"
+                + " where e.createTime > :mark")
+                .setInteger("mark", state.getMaxEdgeTime())
+                .setFetchSize(FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        int inconsistent = 0;
+        try {
+            while (edges.next()) {
+                int time = intValue(edges.getInteger(2));
+                state.edgeLoaded(time);
+
+                Node source = g.getNode(edges.getInteger(0).intValue());
+                Node destination = g.getNode(edges.getInteger(1).intValue());
+                if (source == null || destination == null) {
+                    inconsistent++;
+                    continue;
+                }
 
+                Edge edge = new Edge(source, destination, time);
+                edge.setOriginalWeight(edges.getDouble(3));
+                g.addEdge(edge);
+            }
+        } finally {
+            edges.close();
+        }
+
+        if (inconsistent > 0) {
+            /* the nodes might just have been inserted concurrently */
+            state.setIncomplete();
+            logger.info("Database inconsistency detected: "
+                    + inconsistent + " edges refer to missing nodes.");
+        }
+    }
+
+    /**
+     * Returns the result of a count query with a single integer parameter.
+     * @param session the session to query
+     * @param query the HQL count query with a :mark parameter
+     * @param mark the value of the parameter
+     * @return the count
+     */
+    private static long count(final StatelessSession session,
+            final String query, final int mark) {
+        Long cnt = (Long) session.createQuery(query).setInteger("mark", mark)
+                .uniqueResult();
+        return cnt.longValue();
+    }
+
+    /**
+     * Rolls back the given transaction if it is still active.
+     * @param tx the transaction, might be null
+     */
+    private static void rollback(final Transaction tx) {
+        if (tx != null && tx.isActive()) {
+            try { /* rollback could possibly fail */
+                tx.rollback();
+            } catch (HibernateException ex) {
+                logger.debug("Error rolling back transaction");
+            }
+        }
+    }
+
+    /**
+     * Converts a nullable integer column to a primitive.
+     * @param value the column value
+     * @return the value or 0 if the column is null
+     */
+    private static int intValue(final Integer value) {
+        if (value == null) {
+            return 0;
+        }
+        return value.intValue();
     }
 
     /**
@@ -381,26 +677,109 @@ class HibernateDatabase implements Database {
     }
 
     /**
-     * This method returns if the database has changed. NOTE: This
-     * implementation consideres the DB to be append-only! This function is
-     * crucial for the database caching to work.
-     * @return true if the database has been appended, false else
+     * Tracks the rows read while loading a graph and the resulting
+     * watermark.
      */
-    private boolean dbChanged() {
-        Session s = _session.openSession();
+    private static final class LoadState {
+        /** The number of node rows read including the base watermark. */
+        private long nodes;
+
+        /** The number of edge rows read including the base watermark. */
+        private long edges;
+
+        /** The highest node id read. */
+        private int maxNodeId = Integer.MIN_VALUE;
+
+        /** The highest edge creation time read. */
+        private int maxEdgeTime = Integer.MIN_VALUE;
+
+        /** False if the loaded graph must not be extended later. */
+        private boolean complete = true;
+
+        /**
+         * Creates a new load state.
+         * @param base the watermark to continue from, null for a full load
+         */
+        LoadState(final GraphWatermark base) {
+            if (base != null) {
+                nodes = base.getNodeCount();
+                edges = base.getEdgeCount();
+                maxNodeId = base.getMaxNodeId();
+                maxEdgeTime = base.getMaxEdgeTime();
+            }
+        }
 
-        Transaction tx = s.beginTransaction(); /* start DB transaction */
-        Long cnt = (Long) s.createQuery("select count(*) from Edge as e")
-                .uniqueResult();
-        logger.debug("dbChanged? -> new graph identifier: " + cnt.longValue());
-        if (this.cacheId == null || this.cacheId.longValue() != cnt.longValue()) {
-            this.cacheId = cnt;
-            return true;
+        /**
+         * Records a node row.
+         * @param id the id of the node
+         */
+        void nodeLoaded(final int id) {
+            nodes++;
+            if (id > maxNodeId) {
+                maxNodeId = id;
+            }
         }
-        tx.commit();
-        s.close();
 
-        return false;
-    }
+        /**
+         * Records an edge row.
+         * @param time the creation time of the edge
+         */
+        void edgeLoaded(final int time) {
+            edges++;
+            if (time > maxEdgeTime) {
+                maxEdgeTime = time;
+            }
+        }
+
+        /**
+         * Marks the load as incomplete. No watermark is recorded then and
+         * the next refresh reloads the whole graph.
+         */
+        void setIncomplete() {
+            complete = false;
+        }
+
+        /**
+         * Returns the number of node rows.
+         * @return the number of nodes
+         */
+        long getNodes() {
+            return nodes;
+        }
 
-}
\ No newline at end of file
+        /**
+         * Returns the number of edge rows.
+         * @return the number of edges
+         */
+        long getEdges() {
+            return edges;
+        }
+
+        /**
+         * Returns the highest node id read.
+         * @return the node id
+         */
+        int getMaxNodeId() {
+            return maxNodeId;
+        }
+
+        /**
+         * Returns the highest edge creation time read.
+         * @return the creation time
+         */
+        int getMaxEdgeTime() {
+            return maxEdgeTime;
+        }
+
+        /**
+         * Returns the watermark of the loaded graph.
+         * @return the watermark or null if the load was incomplete
+         */
+        GraphWatermark getWatermark() {
+            if (!complete) {
+                return null;
+            }
+            return new GraphWatermark(nodes, edges, maxNodeId, maxEdgeTime);
+        }
+    }
+}
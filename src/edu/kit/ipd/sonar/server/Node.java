@@ -17,9 +17,10 @@ package edu.kit.ipd.sonar.server;
 
 import edu.kit.ipd.sonar.server.centralities.Centrality;
 import com.google.gwt.user.client.rpc.IsSerializable;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -38,13 +39,14 @@ import java.util.Set;
  */
 public class Node implements Annotable, IsSerializable {
     /**
-     * An array that holds all subscriped listener.
+     * The edges starting at this node.
      */
-    private transient HashSet<AnnotableListener> listeners;
+    private ArrayList<Edge> outgoing;
+
     /**
-     * An array of edges connected with this node.
+     * The edges pointing to this node.
      */
-    private HashSet<Edge> edges;
+    private ArrayList<Edge> incoming;
 
     /**
      * The id of the node which identified the node
@@ -69,17 +71,27 @@ public class Node implements Annotable, IsSerializable {
      private Double originalWeight = null;
 
     /**
-     * Mapping of centrality to weight for this node.
+     * Mapping of centrality to weight for this node, used as long as the
+     * node is not part of a graph. Created on demand.
      */
     private HashMap<Centrality, Double> weightMapping;
 
+    /**
+     * The graph that stores the weights of this node in its columns.
+     */
+    private Graph owner;
+
+    /**
+     * The position of this node in the weight columns of the owner.
+     */
+    private int slot = -1;
+
     /**
      * Initialize a new Object.
      */
     Node() {
-        weightMapping = new HashMap<Centrality, Double>();
-        listeners = new HashSet<AnnotableListener>();
-        edges = new HashSet<Edge>();
+        outgoing = new ArrayList<Edge>();
+        incoming = new ArrayList<Edge>();
     }
 
     /**
@@ -107,12 +119,23 @@ public class Node implements Annotable, IsSerializable {
     public Node(final int id, final String name, final int time,
         final Edge[] edges) {
         this(id, name, time);
-        this.edges = new HashSet<Edge>(Arrays.asList(edges));
+        for (Edge e : edges) {
+            if (null != e.getSourceNode()
+                    && e.getSourceNode().getId() == id) {
+                outgoing.add(e);
+            } else {
+                incoming.add(e);
+            }
+        }
     }
 
     /**
      * Add a new edge.
      *
+     * Adding an edge that is already connected with this node has no effect.
+     * Edges connect themselves with their nodes when they are created, so
+     * this is rarely needed.
+     *
      * @param e The edge to add
      * @throws NodeDoesNotExistException If the edge doesn't contain this node.
      */
@@ -120,7 +143,57 @@ public class Node implements Annotable, IsSerializable {
         if (!e.isOutgoingEdge(this) && !e.isIncomingEdge(this)) {
             throw new NodeDoesNotExistException();
         }
-        edges.add(e);
+        if (e.isOutgoingEdge(this) && !outgoing.contains(e)) {
+            outgoing.add(e);
+        }
+        if (e.isIncomingEdge(this) && !incoming.contains(e)) {
+            incoming.add(e);
+        }
+    }
+
+    /**
+     * Connects a new edge with this node.
+     *
+     * Unlike addEdge there is no check for duplicates, so connecting all
+     * edges of a graph takes linear time.
+     *
+     * @param e The edge, which must not be connected yet
+     */
+    void attachEdge(final Edge e) {
+        if (e.isOutgoingEdge(this)) {
+            outgoing.add(e);
+        }
+        if (e.isIncomingEdge(this)) {
+            incoming.add(e);
+        }
+    }
+
+    /**
+     * Disconnects an edge from this node.
+     *
+     * The edges are searched from the end, as usually the latest edge is
+     * removed.
+     *
+     * @param e The edge
+     */
+    void detachEdge(final Edge e) {
+        removeLast(outgoing, e);
+        removeLast(incoming, e);
+    }
+
+    /**
+     * Removes the last occurrence of an edge object from a list.
+     *
+     * @param list The list
+     * @param e The edge
+     */
+    private static void removeLast(final ArrayList<Edge> list, final Edge e) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == e) {
+                list.remove(i);
+                return;
+            }
+        }
     }
 
     /**
@@ -138,12 +211,39 @@ public class Node implements Annotable, IsSerializable {
     /**
      * Return the edges connected with this node.
      *
+     * The set is created on every call, algorithms should use
+     * getOutgoingEdges and getIncomingEdges instead.
+     *
      * @return A set of edges
      */
     public Set<Edge> getEdges() {
+        HashSet<Edge> edges = new HashSet<Edge>(outgoing);
+        edges.addAll(incoming);
         return edges;
     }
 
+    /**
+     * Returns the edges starting at this node.
+     *
+     * The list must not be modified.
+     *
+     * @return The outgoing edges in the order they were connected
+     */
+    public List<Edge> getOutgoingEdges() {
+        return outgoing;
+    }
+
+    /**
+     * Returns the edges pointing to this node.
+     *
+     * The list must not be modified.
+     *
+     * @return The incoming edges in the order they were connected
+     */
+    public List<Edge> getIncomingEdges() {
+        return incoming;
+    }
+
     /**
      * Return the Node id provided by the database to identify the node.
      *
@@ -187,10 +287,14 @@ public class Node implements Annotable, IsSerializable {
      * @param weight The weight for the object
      */
     public void addWeight(final Centrality c, final Double weight) {
-        weightMapping.put(c, weight);
-        /* notify */
-        for (AnnotableListener l : listeners) {
-            l.newWeightEvent(c, weight);
+        if (null != owner) {
+            owner.putWeight(c, Centrality.Type.NodeCentrality, slot,
+                    weight.doubleValue());
+        } else {
+            if (null == weightMapping) {
+                weightMapping = new HashMap<Centrality, Double>();
+            }
+            weightMapping.put(c, weight);
         }
     }
 
@@ -203,7 +307,14 @@ public class Node implements Annotable, IsSerializable {
      * @return A mapping of centralities to their values.
      */
     public HashMap<Centrality, Double> getCentralities() {
-        return weightMapping;
+        HashMap<Centrality, Double> res = new HashMap<Centrality, Double>();
+        if (null != weightMapping) {
+            res.putAll(weightMapping);
+        }
+        if (null != owner) {
+            owner.collectWeights(res, Centrality.Type.NodeCentrality, slot);
+        }
+        return res;
     }
 
     /**
@@ -218,7 +329,15 @@ public class Node implements Annotable, IsSerializable {
      */
     public double getWeightForCentrality(final Centrality c)
         throws InvalidCentralityException {
-        if (weightMapping.containsKey(c)) {
+        if (null != owner) {
+            Double weight = owner.getWeight(c,
+                    Centrality.Type.NodeCentrality, slot);
+            if (null != weight) {
+                return weight.doubleValue();
+            }
+        }
+
+        if (null != weightMapping && weightMapping.containsKey(c)) {
             return weightMapping.get(c).doubleValue();
         }
 
@@ -226,15 +345,46 @@ public class Node implements Annotable, IsSerializable {
     }
 
     /**
-     * Add a listener to the observer pattern described
-     * in Annotable#addListener.
+     * Returns true if weights were added to the node.
+     *
+     * @return True if getCentralities is not empty
+     */
+    boolean hasWeights() {
+        return (null != weightMapping && !weightMapping.isEmpty())
+            || (null != owner
+                && owner.hasWeights(Centrality.Type.NodeCentrality, slot));
+    }
+
+    /**
+     * Makes a graph the owner of the weights of this node.
      *
-     * @see Annotable#addListener(AnnotableListener listener)
+     * Only the first graph the node is added to becomes the owner. Weights
+     * added before are kept in the map of the node.
      *
-     * @param listener The listener implementation.
+     * @param g The graph
+     * @param position The position in the weight columns of the graph
+     * @return True if the graph became the owner
      */
-    public void addListener(final AnnotableListener listener) {
-        listeners.add(listener);
+    boolean setOwner(final Graph g, final int position) {
+        if (null != owner) {
+            return false;
+        }
+        owner = g;
+        slot = position;
+        return true;
+    }
+
+    /**
+     * Returns the position of this node in the weight columns of a graph.
+     *
+     * @param g The graph
+     * @return The position or -1 if the graph does not own the node
+     */
+    int getSlot(final Graph g) {
+        if (g != owner) {
+            return -1;
+        }
+        return slot;
     }
 
     /**
@@ -0,0 +1,222 @@
+/*
+ * This file is part of Sonar.
+ *
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+/**
+ * Maps node ids to nodes without boxing.
+ *
+ * The nodes are kept in an array in the order they were added. An open
+ * addressing table with linear probing maps an id to the position of its
+ * node. Only the nodes are transferred over the wire, the table is rebuilt
+ * on demand.
+ *
+ * The hash only uses bit operations, so it yields the same positions on the
+ * server and in the client.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class NodeIndex implements IsSerializable {
+    /**
+     * The initial number of nodes that fit without growing.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The bits shifted to spread the high bits of an id.
+     */
+    private static final int SPREAD_SHIFT = 16;
+
+    /**
+     * The nodes in the order they were added.
+     */
+    private Node[] nodes;
+
+    /**
+     * The number of nodes.
+     */
+    private int size;
+
+    /**
+     * The position of a node plus one, 0 marks a free slot. The length is a
+     * power of two and at least twice the number of nodes.
+     */
+    private transient int[] table;
+
+    /**
+     * Initialize a new object.
+     */
+    NodeIndex() {
+        nodes = new Node[MIN_CAPACITY];
+    }
+
+    /**
+     * Initialize a new object with the nodes of another index.
+     *
+     * The nodes are shared, the table is rebuilt on demand.
+     *
+     * @param other The index to copy
+     */
+    NodeIndex(final NodeIndex other) {
+        nodes = new Node[other.nodes.length];
+        System.arraycopy(other.nodes, 0, nodes, 0, other.size);
+        size = other.size;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return The number of nodes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the node at a position.
+     *
+     * @param position The position, less than size()
+     * @return The node
+     */
+    Node getAt(final int position) {
+        return nodes[position];
+    }
+
+    /**
+     * Returns the node with an id.
+     *
+     * @param id The id
+     * @return The node or null if there is none
+     */
+    Node get(final int id) {
+        int p = find(id);
+        if (p < 0) {
+            return null;
+        }
+        return nodes[p];
+    }
+
+    /**
+     * Returns true if there is a node with an id.
+     *
+     * @param id The id
+     * @return True if the id is known
+     */
+    boolean containsKey(final int id) {
+        return find(id) >= 0;
+    }
+
+    /**
+     * Adds a node, replacing the node with the same id.
+     *
+     * @param node The node
+     * @return The replaced node or null if the id was new
+     */
+    Node put(final Node node) {
+        int p = find(node.getId());
+        if (p >= 0) {
+            Node old = nodes[p];
+            nodes[p] = node;
+            return old;
+        }
+
+        if (size == nodes.length) {
+            Node[] grown = new Node[2 * size];
+            System.arraycopy(nodes, 0, grown, 0, size);
+            nodes = grown;
+        }
+        nodes[size] = node;
+        size++;
+        if (2 * size > table.length) {
+            rebuild();
+        } else {
+            insert(size - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Returns all nodes in the order they were added.
+     *
+     * @return A new array of the nodes
+     */
+    Node[] toArray() {
+        Node[] res = new Node[size];
+        System.arraycopy(nodes, 0, res, 0, size);
+        return res;
+    }
+
+    /**
+     * Returns the position of the node with an id.
+     *
+     * @param id The id
+     * @return The position or -1 if there is none
+     */
+    private int find(final int id) {
+        if (null == table) {
+            rebuild();
+        }
+        int mask = table.length - 1;
+        for (int i = hash(id) & mask; 0 != table[i]; i = (i + 1) & mask) {
+            if (nodes[table[i] - 1].getId() == id) {
+                return table[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds the node at a position to the table.
+     *
+     * @param position The position
+     */
+    private void insert(final int position) {
+        int mask = table.length - 1;
+        int i = hash(nodes[position].getId()) & mask;
+        while (0 != table[i]) {
+            i = (i + 1) & mask;
+        }
+        table[i] = position + 1;
+    }
+
+    /**
+     * Rebuilds the table with room for twice the number of nodes.
+     */
+    private void rebuild() {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * size) {
+            capacity *= 2;
+        }
+        table = new int[2 * capacity];
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    /**
+     * Spreads the bits of an id.
+     *
+     * Ids from a database are usually consecutive, so the low bits are
+     * already well distributed.
+     *
+     * @param id The id
+     * @return The hash
+     */
+    private static int hash(final int id) {
+        return id ^ (id >>> SPREAD_SHIFT);
+    }
+}
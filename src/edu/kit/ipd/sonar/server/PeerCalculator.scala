@@ -60,7 +60,7 @@ class PeerCalculator extends Calculator {
             throw new IllegalArgumentException("Passed centralities are null")
         }
 
-        if (null == centralNode || ! g.getNodeList.containsValue(centralNode)) {
+        if (null == centralNode || ! g.getNodeList.containsKey(centralNode.getId)) {
             throw new CalculationFailedException("No valid central node given")
         }
 
@@ -68,54 +68,38 @@ class PeerCalculator extends Calculator {
             return g
         }
 
-        /* bound the graph if necessary */
-        val cur = if (null != bound && !bound.contains(g.getMaxTimeBoundary)) {
-            bounded(g, bound)
-        } else {
-            g
-        }
+        /* bound the graph if necessary, nothing is copied yet */
+        val cur = view(g, bound)
 
-        if (0 == cur.getNodeList.size) { 
+        if (cur.isEmpty) {
             throw new CalculationFailedException("Graph is empty")
         }
 
         val next = if (lim > 0) {
-            val limitedList = limited(centralNode, cur, lim)
-            graph(cur) {
-                (a:Annotable) => a match {
-                    case n: Node => limitedList contains n
-                    case _ => true
-                }
-            }
-        } else if (cur == g){
-            graph(cur)
+            cur.restrict(limited(centralNode, cur.getCompactGraph, lim).getNodes)
         } else {
             cur
         }
 
-        next.setCentralNode(next.getNodeById(centralNode.getId))
-        centralities.foreach(addCentralities(next, cur, _))
-        next
+        val result = next.materialize
+        result.setCentralNode(result.getNodeById(centralNode.getId))
+        addAllCentralities(result, cur.getCompactGraph, centralities)
+        result
     }
 
-    private def limited(centralNode: Node,graph: Graph, limit: Int) = {
-        var list: List[Node] = List()
-        def recur(cur: Node, limit: Int) {
-            cur.getEdges
-                .withFilter(_.isOutgoingEdge(cur))
-                .foreach((e: Edge) => {
-                    if (!list.contains(e.getDestinationNode)) {
-                        list = e.getDestinationNode :: list
-                        if (limit > 0)
-                            recur(e.getDestinationNode, limit - 1)
-                    }
-                })
-        }
-
-        list = centralNode  :: list
-        recur(centralNode, limit - 1)
-        list
-    }
+    /**
+     * Returns the nodes that can be reached from the central node by
+     * following at most limit outgoing edges.
+     *
+     * @param centralNode The central node
+     * @param graph The compact graph of the view
+     * @param limit The maximum number of hops
+     *
+     * @return The ego network of the central node
+     */
+    private def limited(centralNode: Node, graph: CompactGraph, limit: Int) =
+        EgoNetwork.extract(graph, centralNode, limit,
+            EgoNetwork.Direction.OUTGOING)
 }
 
 // vim: set ts=4 sw=4 et:
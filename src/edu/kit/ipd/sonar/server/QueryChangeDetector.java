@@ -0,0 +1,86 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.hibernate.HibernateException;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+/**
+ * Detects changes with a configured SQL query returning a single value.
+ *
+ * This is meant for data bases that maintain their own change information,
+ * e.g. the latest entry of a change log or version table, or a counter that
+ * is increased by triggers on the node and edge tables. Unlike the
+ * CountChangeDetector it also notices deletes and updates.
+ *
+ * @see Configuration#getChangeDetectionQuery()
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class QueryChangeDetector implements ChangeDetector {
+    /**
+     * The session factory to query.
+     */
+    private final SessionFactory sessions;
+
+    /**
+     * The SQL query.
+     */
+    private final String query;
+
+    /**
+     * Creates a new detector.
+     *
+     * @param factory The session factory to query
+     * @param sql The SQL query returning a single value
+     */
+    QueryChangeDetector(final SessionFactory factory, final String sql) {
+        sessions = factory;
+        query = sql;
+    }
+
+    /**
+     * Returns the result of the configured query.
+     *
+     * @return The token
+     * @throws HibernateException if the data base cannot be queried
+     */
+    public Object probe() throws HibernateException {
+        StatelessSession s = sessions.openStatelessSession();
+        Transaction tx = null;
+
+        try {
+            tx = s.beginTransaction();
+            Object result = s.createSQLQuery(query).uniqueResult();
+            tx.commit();
+
+            if (null == result) {
+                /* empty version table */
+                return "";
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (tx != null && tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            s.close();
+        }
+    }
+}
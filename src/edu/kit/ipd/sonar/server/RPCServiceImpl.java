@@ -377,6 +377,108 @@ public class RPCServiceImpl extends RemoteServiceServlet implements RPCService {
         return peerCalculator.calc(g, impl, timeBound, hops, g.getNodeById(user.getId()));
     }
 
+    /**
+     * Get the values of node centralities over a series of time windows.
+     *
+     * The windows have the given width. The first one starts at the start
+     * of the time boundary, the next ones every step later, as long as they
+     * end within the time boundary. Every window is calculated like a
+     * global graph with that time boundary and without a node limit.
+     *
+     * Note that the user needs to be logged in and
+     * needs admin rights to be able to use this method. Otherwise a
+     * NotAuthorizedException will be thrown.
+     *
+     * @see SeriesCalculator
+     *
+     * @param timeBound     The time boundary of the series.
+     * @param step          The time between the starts of two windows.
+     * @param width         The width of a window.
+     * @param centralities  The node centralities to calculate.
+     *
+     * @throws CalculationFailedException If the calculation fails.
+     * @throws NotAuthorizedException If the user is not authorized
+     * @throws DataException If the database fails to retreive the data.
+     *
+     * @return  The values of every node in every window.
+     */
+    public CentralitySeries getCentralitySeries(final TimeBoundary timeBound,
+            final int step, final int width,
+            final ArrayList<Centrality> centralities)
+        throws CalculationFailedException, NotAuthorizedException,
+        DataException {
+        log.debug("getCentralitySeries called");
+
+        if (!hasAccessRight(Access.ADMIN)) {
+            throw new NotAuthorizedException();
+        }
+
+        ArrayList<CentralityImpl> impl = new ArrayList<CentralityImpl>();
+        for (Centrality c : centralities) {
+            impl.add(mapping.get(c.hashCode()));
+        }
+
+        return SeriesCalculator.calc(database.getGraph(), impl, timeBound,
+                step, width);
+    }
+
+    /**
+     * Get the values of node centralities over a series of time windows
+     * around a central node.
+     *
+     * Every window is calculated like a peer graph with that time boundary.
+     * The series only holds the nodes that are at most hops hops away from
+     * the central node within the time boundary of the series.
+     *
+     * If the user is not an administrator he can only request the series of
+     * his own node. Otherwise a NotAuthorizedException will be thrown. The
+     * user has to be logged in.
+     *
+     * @see SeriesCalculator
+     *
+     * @param user          The user whose node will be the center node.
+     * @param timeBound     The time boundary of the series.
+     * @param step          The time between the starts of two windows.
+     * @param width         The width of a window.
+     * @param centralities  The node centralities to calculate.
+     * @param hops          The number of hops. Nodes that are more than
+     *                          'hops' hops away from the central node
+     *                          won't be included.
+     *
+     * @throws CalculationFailedException If the calculation fails.
+     * @throws NodeDoesNotExistException If the given user doesn't exists.
+     * @throws NotAuthorizedException If the user is not authorized
+     * @throws DataException If the database fails to retreive the data.
+     *
+     * @return  The values of the nodes around the user in every window.
+     */
+    public CentralitySeries getPeerCentralitySeries(final User user,
+            final TimeBoundary timeBound, final int step, final int width,
+            final ArrayList<Centrality> centralities, final int hops)
+        throws CalculationFailedException, NodeDoesNotExistException,
+        NotAuthorizedException, DataException {
+        log.debug("getPeerCentralitySeries called");
+
+        boolean auth = hasAccessRight(Access.ADMIN);
+        if (!auth && hasAccessRight(Access.USER)) {
+            User obj = getCurrentUser();
+            auth = null != obj && obj.getId().equals(user.getId());
+        }
+
+        if (!auth) {
+            throw new NotAuthorizedException();
+        }
+
+        Graph g = database.getGraph();
+        ArrayList<CentralityImpl> impl = new ArrayList<CentralityImpl>();
+        for (Centrality c : centralities) {
+            impl.add(mapping.get(c.hashCode()));
+        }
+
+        return SeriesCalculator.calc(g, impl, timeBound, step, width,
+                g.getNodeById(user.getId()), hops);
+    }
+
     /**
      * Returns a hash of the database.
      *
@@ -0,0 +1,81 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.hibernate.HibernateException;
+
+/**
+ * Limits the number of probes another change detector sends to the data
+ * base.
+ *
+ * Within the minimum probe interval the token of the last probe is returned,
+ * so the data base sees at most one probe per interval regardless of the
+ * number of requests. Concurrent callers wait for a running probe instead
+ * of starting their own.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class RateLimitedChangeDetector implements ChangeDetector {
+    /**
+     * The detector actually probing the data base.
+     */
+    private final ChangeDetector detector;
+
+    /**
+     * The minimum time between two probes in milliseconds.
+     */
+    private final long minInterval;
+
+    /**
+     * The token of the last probe, null if not probed yet.
+     */
+    private Object lastToken = null;
+
+    /**
+     * The time of the last probe in milliseconds.
+     */
+    private long lastProbe = 0;
+
+    /**
+     * Creates a new rate limited detector.
+     *
+     * @param probe The detector to limit
+     * @param interval The minimum time between two probes in milliseconds
+     */
+    RateLimitedChangeDetector(final ChangeDetector probe,
+            final long interval) {
+        detector = probe;
+        minInterval = interval;
+    }
+
+    /**
+     * Returns the token of the last probe if it is recent enough, otherwise
+     * probes the data base.
+     *
+     * @return The token
+     * @throws HibernateException if the data base cannot be queried
+     */
+    public synchronized Object probe() throws HibernateException {
+        long now = System.currentTimeMillis();
+        if (null != lastToken && now - lastProbe < minInterval) {
+            return lastToken;
+        }
+
+        lastToken = detector.probe();
+        lastProbe = now;
+        return lastToken;
+    }
+}
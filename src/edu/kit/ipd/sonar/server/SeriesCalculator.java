@@ -0,0 +1,277 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.ArrayCentralityImpl;
+import edu.kit.ipd.sonar.server.centralities.Centrality;
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+import edu.kit.ipd.sonar.server.centralities.PreviousWindow;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Calculates node centralities for a series of consecutive time windows.
+ *
+ * Every window is a time bounded view of the graph, cut out of the
+ * temporal index, so no graph is copied. Windows are calculated in order.
+ * From the second window on, every centrality gets its values on the
+ * previous window and the edges added and removed since. The difference is
+ * taken on the edge bitsets of the two views. Centralities can update their
+ * previous values or start their iteration from them.
+ *
+ * @see CentralitySeries
+ * @see PreviousWindow
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class SeriesCalculator {
+    /**
+     * The maximum number of windows of a series.
+     */
+    static final int MAX_WINDOWS = 1000;
+
+    /**
+     * Utility class.
+     */
+    private SeriesCalculator() {
+    }
+
+    /**
+     * Calculates the series of the given centralities.
+     *
+     * The first window starts at the start of the boundary. Windows are
+     * added every step as long as they end within the boundary, but there
+     * is at least one window.
+     *
+     * @param g The graph
+     * @param centralities The node centralities
+     * @param bound The time boundary of the series
+     * @param step The time between the starts of two windows
+     * @param width The width of a window
+     * @return The series
+     * @throws CalculationFailedException if the parameters are invalid or a
+     * centrality fails
+     */
+    static CentralitySeries calc(final Graph g,
+            final List<CentralityImpl> centralities, final TimeBoundary bound,
+            final int step, final int width)
+        throws CalculationFailedException {
+        return calc(g, centralities, bound, step, width, null);
+    }
+
+    /**
+     * Calculates the series of the given centralities around a central
+     * node.
+     *
+     * Like a peer graph, every window is calculated on the whole graph,
+     * but the series only holds the values of the nodes that can be
+     * reached from the central node by following at most hops outgoing
+     * edges within the time boundary of the series.
+     *
+     * @see PeerCalculator
+     *
+     * @param g The graph
+     * @param centralities The node centralities
+     * @param bound The time boundary of the series
+     * @param step The time between the starts of two windows
+     * @param width The width of a window
+     * @param center The central node
+     * @param hops The maximum number of hops, negative or zero for all nodes
+     * @return The series
+     * @throws CalculationFailedException if the parameters are invalid, the
+     * central node is not part of the time boundary or a centrality fails
+     */
+    static CentralitySeries calc(final Graph g,
+            final List<CentralityImpl> centralities, final TimeBoundary bound,
+            final int step, final int width, final Node center,
+            final int hops) throws CalculationFailedException {
+        if (null == g) {
+            throw new IllegalArgumentException("Passed graph is null");
+        }
+
+        if (null == center || !g.getNodeList().containsKey(center.getId())) {
+            throw new CalculationFailedException("No valid central node given");
+        }
+
+        if (null == bound || bound.getStart() > bound.getEnd()) {
+            throw new CalculationFailedException("Invalid time boundary");
+        }
+
+        if (hops <= 0) {
+            return calc(g, centralities, bound, step, width);
+        }
+
+        CompactGraph cg = GraphView.of(g,
+                Configuration.getInstance().aggregateEdges())
+            .bounded(bound).getCompactGraph();
+        int[] nodes = EgoNetwork.extract(cg, center, hops,
+                EgoNetwork.Direction.OUTGOING).getNodes();
+        if (0 == nodes.length) {
+            throw new CalculationFailedException(
+                    "Central node is not part of the time boundary");
+        }
+
+        int[] ids = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            ids[i] = cg.getNodeIds()[nodes[i]];
+        }
+        return calc(g, centralities, bound, step, width, ids);
+    }
+
+    /**
+     * Calculates the series of the given centralities for some nodes.
+     *
+     * The values are calculated on the whole graph of every window, only
+     * the returned series is restricted to the given nodes.
+     *
+     * @param g The graph
+     * @param centralities The node centralities
+     * @param bound The time boundary of the series
+     * @param step The time between the starts of two windows
+     * @param width The width of a window
+     * @param nodeIds The ids of the nodes of the series, null for all nodes
+     * @return The series
+     * @throws CalculationFailedException if the parameters are invalid or a
+     * centrality fails
+     */
+    static CentralitySeries calc(final Graph g,
+            final List<CentralityImpl> centralities, final TimeBoundary bound,
+            final int step, final int width, final int[] nodeIds)
+        throws CalculationFailedException {
+        if (null == g) {
+            throw new IllegalArgumentException("Passed graph is null");
+        }
+
+        if (null == centralities) {
+            throw new IllegalArgumentException("Passed centralities are null");
+        }
+
+        if (null == bound || bound.getStart() > bound.getEnd()) {
+            throw new CalculationFailedException("Invalid time boundary");
+        }
+
+        if (step <= 0 || width <= 0) {
+            throw new CalculationFailedException(
+                    "Step and width have to be positive");
+        }
+
+        int n = centralities.size();
+        ArrayList<Centrality> list = new ArrayList<Centrality>(n);
+        ArrayCentralityImpl[] impls = new ArrayCentralityImpl[n];
+        for (int c = 0; c < n; c++) {
+            if (centralities.get(c).getType()
+                    != Centrality.Type.NodeCentrality) {
+                throw new CalculationFailedException(
+                        "Series are only available for node centralities");
+            }
+            impls[c] = ArrayCentralityImpl.adapt(centralities.get(c));
+            list.add(centralities.get(c).getCentrality());
+        }
+
+        int[] starts = windowStarts(bound, step, width);
+        GraphView all = GraphView.of(g,
+                Configuration.getInstance().aggregateEdges());
+        int[] ids = all.getCompactGraph().getNodeIds();
+        if (null != nodeIds) {
+            ids = nodeIds.clone();
+            Arrays.sort(ids);
+        }
+        double[][] values = new double[n * starts.length][];
+        double[][] last = new double[n][];
+
+        GraphView previous = null;
+        for (int w = 0; w < starts.length; w++) {
+            GraphView view = all.bounded(new TimeBoundary(starts[w],
+                        CentralitySeries.windowEnd(starts[w], width)));
+            CompactGraph cg = view.getCompactGraph();
+            int[] added = null;
+            int[] removed = null;
+            if (null != previous) {
+                added = view.edgesNotIn(previous);
+                removed = previous.edgesNotIn(view);
+            }
+
+            for (int c = 0; c < n; c++) {
+                PreviousWindow p = null;
+                if (null != previous) {
+                    p = new PreviousWindow(previous.getCompactGraph(),
+                            last[c], added, removed);
+                }
+                last[c] = impls[c].getWeights(cg, p);
+                values[c * starts.length + w] = spread(ids, cg, last[c]);
+            }
+            previous = view;
+        }
+
+        return new CentralitySeries(list, starts, width, ids, values);
+    }
+
+    /**
+     * Returns the start times of the windows.
+     *
+     * @param bound The time boundary of the series
+     * @param step The time between the starts of two windows
+     * @param width The width of a window
+     * @return The start times
+     * @throws CalculationFailedException if there are too many windows
+     */
+    static int[] windowStarts(final TimeBoundary bound, final int step,
+            final int width) throws CalculationFailedException {
+        long span = (long) bound.getEnd() - bound.getStart() + 1;
+        long count = 1;
+        if (span > width) {
+            count += (span - width) / step;
+        }
+        if (count > MAX_WINDOWS) {
+            throw new CalculationFailedException("A series has at most "
+                    + MAX_WINDOWS + " windows, requested " + count);
+        }
+
+        int[] starts = new int[(int) count];
+        for (int w = 0; w < starts.length; w++) {
+            starts[w] = (int) (bound.getStart() + (long) w * step);
+        }
+        return starts;
+    }
+
+    /**
+     * Spreads the values of a window over the nodes of the series.
+     *
+     * @param ids The ids of the nodes of the series in ascending order
+     * @param cg The graph of the window
+     * @param weights The values indexed like the nodes of the window
+     * @return The values in the order of the ids, NaN for nodes outside
+     *         of the window
+     */
+    private static double[] spread(final int[] ids, final CompactGraph cg,
+            final double[] weights) {
+        double[] res = new double[ids.length];
+        int[] windowIds = cg.getNodeIds();
+        int v = 0;
+        for (int i = 0; i < ids.length; i++) {
+            while (v < windowIds.length && windowIds[v] < ids[i]) {
+                v++;
+            }
+            if (v < windowIds.length && windowIds[v] == ids[i]) {
+                res[i] = weights[v++];
+            } else {
+                res[i] = Double.NaN;
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * This file is part of Sonar.
+ *
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Stores a graph snapshot in a binary file on the local disk.
+ *
+ * The file holds the nodes ordered by id with their names, times and
+ * original weights, the edges in compressed sparse row order with their
+ * times, original weights and counts, and the watermark of the database.
+ * It is read through a memory mapped channel, so a restarted server has a
+ * graph without querying the database. The graph is brought up to date by
+ * a delta load from the watermark afterwards.
+ *
+ * All numbers are stored big endian. A missing original weight is stored
+ * as NaN. The file starts with a magic number and a version; files with
+ * another version are rejected and replaced on the next save. The file ends
+ * with the state hash of the graph, which is checked after reading.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class SnapshotFile {
+    /**
+     * The magic number at the start of the file, "SONR".
+     */
+    private static final int MAGIC = 0x534f4e52;
+
+    /**
+     * The version of the file format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The flag marking a graph that aggregates edges.
+     */
+    private static final int FLAG_AGGREGATE = 1;
+
+    /**
+     * The number of bytes of an int.
+     */
+    private static final int INT_BYTES = 4;
+
+    /**
+     * The number of bytes of a long or a double.
+     */
+    private static final int LONG_BYTES = 8;
+
+    /**
+     * The encoding of the node names.
+     */
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * The file.
+     */
+    private final File file;
+
+    /**
+     * Creates a new snapshot file.
+     *
+     * @param file The file, which does not need to exist
+     */
+    SnapshotFile(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the file.
+     *
+     * @return The file
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns true if the file exists.
+     *
+     * @return True if there is a snapshot to read
+     */
+    boolean exists() {
+        return file.isFile();
+    }
+
+    /**
+     * Writes a snapshot to the file.
+     *
+     * The snapshot is written to a temporary file first, which replaces the
+     * file when it is complete. Only snapshots with a watermark can be
+     * stored, as the graph could not be brought up to date otherwise.
+     *
+     * @param snapshot The snapshot
+     * @throws IOException If the file cannot be written
+     */
+    void write(final GraphSnapshot snapshot) throws IOException {
+        GraphWatermark mark = snapshot.getWatermark();
+        if (null == mark) {
+            throw new IOException("Snapshot without a watermark");
+        }
+        Graph g = snapshot.getGraph();
+        CompactGraph cg = g.getCompactGraph();
+        int n = cg.getNodeCount();
+        int m = cg.getEdgeCount();
+
+        byte[][] names = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            String name = cg.getNode(i).getName();
+            if (null != name) {
+                names[i] = name.getBytes(ENCODING);
+            }
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tmp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            int flags = 0;
+            if (g.isAggregatingEdges()) {
+                flags |= FLAG_AGGREGATE;
+            }
+            out.writeInt(flags);
+            out.writeLong(mark.getNodeCount());
+            out.writeLong(mark.getEdgeCount());
+            out.writeInt(mark.getMaxNodeId());
+            out.writeInt(mark.getMaxEdgeTime());
+            out.writeInt(n);
+            out.writeInt(m);
+
+            writeInts(out, cg.getNodeIds());
+            writeInts(out, cg.getNodeTimes());
+            for (int i = 0; i < n; i++) {
+                out.writeDouble(weightOf(cg.getNode(i).getOriginalWeight()));
+            }
+
+            writeInts(out, cg.getOutOffsets());
+            writeInts(out, cg.getEdgeTargets());
+            writeInts(out, cg.getEdgeTimes());
+            for (int i = 0; i < m; i++) {
+                out.writeDouble(weightOf(cg.getEdge(i).getOriginalWeight()));
+            }
+            for (int i = 0; i < m; i++) {
+                out.writeInt(cg.getEdge(i).getCount());
+            }
+
+            for (int i = 0; i < n; i++) {
+                if (null == names[i]) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(names[i].length);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (null != names[i]) {
+                    out.write(names[i]);
+                }
+            }
+
+            out.writeLong(g.getFullStateHash());
+        } finally {
+            out.close();
+        }
+
+        if (!tmp.renameTo(file)) {
+            /* some platforms do not replace existing files */
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                throw new IOException("Cannot replace " + file);
+            }
+        }
+    }
+
+    /**
+     * Reads the snapshot from the file.
+     *
+     * @param changeToken The change token of the snapshot. It should differ
+     *                    from every token of the database, so the graph is
+     *                    checked for changes on the next refresh.
+     * @return The snapshot
+     * @throws IOException If the file cannot be read, has another version
+     *                     or is corrupt
+     */
+    GraphSnapshot read(final Object changeToken) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large: " + file);
+            }
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            return read(buf, changeToken);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot truncated: " + file);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Snapshot corrupt: " + file);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Snapshot corrupt: " + file);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Reads a snapshot from a buffer.
+     *
+     * @param buf The buffer
+     * @param changeToken The change token of the snapshot
+     * @return The snapshot
+     * @throws IOException If the buffer has another version or is corrupt
+     */
+    private GraphSnapshot read(final ByteBuffer buf, final Object changeToken)
+        throws IOException {
+        if (buf.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot: " + file);
+        }
+        int version = buf.getInt();
+        if (version != VERSION) {
+            throw new IOException("Snapshot version " + version
+                    + " is not supported: " + file);
+        }
+        int flags = buf.getInt();
+        GraphWatermark mark = new GraphWatermark(buf.getLong(),
+                buf.getLong(), buf.getInt(), buf.getInt());
+        int n = buf.getInt();
+        int m = buf.getInt();
+        if (n < 0 || m < 0) {
+            throw new IOException("Snapshot corrupt: " + file);
+        }
+
+        int[] ids = readInts(buf, n);
+        int[] nodeTimes = readInts(buf, n);
+        double[] nodeWeights = readDoubles(buf, n);
+        int[] offsets = readInts(buf, n + 1);
+        int[] targets = readInts(buf, m);
+        int[] edgeTimes = readInts(buf, m);
+        double[] edgeWeights = readDoubles(buf, m);
+        int[] counts = readInts(buf, m);
+        int[] nameLengths = readInts(buf, n);
+
+        Graph g = new Graph(0 != (flags & FLAG_AGGREGATE));
+        Node[] nodes = new Node[n];
+        byte[] name = new byte[0];
+        for (int i = 0; i < n; i++) {
+            String s = null;
+            if (nameLengths[i] >= 0) {
+                if (name.length < nameLengths[i]) {
+                    name = new byte[nameLengths[i]];
+                }
+                buf.get(name, 0, nameLengths[i]);
+                s = new String(name, 0, nameLengths[i], ENCODING);
+            }
+            nodes[i] = new Node(ids[i], s, nodeTimes[i]);
+            nodes[i].setOriginalWeight(weightOf(nodeWeights[i]));
+            g.addNode(nodes[i]);
+        }
+
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                Edge edge = new Edge(nodes[v], nodes[targets[e]],
+                        edgeTimes[e]);
+                edge.setOriginalWeight(weightOf(edgeWeights[e]));
+                edge.setCount(counts[e]);
+                g.addEdge(edge);
+            }
+        }
+
+        if (buf.getLong() != g.getFullStateHash()) {
+            throw new IOException("Snapshot corrupt: " + file);
+        }
+
+        return new GraphSnapshot(g, mark, changeToken);
+    }
+
+    /**
+     * Writes an array of ints.
+     *
+     * @param out The stream
+     * @param values The values
+     * @throws IOException If the stream cannot be written
+     */
+    private static void writeInts(final DataOutputStream out,
+            final int[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    /**
+     * Reads an array of ints and advances the buffer.
+     *
+     * @param buf The buffer
+     * @param length The number of ints
+     * @return The ints
+     */
+    private static int[] readInts(final ByteBuffer buf, final int length) {
+        int[] res = new int[length];
+        buf.asIntBuffer().get(res);
+        buf.position(buf.position() + length * INT_BYTES);
+        return res;
+    }
+
+    /**
+     * Reads an array of doubles and advances the buffer.
+     *
+     * @param buf The buffer
+     * @param length The number of doubles
+     * @return The doubles
+     */
+    private static double[] readDoubles(final ByteBuffer buf,
+            final int length) {
+        double[] res = new double[length];
+        buf.asDoubleBuffer().get(res);
+        buf.position(buf.position() + length * LONG_BYTES);
+        return res;
+    }
+
+    /**
+     * Converts an original weight to the stored value.
+     *
+     * @param weight The weight, might be null
+     * @return The weight or NaN if there is none
+     */
+    private static double weightOf(final Double weight) {
+        if (null == weight) {
+            return Double.NaN;
+        }
+        return weight.doubleValue();
+    }
+
+    /**
+     * Converts a stored value to an original weight.
+     *
+     * @param value The stored value
+     * @return The weight or null if the value is NaN
+     */
+    private static Double weightOf(final double value) {
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        return Double.valueOf(value);
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Prefix sums of the degrees of all nodes over time.
+ *
+ * For every node the outgoing and incoming interactions are kept sorted by
+ * time in the CSR layout of the compact graph, together with the cumulative
+ * number of interactions and the cumulative original weight up to every
+ * time. The degrees of a node within a time window are the difference of
+ * two prefix sums found by binary search, so the degrees of all nodes of a
+ * window take O(V log d) instead of a pass over the edges. The buckets are
+ * the distinct interaction times of every node, so the degrees are exact
+ * for every window.
+ *<p/>
+ * A window counts all interactions of a node within the window, like the
+ * timeline of the client does. Unlike in a time bounded graph, interactions
+ * with nodes created outside of the window are counted as well. An edge
+ * that aggregates several interactions counts all of them.
+ *<p/>
+ * The index of the loaded graph is built when the graph is published. When
+ * rows are appended to a compact graph, the index of the new graph is
+ * extended from the index of the old one without sorting it again. Like
+ * the TemporalIndex, the index is kept once per compact graph and dropped
+ * with it.
+ *
+ * @see GraphView#bounded(TimeBoundary)
+ * @see CompactGraph#append(Graph, CompactGraph, Node[], Edge[])
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public final class TemporalDegreeIndex {
+    /**
+     * Number of bits in an int.
+     */
+    private static final int INT_BITS = 32;
+
+    /**
+     * Mask of the lower 32 bits of a long.
+     */
+    private static final long LOW_BITS = 0xffffffffL;
+
+    /**
+     * The indices of the graphs built so far. Weak, so an index is dropped
+     * with its graph.
+     */
+    private static final Map<CompactGraph, TemporalDegreeIndex> INDICES
+        = new WeakHashMap<CompactGraph, TemporalDegreeIndex>();
+
+    /**
+     * The outgoing interactions of every node.
+     */
+    private final Adjacency out;
+
+    /**
+     * The incoming interactions of every node.
+     */
+    private final Adjacency in;
+
+    /**
+     * The interactions of one direction, sorted by time for every node.
+     */
+    private static final class Adjacency {
+        /**
+         * The first slot of every node, length node count + 1.
+         */
+        private final int[] offsets;
+
+        /**
+         * The sorted interaction times of every node.
+         */
+        private final int[] times;
+
+        /**
+         * The number of interactions of a node up to and including every
+         * slot.
+         */
+        private final int[] counts;
+
+        /**
+         * The sum of the original weights of a node up to and including
+         * every slot.
+         */
+        private final double[] weights;
+
+        /**
+         * Builds the adjacency of one direction of a compact graph.
+         *
+         * @param cg The graph
+         * @param offsets The offsets of the adjacency of the graph
+         * @param slots The edge of every slot, null if the slots are the
+         *              edges
+         */
+        Adjacency(final CompactGraph cg, final int[] offsets,
+                final int[] slots) {
+            this.offsets = offsets;
+            int m = cg.getEdgeCount();
+            int[] et = cg.getEdgeTimes();
+            long[] keys = new long[m];
+            for (int s = 0; s < m; s++) {
+                int e = s;
+                if (null != slots) {
+                    e = slots[s];
+                }
+                keys[s] = ((long) et[e] << INT_BITS) | e;
+            }
+
+            times = new int[m];
+            counts = new int[m];
+            weights = new double[m];
+            double[] ew = cg.getEdgeWeights();
+            for (int v = 0; v + 1 < offsets.length; v++) {
+                Arrays.sort(keys, offsets[v], offsets[v + 1]);
+                for (int s = offsets[v]; s < offsets[v + 1]; s++) {
+                    int e = (int) (keys[s] & LOW_BITS);
+                    add(v, s, et[e], cg.getEdge(e).getCount(), ew[e]);
+                }
+            }
+        }
+
+        /**
+         * Builds the adjacency of a graph with appended interactions.
+         *
+         * @param old The adjacency of the graph that was appended to, whose
+         *            nodes keep their indices
+         * @param offsets The offsets of the adjacency of the new graph
+         * @param nodes The node of every appended interaction
+         * @param cg The new graph
+         * @param edges The edge of every appended interaction, ordered by
+         *              time and not earlier than the old interactions
+         */
+        Adjacency(final Adjacency old, final int[] offsets, final int[] nodes,
+                final CompactGraph cg, final int[] edges) {
+            this.offsets = offsets;
+            int m = offsets[offsets.length - 1];
+            times = new int[m];
+            counts = new int[m];
+            weights = new double[m];
+
+            int[] fill = new int[offsets.length - 1];
+            for (int v = 0; v + 1 < old.offsets.length; v++) {
+                int from = old.offsets[v];
+                int len = old.offsets[v + 1] - from;
+                System.arraycopy(old.times, from, times, offsets[v], len);
+                System.arraycopy(old.counts, from, counts, offsets[v], len);
+                System.arraycopy(old.weights, from, weights, offsets[v],
+                        len);
+                fill[v] = len;
+            }
+
+            for (int i = 0; i < edges.length; i++) {
+                int v = nodes[i];
+                int e = edges[i];
+                add(v, offsets[v] + fill[v]++, cg.getEdgeTimes()[e],
+                        cg.getEdge(e).getCount(), cg.getEdgeWeights()[e]);
+            }
+        }
+
+        /**
+         * Stores an interaction after the earlier ones of its node.
+         *
+         * @param v The node
+         * @param s The slot
+         * @param time The time
+         * @param count The number of interactions
+         * @param weight The original weight
+         */
+        private void add(final int v, final int s, final int time,
+                final int count, final double weight) {
+            times[s] = time;
+            counts[s] = count;
+            weights[s] = weight;
+            if (s > offsets[v]) {
+                counts[s] += counts[s - 1];
+                weights[s] += weights[s - 1];
+            }
+        }
+
+        /**
+         * Returns the number of interactions of a node in a window.
+         *
+         * @param v The node
+         * @param bound The window
+         * @return The number of interactions
+         */
+        double count(final int v, final TimeBoundary bound) {
+            int from = first(v, bound);
+            int to = end(v, bound);
+            if (from == to) {
+                return 0.0;
+            }
+            if (from == offsets[v]) {
+                return counts[to - 1];
+            }
+            return counts[to - 1] - counts[from - 1];
+        }
+
+        /**
+         * Returns the sum of the original weights of the interactions of a
+         * node in a window.
+         *
+         * @param v The node
+         * @param bound The window
+         * @return The sum of the weights
+         */
+        double weight(final int v, final TimeBoundary bound) {
+            int from = first(v, bound);
+            int to = end(v, bound);
+            if (from == to) {
+                return 0.0;
+            }
+            if (from == offsets[v]) {
+                return weights[to - 1];
+            }
+            return weights[to - 1] - weights[from - 1];
+        }
+
+        /**
+         * Returns the first slot of a node in a window.
+         *
+         * @param v The node
+         * @param bound The window
+         * @return The slot
+         */
+        private int first(final int v, final TimeBoundary bound) {
+            return TemporalIndex.lowerBound(times, offsets[v],
+                    offsets[v + 1], bound.getStart());
+        }
+
+        /**
+         * Returns the slot after the last slot of a node in a window.
+         *
+         * @param v The node
+         * @param bound The window
+         * @return The slot, not before the first slot
+         */
+        private int end(final int v, final TimeBoundary bound) {
+            return Math.max(first(v, bound), TemporalIndex.upperBound(times,
+                        offsets[v], offsets[v + 1], bound.getEnd()));
+        }
+    }
+
+    /**
+     * Builds the index of a compact graph.
+     *
+     * @param cg The compact graph
+     */
+    TemporalDegreeIndex(final CompactGraph cg) {
+        out = new Adjacency(cg, cg.getOutOffsets(), null);
+        in = new Adjacency(cg, cg.getInOffsets(), cg.getInEdges());
+    }
+
+    /**
+     * Builds the index of a compact graph from the index of the graph its
+     * rows were appended to.
+     *
+     * @param old The index of the old graph
+     * @param cg The new graph
+     * @param edges The indices of the appended edges in cg, ordered by time
+     */
+    private TemporalDegreeIndex(final TemporalDegreeIndex old,
+            final CompactGraph cg, final int[] edges) {
+        int[] sources = new int[edges.length];
+        int[] targets = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            sources[i] = cg.getEdgeSources()[edges[i]];
+            targets[i] = cg.getEdgeTargets()[edges[i]];
+        }
+        out = new Adjacency(old.out, cg.getOutOffsets(), sources, cg, edges);
+        in = new Adjacency(old.in, cg.getInOffsets(), targets, cg, edges);
+    }
+
+    /**
+     * Returns the index of a compact graph, building it on the first call.
+     *
+     * @param cg The compact graph
+     * @return The index
+     */
+    static TemporalDegreeIndex of(final CompactGraph cg) {
+        TemporalDegreeIndex index;
+        synchronized (INDICES) {
+            index = INDICES.get(cg);
+        }
+        if (null != index) {
+            return index;
+        }
+
+        index = new TemporalDegreeIndex(cg);
+        synchronized (INDICES) {
+            TemporalDegreeIndex other = INDICES.get(cg);
+            if (null != other) {
+                return other;
+            }
+            INDICES.put(cg, index);
+        }
+        return index;
+    }
+
+    /**
+     * Extends the index of a compact graph to a graph that was built by
+     * appending rows to it. Nothing happens if the old graph has no index,
+     * the index of the new graph is then built on demand.
+     *
+     * @param base The old graph
+     * @param cg The new graph
+     * @param added The appended edges, ordered by time
+     */
+    static void extend(final CompactGraph base, final CompactGraph cg,
+            final Edge[] added) {
+        TemporalDegreeIndex old;
+        synchronized (INDICES) {
+            old = INDICES.get(base);
+        }
+        if (null == old) {
+            return;
+        }
+
+        int[] edges = new int[added.length];
+        for (int i = 0; i < added.length; i++) {
+            edges[i] = cg.indexOf(added[i]);
+        }
+        TemporalDegreeIndex index = new TemporalDegreeIndex(old, cg, edges);
+        synchronized (INDICES) {
+            INDICES.put(cg, index);
+        }
+    }
+
+    /**
+     * Returns the index of the graph a time window was cut out of.
+     *
+     * @param cg The compact graph of a time bounded view
+     * @return The index or null if the compact graph is not a time window
+     *         of a whole graph
+     */
+    public static TemporalDegreeIndex ofWindow(final CompactGraph cg) {
+        if (null == cg.getWindow()) {
+            return null;
+        }
+        return of(cg.getWindowBase());
+    }
+
+    /**
+     * Writes the degrees of the nodes of a time window into arrays indexed
+     * like the nodes of the window.
+     *
+     * @see #ofWindow(CompactGraph)
+     *
+     * @param window The compact graph of the time window
+     * @param inDegrees The number of incoming interactions
+     * @param outDegrees The number of outgoing interactions
+     * @param weightedInDegrees The sum of the original weights of the
+     *                          incoming interactions
+     * @param weightedOutDegrees The sum of the original weights of the
+     *                           outgoing interactions
+     */
+    public void getDegrees(final CompactGraph window, final double[] inDegrees,
+            final double[] outDegrees, final double[] weightedInDegrees,
+            final double[] weightedOutDegrees) {
+        TimeBoundary bound = window.getWindow();
+        CompactGraph base = window.getWindowBase();
+        int[] ids = window.getNodeIds();
+        for (int v = 0; v < ids.length; v++) {
+            int u = base.indexOfId(ids[v]);
+            inDegrees[v] = in.count(u, bound);
+            outDegrees[v] = out.count(u, bound);
+            weightedInDegrees[v] = in.weight(u, bound);
+            weightedOutDegrees[v] = out.weight(u, bound);
+        }
+    }
+}
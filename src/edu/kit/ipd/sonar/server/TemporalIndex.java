@@ -0,0 +1,398 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A time index of a compact graph.
+ *
+ * The index keeps the nodes and the edges of the graph sorted by their
+ * creation time. The nodes and edges of any time window are therefore a
+ * contiguous range that is found by binary search in O(log n).
+ *<p/>
+ * Additionally the times are divided into a fixed number of buckets with
+ * cumulative counts. They give an upper bound of the size of a window in
+ * constant time, before any node or edge is looked at.
+ *<p/>
+ * The index is built once per compact graph and shared. It is built outside
+ * of any lock, so requests for different graphs do not wait for each other.
+ * Concurrent requests for the same new graph may both build an index, only
+ * the first one is kept.
+ *
+ * @see GraphView#bounded(TimeBoundary)
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class TemporalIndex {
+    /**
+     * The number of buckets for the estimates.
+     */
+    private static final int BUCKETS = 64;
+
+    /**
+     * Number of bits in an int.
+     */
+    private static final int INT_BITS = 32;
+
+    /**
+     * Mask of the lower 32 bits of a long.
+     */
+    private static final long LOW_BITS = 0xffffffffL;
+
+    /**
+     * The indices of the graphs built so far. Weak, so an index is dropped
+     * with its graph.
+     */
+    private static final Map<CompactGraph, TemporalIndex> INDICES
+        = new WeakHashMap<CompactGraph, TemporalIndex>();
+
+    /**
+     * The node indices sorted by time.
+     */
+    private final int[] nodesByTime;
+
+    /**
+     * The sorted node times.
+     */
+    private final int[] nodeTimes;
+
+    /**
+     * The edge indices sorted by time.
+     */
+    private final int[] edgesByTime;
+
+    /**
+     * The sorted edge times.
+     */
+    private final int[] edgeTimes;
+
+    /**
+     * The number of nodes before every bucket.
+     */
+    private final int[] nodeBuckets;
+
+    /**
+     * The number of edges before every bucket.
+     */
+    private final int[] edgeBuckets;
+
+    /**
+     * The first time of the first bucket.
+     */
+    private final long bucketStart;
+
+    /**
+     * The time range of a bucket.
+     */
+    private final long bucketWidth;
+
+    /**
+     * Builds the index of a compact graph.
+     *
+     * @param cg The compact graph
+     */
+    TemporalIndex(final CompactGraph cg) {
+        int n = cg.getNodeCount();
+        int m = cg.getEdgeCount();
+        int[] nt = cg.getNodeTimes();
+        int[] et = cg.getEdgeTimes();
+
+        nodesByTime = new int[n];
+        nodeTimes = new int[n];
+        sortByTime(identity(n), nt, 0, n, nodesByTime, nodeTimes);
+        edgesByTime = new int[m];
+        edgeTimes = new int[m];
+        sortByTime(identity(m), et, 0, m, edgesByTime, edgeTimes);
+
+        long min = 0;
+        long max = 0;
+        if (n > 0) {
+            min = nodeTimes[0];
+            max = nodeTimes[n - 1];
+        }
+        if (m > 0) {
+            if (0 == n || edgeTimes[0] < min) {
+                min = edgeTimes[0];
+            }
+            if (0 == n || edgeTimes[m - 1] > max) {
+                max = edgeTimes[m - 1];
+            }
+        }
+        bucketStart = min;
+        bucketWidth = (max - min) / BUCKETS + 1;
+        nodeBuckets = buckets(nodeTimes);
+        edgeBuckets = buckets(edgeTimes);
+    }
+
+    /**
+     * Returns the shared index of a compact graph.
+     *
+     * @param cg The compact graph
+     * @return The index
+     */
+    static TemporalIndex of(final CompactGraph cg) {
+        if (null == cg) {
+            throw new IllegalArgumentException("Passed graph is null");
+        }
+
+        TemporalIndex index;
+        synchronized (INDICES) {
+            index = INDICES.get(cg);
+        }
+        if (null != index) {
+            return index;
+        }
+
+        TemporalIndex built = new TemporalIndex(cg);
+        synchronized (INDICES) {
+            index = INDICES.get(cg);
+            if (null == index) {
+                index = built;
+                INDICES.put(cg, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the node indices sorted by time.
+     *
+     * The nodes of a window are the range from firstNode to endNode.
+     *
+     * @return The sorted node indices
+     */
+    int[] getNodesByTime() {
+        return nodesByTime;
+    }
+
+    /**
+     * Returns the position of the first node in a time window.
+     *
+     * @param bound The time window
+     * @return The position in getNodesByTime
+     */
+    int firstNode(final TimeBoundary bound) {
+        return lowerBound(nodeTimes, 0, nodeTimes.length, bound.getStart());
+    }
+
+    /**
+     * Returns the position after the last node in a time window.
+     *
+     * @param bound The time window
+     * @return The position in getNodesByTime
+     */
+    int endNode(final TimeBoundary bound) {
+        return Math.max(firstNode(bound),
+                upperBound(nodeTimes, 0, nodeTimes.length, bound.getEnd()));
+    }
+
+    /**
+     * Returns the edge indices sorted by time.
+     *
+     * The edges of a window are the range from firstEdge to endEdge.
+     *
+     * @return The sorted edge indices
+     */
+    int[] getEdgesByTime() {
+        return edgesByTime;
+    }
+
+    /**
+     * Returns the position of the first edge in a time window.
+     *
+     * @param bound The time window
+     * @return The position in getEdgesByTime
+     */
+    int firstEdge(final TimeBoundary bound) {
+        return lowerBound(edgeTimes, 0, edgeTimes.length, bound.getStart());
+    }
+
+    /**
+     * Returns the position after the last edge in a time window.
+     *
+     * @param bound The time window
+     * @return The position in getEdgesByTime
+     */
+    int endEdge(final TimeBoundary bound) {
+        return Math.max(firstEdge(bound),
+                upperBound(edgeTimes, 0, edgeTimes.length, bound.getEnd()));
+    }
+
+    /**
+     * Returns an upper bound of the number of nodes in a window.
+     *
+     * Runs in constant time. The estimate is exact for windows that are
+     * aligned to the buckets.
+     *
+     * @param bound The time window
+     * @return The estimated number of nodes
+     */
+    int estimateNodes(final TimeBoundary bound) {
+        return estimate(nodeBuckets, bound);
+    }
+
+    /**
+     * Returns an upper bound of the number of edges in a window.
+     *
+     * @see #estimateNodes(TimeBoundary)
+     *
+     * @param bound The time window
+     * @return The estimated number of edges
+     */
+    int estimateEdges(final TimeBoundary bound) {
+        return estimate(edgeBuckets, bound);
+    }
+
+    /**
+     * Sums up the buckets overlapping a window.
+     *
+     * @param cumulative The number of elements before every bucket
+     * @param bound The time window
+     * @return The number of elements in the overlapping buckets
+     */
+    private int estimate(final int[] cumulative, final TimeBoundary bound) {
+        long from = Math.max(bound.getStart(), bucketStart);
+        long to = Math.min(bound.getEnd(),
+                bucketStart + BUCKETS * bucketWidth - 1);
+        if (from > to) {
+            return 0;
+        }
+        return cumulative[bucketOf(to) + 1] - cumulative[bucketOf(from)];
+    }
+
+    /**
+     * Returns the bucket of a time within the range of the buckets.
+     *
+     * @param time The time
+     * @return The bucket
+     */
+    private int bucketOf(final long time) {
+        return (int) ((time - bucketStart) / bucketWidth);
+    }
+
+    /**
+     * Counts the sorted times per bucket.
+     *
+     * @param times The sorted times
+     * @return The number of times before every bucket, length BUCKETS + 1
+     */
+    private int[] buckets(final int[] times) {
+        int[] cumulative = new int[BUCKETS + 1];
+        for (int i = 0; i < times.length; i++) {
+            cumulative[bucketOf(times[i]) + 1]++;
+        }
+        for (int b = 0; b < BUCKETS; b++) {
+            cumulative[b + 1] += cumulative[b];
+        }
+        return cumulative;
+    }
+
+    /**
+     * Returns the array 0, 1, ..., n - 1.
+     *
+     * @param n The length
+     * @return The array
+     */
+    private static int[] identity(final int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i;
+        }
+        return a;
+    }
+
+    /**
+     * Sorts a range of elements by time.
+     *
+     * Time and element are packed into one long, so the range is sorted as
+     * a primitive array. Elements with the same time are ordered by index.
+     *
+     * @param elements The elements
+     * @param times The time of every element, indexed by element
+     * @param from The first position of the range
+     * @param to The end of the range
+     * @param sorted Receives the sorted elements in the same range
+     * @param sortedTimes Receives the times of the sorted elements
+     */
+    private static void sortByTime(final int[] elements, final int[] times,
+            final int from, final int to, final int[] sorted,
+            final int[] sortedTimes) {
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            keys[i - from] = ((long) times[elements[i]] << INT_BITS)
+                | (elements[i] & LOW_BITS);
+        }
+        Arrays.sort(keys);
+        for (int i = from; i < to; i++) {
+            long key = keys[i - from];
+            sorted[i] = (int) (key & LOW_BITS);
+            sortedTimes[i] = (int) (key >> INT_BITS);
+        }
+    }
+
+    /**
+     * Returns the first position in a sorted range with a value of at least
+     * the key.
+     *
+     * @param a The sorted array
+     * @param from The first position of the range
+     * @param to The end of the range
+     * @param key The key
+     * @return The position, to if all values are smaller
+     */
+    static int lowerBound(final int[] a, final int from,
+            final int to, final int key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the first position in a sorted range with a value greater than
+     * the key.
+     *
+     * @param a The sorted array
+     * @param from The first position of the range
+     * @param to The end of the range
+     * @param key The key
+     * @return The position, to if no value is greater
+     */
+    static int upperBound(final int[] a, final int from,
+            final int to, final int key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
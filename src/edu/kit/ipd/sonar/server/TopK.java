@@ -0,0 +1,142 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+/**
+ * Selects the indices of the largest values of an array.
+ *
+ * The selection keeps the k best indices seen so far in a binary min-heap,
+ * so choosing the top k of n values takes O(n log k) time and O(k) extra
+ * memory instead of sorting all values. Ties are broken by the smaller
+ * index, NaN values are never selected.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class TopK {
+    /**
+     * Utility class.
+     */
+    private TopK() {
+    }
+
+    /**
+     * Returns the indices of the k largest values.
+     *
+     * @param values The values
+     * @param k The maximum number of indices to return
+     * @return The indices ordered by descending value, at most k and only
+     *         indices of values that are not NaN
+     */
+    static int[] select(final double[] values, final int k) {
+        int capacity = Math.max(0, Math.min(k, values.length));
+        int[] heap = new int[capacity];
+        int size = 0;
+
+        for (int i = 0; i < values.length && capacity > 0; i++) {
+            if (Double.isNaN(values[i])) {
+                continue;
+            }
+            if (size < capacity) {
+                heap[size] = i;
+                siftUp(values, heap, size);
+                size++;
+            } else if (better(values, i, heap[0])) {
+                heap[0] = i;
+                siftDown(values, heap, size);
+            }
+        }
+
+        /* the heap holds the worst selected index on top, so emptying it
+           from the back yields the indices in descending order */
+        int[] result = new int[size];
+        for (int last = size - 1; last >= 0; last--) {
+            result[last] = heap[0];
+            heap[0] = heap[last];
+            siftDown(values, heap, last);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the value at index a ranks before the value at index b.
+     *
+     * @param values The values
+     * @param a The first index
+     * @param b The second index
+     * @return True if a ranks before b
+     */
+    private static boolean better(final double[] values, final int a,
+            final int b) {
+        if (values[a] != values[b]) {
+            return values[a] > values[b];
+        }
+        return a < b;
+    }
+
+    /**
+     * Moves the entry at the given position up until the heap is valid.
+     *
+     * @param values The values
+     * @param heap The heap of indices, the worst index on top
+     * @param pos The position of the entry
+     */
+    private static void siftUp(final double[] values, final int[] heap,
+            final int pos) {
+        int child = pos;
+        int entry = heap[child];
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (!better(values, heap[parent], entry)) {
+                break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = entry;
+    }
+
+    /**
+     * Moves the top entry down until the heap is valid.
+     *
+     * @param values The values
+     * @param heap The heap of indices, the worst index on top
+     * @param size The number of entries in the heap
+     */
+    private static void siftDown(final double[] values, final int[] heap,
+            final int size) {
+        if (size == 0) {
+            return;
+        }
+        int parent = 0;
+        int entry = heap[0];
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && better(values, heap[child],
+                        heap[child + 1])) {
+                child++;
+            }
+            if (!better(values, entry, heap[child])) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        heap[parent] = entry;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import edu.kit.ipd.sonar.server.Annotable;
+import edu.kit.ipd.sonar.server.CompactGraph;
+import edu.kit.ipd.sonar.server.Edge;
+import edu.kit.ipd.sonar.server.Graph;
+import edu.kit.ipd.sonar.server.Node;
+
+import java.util.HashMap;
+
+/**
+ * The array based interface for centrality algorithms, available since
+ * API version 1.
+ *
+ * Instead of returning a map from annotables to boxed values, a centrality
+ * writes its values into a double array that is indexed like the nodes or
+ * edges of the compact graph, depending on the type of the centrality.
+ * The calculators use this interface for all centralities. Centralities
+ * implementing only CentralityImpl are wrapped by the CentralityLoader so
+ * older plugins keep working.
+ *<p/>
+ * Plugins using this interface should return at least 1 as required api
+ * version.
+ *
+ * @see CompactGraph
+ * @see CentralityLoader
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public abstract class ArrayCentralityImpl extends CentralityImpl {
+    /**
+     * The API version that introduced this interface.
+     */
+    public static final int API_VERSION = 1;
+
+    /**
+     * The bits of MISSING, a quiet NaN with a payload that arithmetic on
+     * ordinary values does not produce.
+     */
+    private static final long MISSING_BITS = 0x7ff8000000000001L;
+
+    /**
+     * Marks a node or edge for which a centrality has no value.
+     *
+     * Only the raw bits tell it apart from other NaN values, use
+     * isMissing to test for it.
+     */
+    public static final double MISSING = Double.longBitsToDouble(MISSING_BITS);
+
+    /**
+     * Calculates the weight for the nodes or edges of a compact graph.
+     *
+     * The array has getNodeCount() entries for node centralities and
+     * getEdgeCount() entries for edge centralities, all set to 0.0. Every
+     * value, NaN included, is a result. MISSING marks a node or edge for
+     * which no value could be calculated; requesting it fails.
+     *
+     * @param g The graph
+     * @param weights The array to write the values into
+     */
+    public abstract void computeWeights(CompactGraph g, double[] weights);
+
+    /**
+     * Calculates the weight for the next window of a time series.
+     *
+     * The values of the previous window can be used to update the values
+     * instead of calculating them from scratch, or to start an iteration
+     * from them. The default implementation ignores the previous window.
+     *
+     * @see #computeWeights(CompactGraph, double[])
+     * @see PreviousWindow
+     *
+     * @param g The graph of the window
+     * @param weights The array to write the values into
+     * @param previous The previous window
+     */
+    public void computeWeights(final CompactGraph g, final double[] weights,
+            final PreviousWindow previous) {
+        computeWeights(g, weights);
+    }
+
+    /**
+     * Calculates the weight for the nodes or edges of a compact graph into a
+     * new array.
+     *
+     * @see #computeWeights(CompactGraph, double[])
+     *
+     * @param g The graph
+     * @return The values in node or edge index order
+     */
+    public double[] getWeights(final CompactGraph g) {
+        return getWeights(g, null);
+    }
+
+    /**
+     * Calculates the weight for the next window of a time series into a new
+     * array.
+     *
+     * @see #computeWeights(CompactGraph, double[], PreviousWindow)
+     *
+     * @param g The graph
+     * @param previous The previous window, null for the first window
+     * @return The values in node or edge index order
+     */
+    public double[] getWeights(final CompactGraph g,
+            final PreviousWindow previous) {
+        if (g == null) {
+            throw new IllegalArgumentException("Graph passed to "
+                    + getName() + " is null.");
+        }
+
+        double[] weights;
+        if (Type.EdgeCentrality == getType()) {
+            weights = new double[g.getEdgeCount()];
+        } else {
+            weights = new double[g.getNodeCount()];
+        }
+        if (null == previous) {
+            computeWeights(g, weights);
+        } else {
+            computeWeights(g, weights, previous);
+        }
+        return weights;
+    }
+
+    /**
+     * Calculates the weight for the annotables of a graph.
+     *
+     * Implemented on top of computeWeights for callers that need a map.
+     * Nodes or edges without a value are not part of the map.
+     *
+     * @see CentralityImpl#getWeight(Graph g)
+     * @param g The graph
+     * @return The mapping
+     */
+    public HashMap<? extends Annotable, Double> getWeight(final Graph g) {
+        if (Type.EdgeCentrality == getType()) {
+            return getEdgeWeights(g);
+        }
+        return getNodeWeights(g);
+    }
+
+    /**
+     * Calculates the weights of a node centrality as a map.
+     *
+     * @param g The graph
+     * @return The mapping
+     */
+    protected HashMap<Node, Double> getNodeWeights(final Graph g) {
+        if (g == null) {
+            throw new IllegalArgumentException("Graph passed to "
+                    + getName() + " is null.");
+        }
+
+        CompactGraph cg = g.getCompactGraph();
+        double[] weights = getWeights(cg);
+        HashMap<Node, Double> res
+            = new HashMap<Node, Double>(cg.getNodeCount() * 2);
+        for (int v = 0; v < cg.getNodeCount(); v++) {
+            if (!isMissing(weights[v])) {
+                res.put(cg.getNode(v), weights[v]);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Calculates the weights of an edge centrality as a map.
+     *
+     * @param g The graph
+     * @return The mapping
+     */
+    protected HashMap<Edge, Double> getEdgeWeights(final Graph g) {
+        if (g == null) {
+            throw new IllegalArgumentException("Graph passed to "
+                    + getName() + " is null.");
+        }
+
+        CompactGraph cg = g.getCompactGraph();
+        double[] weights = getWeights(cg);
+        HashMap<Edge, Double> res
+            = new HashMap<Edge, Double>(cg.getEdgeCount() * 2);
+        for (int e = 0; e < cg.getEdgeCount(); e++) {
+            if (!isMissing(weights[e])) {
+                res.put(cg.getEdge(e), weights[e]);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns true if a value marks a node or edge without a value.
+     *
+     * @see #MISSING
+     *
+     * @param value The value
+     * @return True if the value is MISSING, false for any other value
+     *         including other NaN values
+     */
+    public static boolean isMissing(final double value) {
+        return Double.doubleToRawLongBits(value) == MISSING_BITS;
+    }
+
+    /**
+     * Returns the array based interface of a centrality.
+     *
+     * @param c The centrality
+     * @return The centrality itself if it implements this interface,
+     *         otherwise an adapter
+     */
+    public static ArrayCentralityImpl adapt(final CentralityImpl c) {
+        if (c instanceof ArrayCentralityImpl) {
+            return (ArrayCentralityImpl) c;
+        }
+        return new LegacyCentralityAdapter(c);
+    }
+}
@@ -65,6 +65,13 @@ public class Centrality implements IsSerializable {
      */
     private Type type;
 
+    /**
+     * The cached hashCode, 0 until it is computed.
+     *
+     * Not transferred over the wire, as it is cheap to recompute.
+     */
+    private transient int hash;
+
     /**
      * Allow packages to instantiate.
      *
@@ -149,9 +156,15 @@ public class Centrality implements IsSerializable {
      * on memory location. So we use internal data getString and getVersion
      * to ensure a stable hashCode.
      *
+     * The hashCode is used for every lookup of a weight, so it is computed
+     * once and cached.
+     *
      * @return the hashCode.
      */
     public int hashCode() {
-        return getName().concat(Integer.toString(getVersion())).hashCode();
+        if (0 == hash) {
+            hash = getName().concat(Integer.toString(getVersion())).hashCode();
+        }
+        return hash;
     }
 }
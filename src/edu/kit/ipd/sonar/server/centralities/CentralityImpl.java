@@ -16,6 +16,7 @@
 package edu.kit.ipd.sonar.server.centralities;
 
 import edu.kit.ipd.sonar.server.Annotable;
+import edu.kit.ipd.sonar.server.Configuration;
 import edu.kit.ipd.sonar.server.Graph;
 
 import java.util.HashMap;
@@ -75,9 +76,37 @@ public abstract class CentralityImpl extends Centrality {
      * the value itself to the graph nor will you get the graph
      * with the calculated values during run. You will always
      * get a graph without centralities.
+     *<p/>
+     * Every requested annotable needs a value, a missing one makes the
+     * calculation of the graph fail. NaN is stored like any other value.
      *
      * @param g The graph
      * @return The mapping
      */
     public abstract HashMap<? extends Annotable, Double> getWeight(Graph g);
+
+    /**
+     * Returns a numeric parameter of the centrality from the configuration.
+     *
+     * @see Configuration#getCentralityParameter(String)
+     *
+     * @param name The name of the parameter
+     * @param defaultValue The value used if the parameter is not set or
+     *                     not a number
+     * @return The value
+     */
+    protected double getParameter(final String name,
+            final double defaultValue) {
+        String value = Configuration.getInstance().getCentralityParameter(
+                name);
+        if (null == value) {
+            return defaultValue;
+        }
+
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 }
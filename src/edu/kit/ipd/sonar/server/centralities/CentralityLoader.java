@@ -46,6 +46,11 @@ import edu.kit.ipd.sonar.server.Configuration;
  * provide the runtime either in the jar or put the jar into the classpath. This
  * can be done by copying the runtime into the <code>WEB-INF/lib/</code>
  * directory.
+ *<p/>
+ * Centralities that only implement the map based CentralityImpl interface of
+ * API version 0 are wrapped into an adapter for the array based
+ * ArrayCentralityImpl interface, so all loaded centralities can be used
+ * the same way.
  *
  * @author David Soria Parra <david.parra@student.kit.edu>
  */
@@ -169,7 +174,10 @@ public class CentralityLoader {
             log.info("  requires api version: "
                 + reqVersion + " (provided is " + apiVersion + ")");
             if (reqVersion <= apiVersion) {
-                centralities.add(impl);
+                if (!(impl instanceof ArrayCentralityImpl)) {
+                    log.info("  wrapped into the array based api.");
+                }
+                centralities.add(ArrayCentralityImpl.adapt(impl));
                 log.info("  completed.");
             } else {
                 log.warn("  cannot load centrality " + name);
@@ -0,0 +1,146 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import edu.kit.ipd.sonar.server.Annotable;
+import edu.kit.ipd.sonar.server.CompactGraph;
+import edu.kit.ipd.sonar.server.Graph;
+
+import java.util.HashMap;
+
+/**
+ * Wraps a centrality written against API version 0 into the array based
+ * interface.
+ *
+ * The map returned by the wrapped centrality is copied into the array. Nodes
+ * or edges missing in the map are set to MISSING, values of NaN are kept.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+final class LegacyCentralityAdapter extends ArrayCentralityImpl {
+    /**
+     * The wrapped centrality.
+     */
+    private final CentralityImpl legacy;
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param c The centrality to wrap
+     */
+    LegacyCentralityAdapter(final CentralityImpl c) {
+        legacy = c;
+    }
+
+    /**
+     * Returns the wrapped centrality.
+     *
+     * @return The centrality
+     */
+    CentralityImpl getLegacy() {
+        return legacy;
+    }
+
+    /**
+     * Copies the values of the wrapped centrality into the array.
+     *
+     * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[])
+     * @param g The graph
+     * @param weights The array to write the values into
+     */
+    public void computeWeights(final CompactGraph g, final double[] weights) {
+        HashMap<? extends Annotable, Double> vals
+            = legacy.getWeight(g.getGraph());
+        boolean edges = Type.EdgeCentrality == getType();
+        for (int i = 0; i < weights.length; i++) {
+            Double v = null;
+            if (null != vals) {
+                if (edges) {
+                    v = vals.get(g.getEdge(i));
+                } else {
+                    v = vals.get(g.getNode(i));
+                }
+            }
+
+            if (null == v) {
+                weights[i] = MISSING;
+            } else {
+                weights[i] = v.doubleValue();
+            }
+        }
+    }
+
+    /**
+     * Returns the values of the wrapped centrality unchanged.
+     *
+     * @see CentralityImpl#getWeight(Graph g)
+     * @param g The graph
+     * @return The mapping
+     */
+    public HashMap<? extends Annotable, Double> getWeight(final Graph g) {
+        return legacy.getWeight(g);
+    }
+
+    /**
+     * @see CentralityImpl#getCentrality()
+     * @return A centrality
+     */
+    public Centrality getCentrality() {
+        return legacy.getCentrality();
+    }
+
+    /**
+     * @see Centrality#getType()
+     * @return The type
+     */
+    public Type getType() {
+        return legacy.getType();
+    }
+
+    /**
+     * @see Centrality#getRequiredAPIVersion()
+     * @return The required api version
+     */
+    public int getRequiredAPIVersion() {
+        return legacy.getRequiredAPIVersion();
+    }
+
+    /**
+     * @see Centrality#getVersion()
+     * @return The version
+     */
+    public int getVersion() {
+        return legacy.getVersion();
+    }
+
+    /**
+     * @see Centrality#getName()
+     * @return The name
+     */
+    public String getName() {
+        return legacy.getName();
+    }
+
+    /**
+     * Returns the name of the wrapped centrality.
+     *
+     * @return The string representation
+     */
+    @Override
+    public String toString() {
+        return legacy.toString();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs the parts of a calculation on all available cores.
+ *
+ * The server and all centralities share one pool of daemon threads with one
+ * thread per core. Calculations nest: the server evaluates several
+ * centralities at once on the pool, and every centrality may split its own
+ * work into tasks on the same pool again.
+ *<p/>
+ * The thread that submits tasks always runs every task no worker has
+ * started yet itself, and only then waits for the rest. A worker that
+ * submits tasks therefore never waits for tasks queued behind it, so
+ * nesting cannot deadlock the bounded pool. At most one thread per core plus
+ * the calling request threads are busy, however deep the calculations nest.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public final class Parallel {
+    /**
+     * The number of threads of the pool.
+     */
+    private static final int THREADS =
+        Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The shared pool.
+     */
+    private static final ExecutorService POOL =
+        Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+            private int count = 0;
+
+            public synchronized Thread newThread(final Runnable r) {
+                count++;
+                Thread t = new Thread(r, "sonar-worker-" + count);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+    /**
+     * Returns the number of threads used for parallel calculations.
+     *
+     * @return The number of threads
+     */
+    public static int getThreadCount() {
+        return THREADS;
+    }
+
+    /**
+     * Returns the number of tasks a job of the given size should be split
+     * into.
+     *
+     * @param size The number of work items
+     * @param minPerTask The minimum number of work items per task
+     * @return The number of tasks, at least 1
+     */
+    public static int getTaskCount(final int size, final int minPerTask) {
+        int tasks = Math.min(THREADS, size / Math.max(1, minPerTask));
+        return Math.max(1, tasks);
+    }
+
+    /**
+     * Runs the given tasks and waits for all of them.
+     *
+     * @see #execute(List)
+     *
+     * @param <T> The result type
+     * @param tasks The tasks
+     * @return The results in the order of the tasks
+     * @throws RuntimeException if a task failed or the calling thread
+     * was interrupted
+     */
+    public static <T> List<T> invokeAll(final List<Callable<T>> tasks) {
+        try {
+            return execute(tasks);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Calculation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Calculation interrupted", e);
+        }
+    }
+
+    /**
+     * Runs the given tasks and waits for all of them.
+     *
+     * All tasks but the first are handed to the pool. The calling thread
+     * then runs every task that has not been started yet, so a single task
+     * is always run on the calling thread.
+     *
+     * @param <T> The result type
+     * @param tasks The tasks
+     * @return The results in the order of the tasks
+     * @throws ExecutionException if a task failed, with the failure as cause
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    public static <T> List<T> execute(final List<Callable<T>> tasks)
+        throws ExecutionException, InterruptedException {
+        List<FutureTask<T>> futures
+            = new ArrayList<FutureTask<T>>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(new FutureTask<T>(task));
+        }
+        for (int i = 1; i < futures.size(); i++) {
+            POOL.execute(futures.get(i));
+        }
+
+        List<T> results = new ArrayList<T>(tasks.size());
+        try {
+            /* running a task that a worker already took does nothing */
+            for (FutureTask<T> f : futures) {
+                f.run();
+            }
+            for (FutureTask<T> f : futures) {
+                results.add(f.get());
+            }
+        } finally {
+            if (results.size() < futures.size()) {
+                for (FutureTask<T> f : futures) {
+                    f.cancel(false);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Utility class.
+     */
+    private Parallel() {
+    }
+}
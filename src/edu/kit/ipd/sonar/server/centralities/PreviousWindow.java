@@ -0,0 +1,116 @@
+/*
+ * This file is part of Sonar.
+ *$
+ * This software is free software; you can redistribute it and/or$
+ * modify it under the terms of the GNU Lesser General Public$
+ * License version 2.1 as published by the Free Software Foundation$
+ *$
+ * This library is distributed in the hope that it will be useful,$
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of$
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU$
+ * Lesser General Public License for more details.$
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import edu.kit.ipd.sonar.server.CompactGraph;
+
+/**
+ * The previous window of a time series of centrality values.
+ *
+ * When the values of a centrality are calculated for a series of time
+ * windows, every window after the first one is passed the values of the
+ * same centrality on the window before. The edges that were added and
+ * removed between the two windows are passed along, so a centrality can
+ * update the previous values or start an iteration from them.
+ *<p/>
+ * If repeated interactions are aggregated, an edge whose interactions
+ * differ between the windows counts as removed from the previous window and
+ * added to the current one, as its count and weight may have changed.
+ *
+ * @see ArrayCentralityImpl#computeWeights(CompactGraph, double[],
+ *          PreviousWindow)
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public final class PreviousWindow {
+    /**
+     * The graph of the previous window.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * The values of the centrality on the previous window.
+     */
+    private final double[] weights;
+
+    /**
+     * The edges of the current window that are not in the previous one.
+     */
+    private final int[] addedEdges;
+
+    /**
+     * The edges of the previous window that are not in the current one.
+     */
+    private final int[] removedEdges;
+
+    /**
+     * Creates a new previous window.
+     *
+     * @param graph The graph of the previous window
+     * @param weights The values of the centrality on the previous window
+     * @param added The indices of the edges of the current window that are
+     *              not in the previous one
+     * @param removed The indices of the edges of the previous window that
+     *                are not in the current one
+     */
+    public PreviousWindow(final CompactGraph graph, final double[] weights,
+            final int[] added, final int[] removed) {
+        this.graph = graph;
+        this.weights = weights;
+        this.addedEdges = added;
+        this.removedEdges = removed;
+    }
+
+    /**
+     * Returns the graph of the previous window.
+     *
+     * @return The graph
+     */
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the values of the centrality on the previous window.
+     *
+     * The array must not be modified.
+     *
+     * @return The values indexed like the nodes or edges of getGraph
+     */
+    public double[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Returns the edges of the current window that are not in the previous
+     * one.
+     *
+     * @return Edge indices of the graph of the current window
+     */
+    public int[] getAddedEdges() {
+        return addedEdges;
+    }
+
+    /**
+     * Returns the edges of the previous window that are not in the current
+     * one.
+     *
+     * @return Edge indices of getGraph
+     */
+    public int[] getRemovedEdges() {
+        return removedEdges;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.Centrality;
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the calculation result cache.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class CalculationCacheTest {
+    private CalculationCache.Key key(CalculationCache cache, Graph g,
+            TimeBoundary bound, int limit) {
+        ArrayList<CentralityImpl> c = new ArrayList<CentralityImpl>();
+        c.add(TestUtil.getEqualCentrality());
+        return cache.key(TestUtil.getCalculator(), g, c, bound, limit, null);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        CalculationCache cache = new CalculationCache(10, 1000000);
+        Graph g = TestUtil.getGraphMock();
+        Graph result = TestUtil.getGraphMock();
+
+        assertNull(cache.get(key(cache, g, null, 0)));
+        cache.put(key(cache, g, null, 0), result);
+
+        assertSame(result, cache.get(key(cache, g, null, 0)));
+        assertNull(cache.get(key(cache, g, new TimeBoundary(1, 2), 0)));
+        assertNull(cache.get(key(cache, g, null, 3)));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testStateHashIsPartOfKey() {
+        CalculationCache cache = new CalculationCache(10, 1000000);
+        Graph g = TestUtil.getGraphMock();
+
+        cache.put(key(cache, g, null, 0), TestUtil.getGraphMock());
+        g.addNode(new Node(6, "Node 6", 6));
+        assertNull(cache.get(key(cache, g, null, 0)));
+    }
+
+    @Test
+    public void testFullStateHashIsPartOfKey() {
+        List<Centrality> c = new ArrayList<Centrality>();
+        long low = 42L;
+        long high = low | (1L << 32);
+        CalculationCache.Key a
+            = new CalculationCache.Key("calc", low, c, null, 0, -1);
+        CalculationCache.Key b
+            = new CalculationCache.Key("calc", high, c, null, 0, -1);
+
+        assertEquals(a, new CalculationCache.Key("calc", low, c, null, 0, -1));
+        assertFalse(a.equals(b));
+    }
+
+    @Test
+    public void testEntryLimit() {
+        CalculationCache cache = new CalculationCache(2, 1000000);
+        Graph g = TestUtil.getGraphMock();
+
+        cache.put(key(cache, g, null, 1), TestUtil.getGraphMock());
+        cache.put(key(cache, g, null, 2), TestUtil.getGraphMock());
+        /* touch the first entry, so the second one is the eldest */
+        assertNotNull(cache.get(key(cache, g, null, 1)));
+        cache.put(key(cache, g, null, 3), TestUtil.getGraphMock());
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get(key(cache, g, null, 1)));
+        assertNull(cache.get(key(cache, g, null, 2)));
+    }
+
+    @Test
+    public void testByteLimit() {
+        Graph result = TestUtil.getGraphMock();
+        CalculationCache cache = new CalculationCache(10,
+                cache(result) * 2);
+        Graph g = TestUtil.getGraphMock();
+
+        cache.put(key(cache, g, null, 1), result);
+        cache.put(key(cache, g, null, 2), result);
+        cache.put(key(cache, g, null, 3), result);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getBytes() <= cache(result) * 2);
+    }
+
+    @Test
+    public void testInvalidate() {
+        CalculationCache cache = new CalculationCache(10, 1000000);
+        Graph g = TestUtil.getGraphMock();
+
+        cache.put(key(cache, g, null, 0), TestUtil.getGraphMock());
+        cache.invalidate();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+        assertNull(cache.get(key(cache, g, null, 0)));
+    }
+
+    private static long cache(Graph g) {
+        return new CalculationCache(1, 1).sizeOf(g);
+    }
+}
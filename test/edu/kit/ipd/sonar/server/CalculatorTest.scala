@@ -28,6 +28,24 @@ class CalculatorTest extends JUnitSuite {
         assert(g.getNodeById(2).getWeightForCentrality(c) === 1.0/2.0)
         assert(g.getNodeById(3).getWeightForCentrality(c) === 1.0/3.0)
     }
+
+    @Test def testNaNIsStored() {
+        val t = TestUtil.getCalculator
+        val g = TestUtil.getGraphMock
+        val c = TestUtil.getNaNCentrality
+
+        t.addCentralities(g, g, c)
+        assert(g.getNodeById(1).getWeightForCentrality(c).isNaN)
+        assert(g.getNodeById(2).getWeightForCentrality(c) === 1.0)
+    }
+
+    @Test(expected = classOf[CalculationFailedException])
+    def testMissingValueFailsCalculation() {
+        val t = TestUtil.getCalculator
+        val g = TestUtil.getGraphMock
+
+        t.addCentralities(g, g, TestUtil.getPartialCentrality)
+    }
 }
 
 // vim: set ts=4 sw=4 et:
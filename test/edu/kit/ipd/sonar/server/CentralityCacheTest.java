@@ -0,0 +1,147 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the centrality result cache.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class CentralityCacheTest {
+    /**
+     * Returns a node centrality that counts its calculations.
+     *
+     * @param name The name of the centrality
+     * @param calls Incremented on every calculation
+     * @return The centrality
+     */
+    private static CentralityImpl getCountingCentrality(final String name,
+            final int[] calls) {
+        return new CentralityImpl() {
+            public Type getType() {
+                return Type.NodeCentrality;
+            }
+
+            public int getRequiredAPIVersion() {
+                return 0;
+            }
+
+            public int getVersion() {
+                return 1;
+            }
+
+            public String getName() {
+                return name;
+            }
+
+            public HashMap<Node, Double> getWeight(final Graph g) {
+                calls[0]++;
+                HashMap<Node, Double> map = new HashMap<Node, Double>();
+                for (Node n : g.getNodeList().values()) {
+                    map.put(n, (double) n.getId());
+                }
+                return map;
+            }
+        };
+    }
+
+    @Test
+    public void testHitOnEqualGraph() throws CalculationFailedException {
+        CentralityCache cache = new CentralityCache(true, 10, 1000000);
+        int[] calls = new int[1];
+        CentralityImpl c = getCountingCentrality("Count", calls);
+
+        double[] first = cache.getWeights(TestUtil.getGraphMock(), c);
+        /* a different instance with the same content */
+        double[] second = cache.getWeights(TestUtil.getGraphMock(), c);
+
+        assertEquals(1, calls[0]);
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testChangedGraph() throws CalculationFailedException {
+        CentralityCache cache = new CentralityCache(true, 10, 1000000);
+        int[] calls = new int[1];
+        CentralityImpl c = getCountingCentrality("Count", calls);
+        Graph g = TestUtil.getGraphMock();
+
+        cache.getWeights(g, c);
+        g.addNode(new Node(6, "Node 6", 6));
+        double[] values = cache.getWeights(g, c);
+
+        assertEquals(2, calls[0]);
+        assertEquals(g.getNodeList().size(), values.length);
+    }
+
+    @Test
+    public void testOnlyMissingAreCalculated()
+        throws CalculationFailedException {
+        CentralityCache cache = new CentralityCache(true, 10, 1000000);
+        int[] a = new int[1];
+        int[] b = new int[1];
+        Graph g = TestUtil.getGraphMock();
+        List<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(getCountingCentrality("A", a));
+        list.add(getCountingCentrality("B", b));
+
+        double[] cached = cache.getWeights(g, list.get(1));
+        List<double[]> res = cache.getWeights(g, list);
+
+        assertEquals(1, a[0]);
+        assertEquals(1, b[0]);
+        assertEquals(2, res.size());
+        assertSame(cached, res.get(1));
+        assertEquals(g.getNodeList().size(), res.get(0).length);
+    }
+
+    @Test
+    public void testDisabled() throws CalculationFailedException {
+        CentralityCache cache = new CentralityCache(false, 10, 1000000);
+        int[] calls = new int[1];
+        CentralityImpl c = getCountingCentrality("Count", calls);
+        Graph g = TestUtil.getGraphMock();
+
+        cache.getWeights(g, c);
+        cache.getWeights(g, c);
+
+        assertEquals(2, calls[0]);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSizeAccounting() throws CalculationFailedException {
+        Graph g = TestUtil.getGraphMock();
+        int n = g.getNodeList().size();
+        CentralityCache cache = new CentralityCache(true, 10, 16 + 8 * n);
+        int[] calls = new int[1];
+
+        cache.getWeights(g, getCountingCentrality("A", calls));
+        assertEquals(16 + 8 * n, cache.getBytes());
+
+        cache.getWeights(g, getCountingCentrality("B", calls));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the concurrent evaluation of centralities.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class CentralityEvaluatorTest {
+    /**
+     * Returns a centrality that fails with the given exception.
+     *
+     * @param e The exception
+     * @return The centrality
+     */
+    private static CentralityImpl getFailingCentrality(
+            final RuntimeException e) {
+        return new CentralityImpl() {
+            public Type getType() {
+                return Type.NodeCentrality;
+            }
+
+            public int getRequiredAPIVersion() {
+                return 0;
+            }
+
+            public int getVersion() {
+                return 1;
+            }
+
+            public String getName() {
+                return "Failing";
+            }
+
+            public HashMap<Node, Double> getWeight(final Graph g) {
+                throw e;
+            }
+        };
+    }
+
+    @Test
+    public void testResultsInOrder() throws CalculationFailedException {
+        CompactGraph cg = TestUtil.getGraphMock().getCompactGraph();
+        ArrayList<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(TestUtil.getNodeCentrality());
+        list.add(TestUtil.getEqualCentrality());
+        list.add(TestUtil.getEmptyCentrality());
+
+        List<double[]> res = CentralityEvaluator.evaluate(cg, list);
+
+        assertEquals(3, res.size());
+        for (int v = 0; v < cg.getNodeCount(); v++) {
+            assertEquals(1.0 / cg.getNode(v).getId(), res.get(0)[v], 0.0);
+            assertEquals(1.0, res.get(1)[v], 0.0);
+            assertTrue(Double.isNaN(res.get(2)[v]));
+        }
+    }
+
+    @Test
+    public void testSingleCentrality() throws CalculationFailedException {
+        CompactGraph cg = TestUtil.getGraphMock().getCompactGraph();
+        ArrayList<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(TestUtil.getEqualCentrality());
+
+        List<double[]> res = CentralityEvaluator.evaluate(cg, list);
+
+        assertEquals(1, res.size());
+        assertEquals(cg.getNodeCount(), res.get(0).length);
+    }
+
+    @Test
+    public void testFailure() throws CalculationFailedException {
+        CompactGraph cg = TestUtil.getGraphMock().getCompactGraph();
+        IllegalStateException e = new IllegalStateException("broken");
+        ArrayList<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(TestUtil.getEqualCentrality());
+        list.add(getFailingCentrality(e));
+
+        try {
+            CentralityEvaluator.evaluate(cg, list);
+            fail("exception expected");
+        } catch (IllegalStateException ex) {
+            assertSame(e, ex);
+        }
+    }
+}
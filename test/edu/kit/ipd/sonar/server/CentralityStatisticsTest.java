@@ -0,0 +1,91 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+import edu.kit.ipd.sonar.server.centralities.PageRankCentrality;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the statistics of centrality values.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class CentralityStatisticsTest {
+    @Test
+    public void testStatistics() {
+        double[] values = new double[] {4, Double.NaN, 2, 8, 6, 0};
+        CentralityStatistics s = new CentralityStatistics(values, 4);
+
+        assertEquals(5, s.getCount());
+        assertEquals(0.0, s.getMin(), 0.0);
+        assertEquals(8.0, s.getMax(), 0.0);
+        assertEquals(4.0, s.getMean(), 1e-9);
+        assertEquals(Math.sqrt(8.0), s.getStandardDeviation(), 1e-9);
+        assertArrayEquals(new double[] {0, 2, 4, 6, 8}, s.getQuantiles(),
+                0.0);
+
+        assertNull(new CentralityStatistics(values, 0).getQuantiles());
+    }
+
+    @Test
+    public void testEmpty() {
+        CentralityStatistics s = new CentralityStatistics(
+                new double[] {Double.NaN}, 4);
+
+        assertEquals(0, s.getCount());
+        assertTrue(Double.isNaN(s.getMin()));
+        assertTrue(Double.isNaN(s.getMean()));
+        assertNull(s.getQuantiles());
+    }
+
+    @Test
+    public void testMissingValues() {
+        CentralityStatistics s = new CentralityStatistics(
+                new double[] {1.0, Double.NaN, 5.0, 3.0},
+                new boolean[] {true, true, false, true}, 4);
+
+        assertEquals(2, s.getCount());
+        assertEquals(1.0, s.getMin(), 0.0);
+        assertEquals(3.0, s.getMax(), 0.0);
+        assertEquals(2.0, s.getMean(), 1e-9);
+    }
+
+    @Test
+    public void testGraphStatistics() {
+        Graph g = new Graph();
+        Node n1 = new Node(1, "Node 1", 1);
+        Node n2 = new Node(2, "Node 2", 1);
+        g.addNode(n1);
+        g.addNode(n2);
+
+        CentralityImpl c = new PageRankCentrality();
+        assertNull(g.getStatistics(c));
+
+        double[] column = new double[2];
+        column[n1.getSlot(g)] = 1.0;
+        column[n2.getSlot(g)] = 3.0;
+        g.setWeights(c, column);
+        assertEquals(2.0, g.getStatistics(c).getMean(), 1e-9);
+        assertEquals(3.0, g.getCentralitiesMaxWeights().get(c), 0.0);
+
+        /* single weights only keep the bounds up to date */
+        n1.addWeight(c, 5.0);
+        assertNull(g.getStatistics(c));
+        assertEquals(5.0, g.getCentralitiesMaxWeights().get(c), 0.0);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the compact graph snapshot.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class CompactGraphTest {
+    @Test
+    public void testEmptyGraph() {
+        CompactGraph cg = new Graph().getCompactGraph();
+
+        assertEquals(0, cg.getNodeCount());
+        assertEquals(0, cg.getEdgeCount());
+        assertEquals(-1, cg.indexOfId(1));
+    }
+
+    @Test
+    public void testNodeIndex() {
+        Graph g = TestUtil.getGraphMock();
+        CompactGraph cg = g.getCompactGraph();
+
+        assertEquals(5, cg.getNodeCount());
+        assertEquals(8, cg.getEdgeCount());
+
+        /* nodes are indexed in ascending order of their id */
+        for (int i = 0; i < cg.getNodeCount(); i++) {
+            assertEquals(i + 1, cg.getNode(i).getId());
+            assertEquals(i, cg.indexOfId(i + 1));
+            assertEquals(i, cg.indexOf(cg.getNode(i)));
+        }
+        assertEquals(-1, cg.indexOfId(6));
+    }
+
+    @Test
+    public void testAdjacency() throws NodeDoesNotExistException {
+        Graph g = TestUtil.getGraphMock();
+        CompactGraph cg = g.getCompactGraph();
+
+        int n1 = cg.indexOfId(1);
+        int n2 = cg.indexOfId(2);
+        int n5 = cg.indexOfId(5);
+
+        assertEquals(3, cg.getOutDegree(n1));
+        assertEquals(0, cg.getInDegree(n1));
+        assertEquals(2, cg.getOutDegree(n2));
+        assertEquals(2, cg.getInDegree(n2));
+
+        /* outgoing edges are sorted by destination */
+        int[] out = cg.getOutOffsets();
+        for (int e = out[n1]; e < out[n1 + 1]; e++) {
+            assertEquals(n1, cg.getEdgeSources()[e]);
+            assertEquals(e - out[n1] + 1, cg.getEdgeTargets()[e]);
+            assertTrue(cg.getEdge(e).isOutgoingEdge(g.getNodeById(1)));
+        }
+
+        /* incoming adjacency refers back to the edges */
+        int[] in = cg.getInOffsets();
+        for (int s = in[n2]; s < in[n2 + 1]; s++) {
+            int e = cg.getInEdges()[s];
+            assertEquals(n2, cg.getEdgeTargets()[e]);
+            assertEquals(cg.getInSources()[s], cg.getEdgeSources()[e]);
+        }
+
+        int e52 = cg.indexOfEdge(n5, n2);
+        assertTrue(e52 >= 0);
+        assertEquals(5, cg.getEdge(e52).getSourceNode().getId());
+        assertEquals(e52, cg.indexOf(cg.getEdge(e52)));
+        assertEquals(-1, cg.indexOfEdge(n2, n5));
+    }
+
+    @Test
+    public void testParallelEdges() {
+        Graph g = TestUtil.getMultiEdgeGraph();
+        CompactGraph cg = g.getCompactGraph();
+        int n1 = cg.indexOfId(1);
+        int n2 = cg.indexOfId(2);
+
+        assertEquals(4, cg.getEdgeCount());
+        assertEquals(3, cg.getOutDegree(n1));
+
+        /* repeated interactions are ordered by time */
+        int first = cg.indexOfEdge(n1, n2);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(10 * (i + 1), cg.getEdgeTimes()[first + i]);
+        }
+
+        /* every edge has an index of its own */
+        for (Edge e : g.getEdgeList()) {
+            int i = cg.indexOf(e);
+            assertSame(e, cg.getEdge(i));
+        }
+        assertEquals(-1, cg.indexOf(new Edge(g.getNode(1), g.getNode(2), 15)));
+    }
+
+    @Test
+    public void testWeightsAndTimes() {
+        CompactGraph cg = TestUtil.getOriginalWeightedGraph().getCompactGraph();
+
+        assertEquals(4.0, cg.getNodeWeights()[cg.indexOfId(1)], 0.0);
+        assertEquals(5.0, cg.getNodeWeights()[cg.indexOfId(2)], 0.0);
+        assertEquals(2.0, cg.getEdgeWeights()[0], 0.0);
+        assertEquals(0, cg.getEdgeTimes()[0]);
+    }
+
+    @Test
+    public void testSnapshotIsShared() {
+        Graph g = TestUtil.getGraphMock();
+        CompactGraph cg = g.getCompactGraph();
+
+        assertSame(cg, g.getCompactGraph());
+        assertSame(g, cg.getGraph());
+
+        /* a change of the graph invalidates the snapshot */
+        g.addNode(new Node(6, "Node 6", 6));
+        assertNotSame(cg, g.getCompactGraph());
+        assertEquals(6, g.getCompactGraph().getNodeCount());
+    }
+
+    @Test
+    public void testAppend() {
+        Graph base = TestUtil.getMultiEdgeGraph();
+        CompactGraph old = base.getCompactGraph();
+        Graph g = new Graph(base);
+        Node n4 = new Node(4, "Node 4", 40);
+        g.addNode(n4);
+        Edge e12 = new Edge(g.getNode(1), g.getNode(2), 40);
+        e12.setOriginalWeight(5.0);
+        g.addEdge(e12);
+        g.addEdge(new Edge(n4, g.getNode(1), 40));
+        g.addEdge(new Edge(g.getNode(3), g.getNode(2), 35));
+
+        CompactGraph cg = g.getCompactGraph();
+        assertSameSnapshot(new CompactGraph(g), cg);
+        assertEquals(g.getFullStateHash(), cg.getStateHash());
+        assertSame(old.getNode(0), cg.getNode(0));
+        assertSame(old.getEdge(0), cg.getEdge(0));
+        assertSame(e12, cg.getEdge(cg.indexOfEdge(0, 1) + 3));
+
+        /* the copied graph is not changed */
+        assertSame(old, base.getCompactGraph());
+        assertEquals(4, old.getEdgeCount());
+        assertNull(base.getNode(4));
+
+        /* an earlier edge cannot be appended */
+        Graph late = new Graph(base);
+        late.addEdge(new Edge(late.getNode(3), late.getNode(1), 1));
+        assertSameSnapshot(new CompactGraph(late), late.getCompactGraph());
+    }
+
+    /**
+     * Asserts that two snapshots have the same nodes and edges in the same
+     * order.
+     *
+     * @param expected The expected snapshot
+     * @param actual The actual snapshot
+     */
+    private static void assertSameSnapshot(final CompactGraph expected,
+            final CompactGraph actual) {
+        assertArrayEquals(expected.getNodeIds(), actual.getNodeIds());
+        assertArrayEquals(expected.getNodeTimes(), actual.getNodeTimes());
+        assertArrayEquals(expected.getEdgeSources(), actual.getEdgeSources());
+        assertArrayEquals(expected.getEdgeTargets(), actual.getEdgeTargets());
+        assertArrayEquals(expected.getEdgeTimes(), actual.getEdgeTimes());
+        assertArrayEquals(expected.getInOffsets(), actual.getInOffsets());
+        assertArrayEquals(expected.getInEdges(), actual.getInEdges());
+        for (int e = 0; e < expected.getEdgeCount(); e++) {
+            assertSame(expected.getEdge(e), actual.getEdge(e));
+            assertEquals(expected.getEdgeWeights()[e],
+                    actual.getEdgeWeights()[e], 0.0);
+        }
+    }
+}
@@ -40,11 +40,24 @@ public class ConfigurationTest {
         assertEquals("foobar", config.getAdminPassword());
         assertEquals("SHA-1", config.getUserPasswordHashAlgorithm());
         assertTrue(config.databaseCachingEnabled());
+        assertFalse(config.databaseDeltaLoadingEnabled());
+        assertEquals(30, config.getDatabaseRefreshInterval());
         assertTrue(config.calculatorCachingEnabled());
+        assertEquals(10, config.getCalculatorCacheMaxEntries());
+        assertEquals(1048576, config.getCalculatorCacheMaxBytes());
+        assertEquals(20, config.getCentralityCacheMaxEntries());
+        assertEquals(2097152, config.getCentralityCacheMaxBytes());
         assertEquals(getClass().getClassLoader().getResource(
                         "edu/kit/ipd/sonar/server/testconfig1.xml"),
                     config.getHibernateConfig());
         assertTrue(config.hibernateEnabled());
+        assertEquals("select counter from sonar_version",
+                config.getChangeDetectionQuery());
+        assertEquals(500, config.getMinProbeInterval());
+        assertEquals("0.1",
+                config.getCentralityParameter("betweenness.epsilon"));
+        assertEquals("42", config.getCentralityParameter("betweenness.seed"));
+        assertNull(config.getCentralityParameter("betweenness.delta"));
 
     }
 
@@ -110,7 +123,15 @@ public class ConfigurationTest {
         assertEquals("SHA-1", config.getUserPasswordHashAlgorithm());
 
         assertFalse(config.databaseCachingEnabled());
+        assertTrue(config.databaseDeltaLoadingEnabled());
+        assertEquals(60, config.getDatabaseRefreshInterval());
+        assertNull(config.getChangeDetectionQuery());
+        assertEquals(1000, config.getMinProbeInterval());
         assertFalse(config.calculatorCachingEnabled());
+        assertEquals(64, config.getCalculatorCacheMaxEntries());
+        assertEquals(64L * 1024 * 1024, config.getCalculatorCacheMaxBytes());
+        assertEquals(256, config.getCentralityCacheMaxEntries());
+        assertEquals(64L * 1024 * 1024, config.getCentralityCacheMaxBytes());
     }
 
 }
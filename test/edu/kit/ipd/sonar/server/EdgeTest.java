@@ -171,4 +171,46 @@ public class EdgeTest {
         cr = new BetweennessCentrality();
         e.getWeightForCentrality(cr);
     }
+
+    @Test
+    public void testEquals() {
+        Node n0 = new Node(0, "Test", 0);
+        Node n1 = new Node(1, "Test", 0);
+        Node n33 = new Node(33, "Test", 0);
+
+        assertEquals(new Edge(n0, n1, 5), new Edge(n0, n1, 5));
+        assertEquals(new Edge(n0, n1, 5).hashCode(),
+                new Edge(n0, n1, 5).hashCode());
+        assertFalse(new Edge(n0, n1, 5).equals(new Edge(n1, n0, 5)));
+        assertFalse(new Edge(n0, n1, 5).equals(new Edge(n0, n1, 6)));
+
+        /* these pairs had the same hash before */
+        assertFalse(new Edge(n0, n33, 5).equals(new Edge(n1, n0, 5)));
+
+        Edge clean = new Edge(n0, n1, 5).getCleanCopy();
+        assertEquals(clean, clean);
+        assertFalse(clean.equals(new Edge(null, null, 5)));
+    }
+
+    @Test
+    public void testKeyAndAggregate() {
+        Node a = new Node(-1, "Test", 0);
+        Node b = new Node(7, "Test", 0);
+        Edge e = new Edge(a, b, 5);
+        Edge later = new Edge(a, b, 9);
+        Edge earlier = new Edge(a, b, 2);
+        e.setOriginalWeight(1.0);
+        earlier.setOriginalWeight(2.5);
+
+        assertEquals(Edge.pairKey(-1, 7), e.getKey());
+        assertFalse(e.getKey() == new Edge(b, a, 5).getKey());
+        assertEquals(1, e.getCount());
+
+        e.aggregate(later);
+        e.aggregate(earlier);
+        assertEquals(3, e.getCount());
+        assertEquals(3.5, e.getOriginalWeight(), 0.0);
+        assertEquals(2, e.getTime());
+        assertEquals(3, e.getCleanCopy().getCount());
+    }
 }
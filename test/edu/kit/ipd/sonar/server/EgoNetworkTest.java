@@ -0,0 +1,105 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the extraction of ego networks.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class EgoNetworkTest {
+    @Test
+    public void testOutgoing() {
+        Graph g = TestUtil.getGraphMock();
+        CompactGraph cg = g.getCompactGraph();
+
+        /* 2 -> 3, 2 -> 4, 3 -> 5, 4 -> 5 */
+        EgoNetwork ego = EgoNetwork.extract(cg, g.getNodeList().get(2), 1,
+                EgoNetwork.Direction.OUTGOING);
+        assertEquals(3, ego.size());
+        assertEquals(0, ego.getDistance(g.getNodeList().get(2)));
+        assertEquals(1, ego.getDistance(g.getNodeList().get(3)));
+        assertEquals(1, ego.getDistance(g.getNodeList().get(4)));
+        assertFalse(ego.contains(g.getNodeList().get(5)));
+        assertFalse(ego.contains(g.getNodeList().get(1)));
+
+        ego = EgoNetwork.extract(cg, g.getNodeList().get(2), 2,
+                EgoNetwork.Direction.OUTGOING);
+        assertEquals(4, ego.size());
+        assertEquals(2, ego.getDistance(g.getNodeList().get(5)));
+    }
+
+    @Test
+    public void testDirections() {
+        Graph g = TestUtil.getGraphMock();
+        CompactGraph cg = g.getCompactGraph();
+        Node n1 = g.getNodeList().get(1);
+        Node n2 = g.getNodeList().get(2);
+
+        /* 1 -> 2, 5 -> 2 */
+        EgoNetwork in = EgoNetwork.extract(cg, n2, 1,
+                EgoNetwork.Direction.INCOMING);
+        assertEquals(3, in.size());
+        assertEquals(1, in.getDistance(n1));
+        assertEquals(1, in.getDistance(g.getNodeList().get(5)));
+        assertFalse(in.contains(g.getNodeList().get(3)));
+
+        EgoNetwork both = EgoNetwork.extract(cg, n2, 1,
+                EgoNetwork.Direction.BOTH);
+        assertEquals(5, both.size());
+
+        EgoNetwork none = EgoNetwork.extract(cg, n1, 3,
+                EgoNetwork.Direction.INCOMING);
+        assertEquals(1, none.size());
+    }
+
+    @Test
+    public void testShortestDistance() {
+        /* a depth first search reaching 3 through 2 first would
+           stop there and miss 4 */
+        Graph g = TestUtil.getEmtpyGraph();
+        Node n1 = new Node(1, "", 0);
+        Node n2 = new Node(2, "", 0);
+        Node n3 = new Node(3, "", 0);
+        Node n4 = new Node(4, "", 0);
+        g.addEdge(new Edge(n1, n2));
+        g.addEdge(new Edge(n2, n3));
+        g.addEdge(new Edge(n1, n3));
+        g.addEdge(new Edge(n3, n4));
+
+        EgoNetwork ego = EgoNetwork.extract(g.getCompactGraph(), n1, 2,
+                EgoNetwork.Direction.OUTGOING);
+
+        assertEquals(4, ego.size());
+        assertEquals(1, ego.getDistance(n3));
+        assertEquals(2, ego.getDistance(n4));
+        assertArrayEquals(new int[] {0, 1, 1, 2}, ego.getDistances());
+    }
+
+    @Test
+    public void testMissingCenter() {
+        Graph g = TestUtil.getGraphMock();
+
+        EgoNetwork ego = EgoNetwork.extract(g.getCompactGraph(),
+                new Node(42, "", 0), 2, EgoNetwork.Direction.BOTH);
+
+        assertEquals(0, ego.size());
+        assertFalse(ego.contains(g.getNodeList().get(1)));
+    }
+}
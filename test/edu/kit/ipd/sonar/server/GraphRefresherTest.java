@@ -0,0 +1,60 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the background graph refresher.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class GraphRefresherTest {
+    @Test
+    public void testRunsRepeatedly() throws InterruptedException {
+        final CountDownLatch runs = new CountDownLatch(3);
+        GraphRefresher r = new GraphRefresher(new Runnable() {
+            public void run() {
+                runs.countDown();
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+
+        assertFalse(r.isRunning());
+        r.start();
+        assertTrue(r.isRunning());
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        r.stop();
+        assertFalse(r.isRunning());
+    }
+
+    @Test
+    public void testSurvivesFailingTask() throws InterruptedException {
+        final CountDownLatch runs = new CountDownLatch(2);
+        GraphRefresher r = new GraphRefresher(new Runnable() {
+            public void run() {
+                runs.countDown();
+                throw new RuntimeException("database down");
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+
+        r.start();
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        r.stop();
+    }
+}
@@ -218,6 +218,215 @@ public class GraphTest {
 
     @Test
     public void testGetStateHash() {
-        assertEquals(763232377, TestUtil.getGraphMock().getStateHash());
+        Graph g = TestUtil.getGraphMock();
+        assertEquals(g.getStateHash(), TestUtil.getGraphMock().getStateHash());
+        assertEquals(g.hashCode(), g.getStateHash());
+        assertEquals(0, new Graph().getStateHash());
+    }
+
+    @Test
+    public void testStateHashIndependentOfOrder() {
+        Node n1 = new Node(1, "Node 1", 1);
+        Node n2 = new Node(2, "Node 2", 2);
+        Node n3 = new Node(3, "Node 3", 3);
+
+        Graph a = new Graph();
+        a.addNode(n1);
+        a.addNode(n2);
+        a.addNode(n3);
+        a.addEdge(new Edge(n1, n2, 1));
+        a.addEdge(new Edge(n2, n3, 1));
+
+        Graph b = new Graph();
+        b.addEdge(new Edge(n2, n3, 1));
+        b.addEdge(new Edge(n1, n2, 1));
+        b.addNode(n3);
+
+        assertEquals(a.getStateHash(), b.getStateHash());
+        assertEquals(a, b);
+    }
+
+    @Test
+    public void testStateHashChanges() {
+        Graph g = TestUtil.getGraphMock();
+        int hash = g.getStateHash();
+        Node n1 = g.getNodeList().get(1);
+        Node n5 = g.getNodeList().get(5);
+
+        /* existing elements do not change the state */
+        g.addNode(new Node(1, "Node 1", 1));
+        g.addEdge(new Edge(n1, g.getNodeList().get(2), 3));
+        assertEquals(hash, g.getStateHash());
+
+        /* reversed edges are different elements */
+        g.addEdge(new Edge(n5, n1, 3));
+        assertFalse(hash == g.getStateHash());
+
+        hash = g.getStateHash();
+        g.addNode(new Node(6, "Node 6", 6));
+        assertFalse(hash == g.getStateHash());
+    }
+
+    @Test
+    public void testSetWeights() throws InvalidCentralityException {
+        Graph g = new Graph();
+        Node n1 = new Node(1, "Node 1", 1);
+        Node n2 = new Node(2, "Node 2", 1);
+        Node n3 = new Node(3, "Node 3", 1);
+        g.addNode(n1);
+        g.addNode(n2);
+        g.addNode(n3);
+        g.addEdge(new Edge(n1, n2, 1));
+
+        CentralityImpl c = new PageRankCentrality();
+        assertEquals(-1, g.getCentralityId(c));
+        assertEquals(3, g.getSlotCount(c.getType()));
+
+        double[] column = new double[g.getSlotCount(c.getType())];
+        boolean[] present = new boolean[column.length];
+        column[n1.getSlot(g)] = 4.0;
+        column[n3.getSlot(g)] = -1.0;
+        present[n1.getSlot(g)] = true;
+        present[n3.getSlot(g)] = true;
+        g.setWeights(c, column, present, 0);
+
+        assertEquals(0, g.getCentralityId(c));
+        assertTrue(g.getCentralities().contains(c));
+        assertEquals(4.0, n1.getWeightForCentrality(c), 0.01);
+        assertEquals(-1.0, n3.getWeightForCentrality(c), 0.01);
+        assertTrue(n1.getCentralities().containsKey(c));
+        assertFalse(n2.getCentralities().containsKey(c));
+        assertEquals(4.0, g.getCentralitiesMaxWeights().get(c), 0.01);
+        assertEquals(-1.0, g.getCentralitiesMinWeights().get(c), 0.01);
+
+        /* single weights go to the same column */
+        n2.addWeight(c, 7.0);
+        assertEquals(7.0, n2.getWeightForCentrality(c), 0.01);
+        assertEquals(7.0, g.getCentralitiesMaxWeights().get(c), 0.01);
+    }
+
+    @Test(expected=InvalidCentralityException.class)
+    public void testMissingColumnWeight() throws InvalidCentralityException {
+        Graph g = new Graph();
+        Node n1 = new Node(1, "Node 1", 1);
+        Node n2 = new Node(2, "Node 2", 1);
+        g.addNode(n1);
+        g.addNode(n2);
+
+        CentralityImpl c = new PageRankCentrality();
+        double[] column = new double[2];
+        boolean[] present = new boolean[2];
+        column[n1.getSlot(g)] = 1.0;
+        present[n1.getSlot(g)] = true;
+        g.setWeights(c, column, present, 0);
+
+        n2.getWeightForCentrality(c);
+    }
+
+    @Test
+    public void testNaNWeight() throws InvalidCentralityException {
+        Graph g = new Graph();
+        Node n1 = new Node(1, "Node 1", 1);
+        Node n2 = new Node(2, "Node 2", 1);
+        g.addNode(n1);
+        g.addNode(n2);
+
+        CentralityImpl c = new PageRankCentrality();
+        double[] column = new double[2];
+        column[n1.getSlot(g)] = Double.NaN;
+        column[n2.getSlot(g)] = 2.0;
+        g.setWeights(c, column);
+
+        assertTrue(Double.isNaN(n1.getWeightForCentrality(c)));
+        assertTrue(n1.getCentralities().containsKey(c));
+        assertEquals(2.0, g.getCentralitiesMinWeights().get(c), 0.0);
+        assertEquals(1, g.getStatistics(c).getCount());
+
+        /* a single NaN weight is stored without changing the bounds */
+        Node n3 = new Node(3, "Node 3", 1);
+        g.addNode(n3);
+        n3.addWeight(c, Double.NaN);
+        assertTrue(Double.isNaN(n3.getWeightForCentrality(c)));
+        assertEquals(2.0, g.getCentralitiesMaxWeights().get(c), 0.0);
+    }
+
+    @Test
+    public void testNodeIndex() throws NodeDoesNotExistException {
+        Graph g = new Graph();
+        for (int i = 0; i < 1000; i++) {
+            g.addNode(new Node(i * 65536, "Node", 1));
+        }
+
+        assertEquals(1000, g.getNodeCount());
+        assertEquals(1000, g.getNodeList().size());
+        assertEquals(65536, g.getNodeById(65536).getId());
+        assertEquals(999 * 65536, g.getNode(999 * 65536).getId());
+        assertNull(g.getNode(1));
+
+        /* the map is rebuilt after a change */
+        g.addNode(new Node(1, "Node", 1));
+        assertEquals(1001, g.getNodeList().size());
+        assertNotNull(g.getNodeList().get(1));
+    }
+
+    @Test
+    public void testDuplicateEdgeDetached() {
+        Graph g = new Graph();
+        Node n1 = new Node(1, "Node 1", 1);
+        Node n2 = new Node(2, "Node 2", 1);
+        Edge e = new Edge(n1, n2, 1);
+        g.addEdge(e);
+        g.addEdge(e);
+        g.addEdge(new Edge(n1, n2, 1));
+
+        assertEquals(1, g.getEdgeList().size());
+        assertEquals(1, n1.getOutgoingEdges().size());
+        assertSame(e, n1.getOutgoingEdges().get(0));
+        assertEquals(1, n2.getIncomingEdges().size());
+    }
+
+    @Test
+    public void testRepeatedInteractions() {
+        Graph g = new Graph(false);
+        Node n1 = new Node(1, "Node 1", 1);
+        Node n2 = new Node(2, "Node 2", 1);
+        g.addEdge(new Edge(n1, n2, 1));
+        int hash = g.getStateHash();
+        g.addEdge(new Edge(n1, n2, 2));
+
+        assertEquals(2, g.getEdgeList().size());
+        assertEquals(2, g.getInteractionCount());
+        assertEquals(2, n1.getOutgoingEdges().size());
+        assertFalse(hash == g.getStateHash());
+    }
+
+    @Test
+    public void testAggregateEdges() {
+        Graph g = new Graph();
+        Node n1 = new Node(1, "Node 1", 1);
+        Node n2 = new Node(2, "Node 2", 1);
+        Edge e = new Edge(n1, n2, 5);
+        e.setOriginalWeight(1.0);
+        g.addEdge(e);
+        int hash = g.getStateHash();
+
+        Edge repeated = new Edge(n1, n2, 3);
+        repeated.setOriginalWeight(2.0);
+        g.addEdge(repeated);
+        g.addEdge(new Edge(n2, n1, 4));
+
+        assertEquals(2, g.getEdgeList().size());
+        assertEquals(3, g.getInteractionCount());
+        assertTrue(g.getEdgeList().contains(e));
+        assertEquals(2, e.getCount());
+        assertEquals(3.0, e.getOriginalWeight(), 0.0);
+        assertEquals(3, e.getTime());
+        assertEquals(1, n1.getOutgoingEdges().size());
+        assertFalse(hash == g.getStateHash());
+
+        /* the compact graph carries the summed weights */
+        CompactGraph cg = g.getCompactGraph();
+        assertEquals(2, cg.getEdgeCount());
+        assertEquals(3.0, cg.getEdgeWeights()[0], 0.0);
     }
 }
@@ -0,0 +1,185 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for filtered graph views.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class GraphViewTest {
+    @Test
+    public void testWholeGraph() {
+        Graph g = TestUtil.getGraphMock();
+        GraphView view = GraphView.of(g);
+
+        assertFalse(view.isEmpty());
+        assertEquals(5, view.getNodeCount());
+        assertEquals(8, view.getEdgeCount());
+        assertSame(g.getCompactGraph(), view.getCompactGraph());
+    }
+
+    @Test
+    public void testBounded() {
+        Graph g = TestUtil.getGraphMock();
+        GraphView view = GraphView.of(g).bounded(new TimeBoundary(2, 4));
+
+        /* nodes 2, 3, 4 and the edges 2 -> 3, 2 -> 4 */
+        assertEquals(3, view.getNodeCount());
+        assertEquals(2, view.getEdgeCount());
+
+        CompactGraph cg = view.getCompactGraph();
+        assertEquals(3, cg.getNodeCount());
+        assertEquals(2, cg.getEdgeCount());
+        assertSame(g.getNodeList().get(2), cg.getNode(0));
+        assertEquals(2, cg.getOutDegree(cg.indexOfId(2)));
+        assertEquals(0, cg.getInDegree(cg.indexOfId(2)));
+        assertEquals(1, cg.getInDegree(cg.indexOfId(4)));
+        assertEquals(-1, cg.indexOfId(5));
+
+        assertTrue(GraphView.of(g).bounded(new TimeBoundary(6, 7)).isEmpty());
+    }
+
+    @Test
+    public void testRestrict() {
+        Graph g = TestUtil.getGraphMock();
+        GraphView bounded = GraphView.of(g).bounded(new TimeBoundary(2, 4));
+        CompactGraph cg = bounded.getCompactGraph();
+
+        GraphView view = bounded.restrict(
+                new int[] {cg.indexOfId(2), cg.indexOfId(4)});
+        assertEquals(2, view.getNodeCount());
+        assertEquals(1, view.getEdgeCount());
+        assertEquals(0, view.getCompactGraph().indexOfEdge(
+                    view.getCompactGraph().indexOfId(2),
+                    view.getCompactGraph().indexOfId(4)));
+    }
+
+    @Test
+    public void testMaterialize() {
+        Graph g = TestUtil.getGraphMock();
+        GraphView view = GraphView.of(g).bounded(new TimeBoundary(2, 4));
+        Graph copy = view.materialize();
+
+        assertEquals(3, copy.getNodeList().size());
+        assertEquals(2, copy.getEdgeList().size());
+        assertNotSame(g.getNodeList().get(2), copy.getNodeList().get(2));
+        assertNull(copy.getCentralNode());
+        assertEquals(new TimeBoundary(2, 4), copy.getMaxTimeBoundary());
+
+        /* the original graph is untouched */
+        assertEquals(5, g.getNodeList().size());
+        assertEquals(8, g.getEdgeList().size());
+    }
+
+    @Test
+    public void testMaterializeAggregated() {
+        Graph g = TestUtil.getGraphMock();
+        Edge repeated = new Edge(g.getNode(2), g.getNode(3), 4);
+        repeated.setOriginalWeight(2.0);
+        g.addEdge(repeated);
+        GraphView view = GraphView.of(g).bounded(new TimeBoundary(2, 4));
+        Graph copy = view.materialize();
+
+        assertTrue(copy.isAggregatingEdges());
+        assertEquals(3, copy.getInteractionCount());
+        Edge e23 = copy.getNode(2).getOutgoingEdges().get(0);
+        if (e23.getDestinationNode().getId() != 3) {
+            e23 = copy.getNode(2).getOutgoingEdges().get(1);
+        }
+        assertEquals(2, e23.getCount());
+        assertEquals(2.0, e23.getOriginalWeight(), 0.0);
+        assertEquals(copy.getFullStateHash(),
+                view.getCompactGraph().getStateHash());
+
+        Graph multi = GraphView.of(TestUtil.getMultiEdgeGraph())
+            .restrict(new int[] {0, 1}).materialize();
+        assertFalse(multi.isAggregatingEdges());
+        assertEquals(3, multi.getEdgeList().size());
+    }
+
+    @Test
+    public void testStateHash() {
+        Graph g = TestUtil.getGraphMock();
+        GraphView view = GraphView.of(g).bounded(new TimeBoundary(2, 4));
+
+        Graph copy = view.materialize();
+        assertEquals(copy.getFullStateHash(),
+                view.getCompactGraph().getStateHash());
+        assertEquals(g.getFullStateHash(),
+                GraphView.of(g).getCompactGraph().getStateHash());
+    }
+
+    @Test
+    public void testAggregatePerWindow() {
+        Graph g = TestUtil.getMultiEdgeGraph();
+        GraphView all = GraphView.of(g, true);
+        Node n1 = g.getNode(1);
+
+        /* only the interaction at 10 of the pair 1 -> 2 is in the window */
+        CompactGraph early = all.bounded(new TimeBoundary(0, 15))
+            .getCompactGraph();
+        assertEquals(2, early.getEdgeCount());
+        Edge e12 = early.getEdge(early.indexOfEdge(0, 1));
+        assertEquals(1, e12.getCount());
+        assertEquals(10, e12.getTime());
+        assertEquals(1.0, early.getEdgeWeights()[early.indexOfEdge(0, 1)],
+                0.0);
+
+        /* all three interactions at 10, 20 and 30 */
+        CompactGraph late = all.bounded(new TimeBoundary(0, 35))
+            .getCompactGraph();
+        assertEquals(2, late.getEdgeCount());
+        e12 = late.getEdge(late.indexOfEdge(0, 1));
+        assertEquals(3, e12.getCount());
+        assertEquals(10, e12.getTime());
+        assertEquals(6.0, e12.getOriginalWeight(), 0.0);
+        assertEquals(6.0, late.getEdgeWeights()[late.indexOfEdge(0, 1)],
+                0.0);
+
+        /* single interactions are shared, merged edges are not attached */
+        Edge e23 = late.getEdge(late.indexOfEdge(1, 2));
+        assertSame(g.getNode(2).getOutgoingEdges().get(0), e23);
+        assertEquals(3, n1.getOutgoingEdges().size());
+
+        /* the graph itself keeps every interaction */
+        assertEquals(4, GraphView.of(g).bounded(new TimeBoundary(0, 35))
+                .getCompactGraph().getEdgeCount());
+        assertFalse(late.getStateHash() == GraphView.of(g)
+                .bounded(new TimeBoundary(0, 35)).getCompactGraph()
+                .getStateHash());
+    }
+
+    @Test
+    public void testAggregatedEdgesNotIn() {
+        Graph g = TestUtil.getMultiEdgeGraph();
+        GraphView all = GraphView.of(g, true);
+        GraphView early = all.bounded(new TimeBoundary(0, 15));
+        GraphView late = all.bounded(new TimeBoundary(0, 35));
+
+        /* the pair 1 -> 2 changed, the pair 2 -> 3 did not */
+        int[] added = late.edgesNotIn(early);
+        assertEquals(1, added.length);
+        assertEquals(late.getCompactGraph().indexOfEdge(0, 1), added[0]);
+        int[] removed = early.edgesNotIn(late);
+        assertEquals(1, removed.length);
+        assertEquals(early.getCompactGraph().indexOfEdge(0, 1), removed[0]);
+        assertEquals(0, late.edgesNotIn(late).length);
+    }
+}
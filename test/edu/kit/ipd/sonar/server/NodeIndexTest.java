@@ -0,0 +1,64 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.HashMap;
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the int keyed node index.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class NodeIndexTest {
+    @Test
+    public void testPutAndGet() {
+        NodeIndex index = new NodeIndex();
+        HashMap<Integer, Node> expected = new HashMap<Integer, Node>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            Node n = new Node(random.nextInt(), "Node", 0);
+            Node old = expected.put(n.getId(), n);
+            assertSame(old, index.put(n));
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (Node n : expected.values()) {
+            assertSame(n, index.get(n.getId()));
+        }
+        for (int i = 0; i < index.size(); i++) {
+            assertSame(expected.get(index.getAt(i).getId()), index.getAt(i));
+        }
+        assertEquals(index.size(), index.toArray().length);
+    }
+
+    @Test
+    public void testReplace() {
+        NodeIndex index = new NodeIndex();
+        Node a = new Node(-3, "A", 0);
+        Node b = new Node(-3, "B", 0);
+
+        assertNull(index.put(a));
+        assertFalse(index.containsKey(3));
+        assertTrue(index.containsKey(-3));
+        assertSame(a, index.put(b));
+        assertSame(b, index.get(-3));
+        assertEquals(1, index.size());
+        assertNull(index.get(0));
+    }
+}
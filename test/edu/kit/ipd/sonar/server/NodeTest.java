@@ -113,6 +113,27 @@ public class NodeTest {
         assertSame(0, n4.getEdges().size());
     }
 
+    @Test
+    public void testOutgoingIncomingEdges() throws NodeDoesNotExistException {
+        Node n1 = new Node(1, "Test", 0);
+        Node n2 = new Node(2, "Test", 0);
+
+        Edge e1 = new Edge(n1, n2);
+        Edge e2 = new Edge(n2, n1);
+        Edge loop = new Edge(n1, n1);
+        n1.addEdge(e1);
+
+        assertEquals(2, n1.getOutgoingEdges().size());
+        assertSame(e1, n1.getOutgoingEdges().get(0));
+        assertSame(loop, n1.getOutgoingEdges().get(1));
+        assertEquals(2, n1.getIncomingEdges().size());
+        assertSame(e2, n1.getIncomingEdges().get(0));
+        assertEquals(3, n1.getEdges().size());
+
+        assertEquals(1, n2.getOutgoingEdges().size());
+        assertEquals(1, n2.getIncomingEdges().size());
+    }
+
     @Test
     public void testGetCleanCopy() throws NodeDoesNotExistException {
         Edge e1, e2;
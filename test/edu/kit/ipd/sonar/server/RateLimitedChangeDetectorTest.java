@@ -0,0 +1,70 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the rate limited change detector.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class RateLimitedChangeDetectorTest {
+    /**
+     * Returns the number of the probe as token.
+     */
+    private static class CountingDetector implements ChangeDetector {
+        int probes = 0;
+
+        public Object probe() {
+            probes++;
+            return Integer.valueOf(probes);
+        }
+    }
+
+    @Test
+    public void testProbesOncePerInterval() {
+        CountingDetector counter = new CountingDetector();
+        ChangeDetector d = new RateLimitedChangeDetector(counter, 60000);
+
+        assertEquals(Integer.valueOf(1), d.probe());
+        assertEquals(Integer.valueOf(1), d.probe());
+        assertEquals(Integer.valueOf(1), d.probe());
+        assertEquals(1, counter.probes);
+    }
+
+    @Test
+    public void testProbesAgainAfterInterval() throws InterruptedException {
+        CountingDetector counter = new CountingDetector();
+        ChangeDetector d = new RateLimitedChangeDetector(counter, 1);
+
+        assertEquals(Integer.valueOf(1), d.probe());
+        Thread.sleep(5);
+        assertEquals(Integer.valueOf(2), d.probe());
+        assertEquals(2, counter.probes);
+    }
+
+    @Test
+    public void testZeroIntervalAlwaysProbes() {
+        CountingDetector counter = new CountingDetector();
+        ChangeDetector d = new RateLimitedChangeDetector(counter, 0);
+
+        d.probe();
+        d.probe();
+        assertEquals(2, counter.probes);
+    }
+}
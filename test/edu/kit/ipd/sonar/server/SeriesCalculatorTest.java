@@ -0,0 +1,178 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import edu.kit.ipd.sonar.server.centralities.CentralityImpl;
+import edu.kit.ipd.sonar.server.centralities.OutdegreeCentrality;
+import edu.kit.ipd.sonar.server.centralities.PageRankCentrality;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the calculation of centrality series.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class SeriesCalculatorTest {
+    /**
+     * Returns a graph whose nodes and edges are created over time.
+     *
+     * @return The graph
+     */
+    private static Graph getGrowingGraph() {
+        Graph g = new Graph();
+        Node[] nodes = new Node[10];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(i, "Node " + i, i);
+            g.addNode(nodes[i]);
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if ((i * j) % 3 != 1) {
+                    g.addEdge(new Edge(nodes[i], nodes[j], i + j % 2));
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Checks a series against the values calculated on every window alone.
+     *
+     * @param c The centrality
+     * @param delta The tolerance
+     * @throws Exception if the calculation fails
+     */
+    private static void assertWindows(final CentralityImpl c,
+            final double delta) throws Exception {
+        Graph g = getGrowingGraph();
+        List<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(c);
+        CentralitySeries series = SeriesCalculator.calc(g, list,
+                new TimeBoundary(0, 10), 1, 4);
+        assertEquals(8, series.getWindowCount());
+
+        for (int w = 0; w < series.getWindowCount(); w++) {
+            CompactGraph cg = GraphView.of(g)
+                .bounded(series.getWindow(w)).getCompactGraph();
+            double[] expected = new OutdegreeCentrality().getWeights(cg);
+            if (c instanceof PageRankCentrality) {
+                expected = new PageRankCentrality().getWeights(cg);
+            }
+
+            double[] values = series.getValues(c.getCentrality(), w);
+            int[] ids = series.getNodeIds();
+            for (int i = 0; i < ids.length; i++) {
+                int v = cg.indexOfId(ids[i]);
+                if (v < 0) {
+                    assertTrue(Double.isNaN(values[i]));
+                } else {
+                    assertEquals(expected[v], values[i], delta);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWindowedDegree() throws Exception {
+        assertWindows(new OutdegreeCentrality(), 0);
+    }
+
+    @Test
+    public void testWarmStartedPageRank() throws Exception {
+        assertWindows(new PageRankCentrality(), 1e-3);
+    }
+
+    @Test
+    public void testSeriesOfNode() throws Exception {
+        Graph g = TestUtil.getGraphMock();
+        List<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(new OutdegreeCentrality());
+        CentralitySeries series = SeriesCalculator.calc(g, list,
+                new TimeBoundary(1, 5), 2, 3);
+
+        /* windows 1 - 3 and 3 - 5 */
+        assertEquals(2, series.getWindowCount());
+        assertEquals(new TimeBoundary(3, 5), series.getWindow(1));
+        double[] s = series.getSeries(list.get(0).getCentrality(), 1);
+        /* node 1 also interacts with node 4, created outside of 1 - 3 */
+        assertEquals(3.0, s[0], 0);
+        assertTrue(Double.isNaN(s[1]));
+    }
+
+    @Test
+    public void testPeerSeries() throws Exception {
+        Graph g = TestUtil.getGraphMock();
+        List<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(new OutdegreeCentrality());
+        TimeBoundary bound = new TimeBoundary(1, 5);
+        CentralitySeries all = SeriesCalculator.calc(g, list, bound, 2, 3);
+        CentralitySeries peer = SeriesCalculator.calc(g, list, bound, 2, 3,
+                g.getNodeById(2), 1);
+
+        /* node 2 reaches 3 and 4 */
+        assertArrayEquals(new int[] {2, 3, 4}, peer.getNodeIds());
+        assertEquals(all.getWindowCount(), peer.getWindowCount());
+        for (int w = 0; w < peer.getWindowCount(); w++) {
+            double[] expected = all.getValues(
+                    list.get(0).getCentrality(), w);
+            double[] values = peer.getValues(list.get(0).getCentrality(), w);
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(expected[peer.getNodeIds()[i] - 1], values[i],
+                        0);
+            }
+        }
+
+        peer = SeriesCalculator.calc(g, list, bound, 2, 3,
+                g.getNodeById(2), 0);
+        assertArrayEquals(all.getNodeIds(), peer.getNodeIds());
+    }
+
+    @Test(expected = CalculationFailedException.class)
+    public void testPeerSeriesOutsideBoundary() throws Exception {
+        Graph g = TestUtil.getGraphMock();
+        List<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(new OutdegreeCentrality());
+        SeriesCalculator.calc(g, list, new TimeBoundary(4, 5), 1, 1,
+                g.getNodeById(2), 1);
+    }
+
+    @Test
+    public void testWindowStarts() throws Exception {
+        assertEquals(1, SeriesCalculator.windowStarts(
+                    new TimeBoundary(0, 5), 1, 10).length);
+        int[] starts = SeriesCalculator.windowStarts(
+                new TimeBoundary(0, 9), 3, 4);
+        assertEquals(3, starts.length);
+        assertEquals(6, starts[2]);
+    }
+
+    @Test(expected = CalculationFailedException.class)
+    public void testTooManyWindows() throws Exception {
+        SeriesCalculator.windowStarts(new TimeBoundary(0, 100000), 1, 1);
+    }
+
+    @Test(expected = CalculationFailedException.class)
+    public void testEdgeCentrality() throws Exception {
+        List<CentralityImpl> list = new ArrayList<CentralityImpl>();
+        list.add(new edu.kit.ipd.sonar.server.centralities
+                .EdgeWeightCentrality());
+        SeriesCalculator.calc(TestUtil.getGraphMock(), list,
+                new TimeBoundary(1, 5), 1, 2);
+    }
+}
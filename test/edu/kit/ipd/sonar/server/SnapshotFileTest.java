@@ -0,0 +1,123 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the binary snapshot file.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class SnapshotFileTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("sonar", ".snapshot");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Graph g = TestUtil.getGraphMock();
+        Node anonymous = new Node(9, null, 7);
+        anonymous.setOriginalWeight(2.5);
+        g.addNode(anonymous);
+        Edge e = new Edge(anonymous, g.getNode(1), 8);
+        e.setOriginalWeight(1.5);
+        e.setCount(3);
+        g.addEdge(e);
+        GraphWatermark mark = new GraphWatermark(6, 12, 9, 8);
+
+        Object token = new Object();
+        SnapshotFile sf = new SnapshotFile(file);
+        sf.write(new GraphSnapshot(g, mark, "db"));
+        GraphSnapshot read = sf.read(token);
+        Graph h = read.getGraph();
+
+        assertSame(token, read.getChangeToken());
+        assertEquals(g.getFullStateHash(), h.getFullStateHash());
+        assertEquals(g.getNodeCount(), h.getNodeCount());
+        assertEquals(g.getEdgeList().size(), h.getEdgeList().size());
+        assertEquals("Node 3", h.getNode(3).getName());
+        assertNull(h.getNode(9).getName());
+        assertEquals(7, h.getNode(9).getTime());
+        assertEquals(2.5, h.getNode(9).getOriginalWeight(), 0);
+        assertNull(h.getNode(1).getOriginalWeight());
+        assertTrue(h.isAggregatingEdges());
+
+        Edge copy = h.getNode(9).getOutgoingEdges().get(0);
+        assertEquals(e, copy);
+        assertEquals(3, copy.getCount());
+        assertEquals(1.5, copy.getOriginalWeight(), 0);
+        assertEquals(h.getNode(1), copy.getDestinationNode());
+
+        assertEquals(6, read.getWatermark().getNodeCount());
+        assertEquals(12, read.getWatermark().getEdgeCount());
+        assertEquals(9, read.getWatermark().getMaxNodeId());
+        assertEquals(8, read.getWatermark().getMaxEdgeTime());
+    }
+
+    @Test
+    public void testMultiEdges() throws IOException {
+        Graph g = TestUtil.getMultiEdgeGraph();
+
+        SnapshotFile sf = new SnapshotFile(file);
+        sf.write(new GraphSnapshot(g,
+                    new GraphWatermark(3, 4, 3, 30), "db"));
+        Graph h = sf.read("file").getGraph();
+
+        assertFalse(h.isAggregatingEdges());
+        assertEquals(4, h.getInteractionCount());
+        assertEquals(g.getFullStateHash(), h.getFullStateHash());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherVersion() throws IOException {
+        Graph g = TestUtil.getGraphMock();
+        SnapshotFile sf = new SnapshotFile(file);
+        sf.write(new GraphSnapshot(g,
+                    new GraphWatermark(5, 8, 5, 3), "db"));
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(4);
+        raf.writeInt(SnapshotFile.VERSION + 1);
+        raf.close();
+        sf.read("file");
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        Graph g = TestUtil.getGraphMock();
+        SnapshotFile sf = new SnapshotFile(file);
+        sf.write(new GraphSnapshot(g,
+                    new GraphWatermark(5, 8, 5, 3), "db"));
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 10);
+        raf.close();
+        sf.read("file");
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the temporal degree index.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class TemporalDegreeIndexTest {
+    /**
+     * Checks the degrees of a time window against the interactions of the
+     * whole graph.
+     *
+     * @param g The whole graph
+     * @param bound The time window
+     */
+    private static void assertDegrees(final Graph g,
+            final TimeBoundary bound) {
+        CompactGraph all = g.getCompactGraph();
+        CompactGraph cg = GraphView.of(g).bounded(bound).getCompactGraph();
+        TemporalDegreeIndex index = TemporalDegreeIndex.ofWindow(cg);
+        if (null == index) {
+            /* the graph itself or a window without nodes */
+            assertTrue(all == cg || 0 == cg.getNodeCount());
+            return;
+        }
+
+        int n = cg.getNodeCount();
+        double[] in = new double[n];
+        double[] out = new double[n];
+        double[] win = new double[n];
+        double[] wout = new double[n];
+        index.getDegrees(cg, in, out, win, wout);
+
+        for (int v = 0; v < n; v++) {
+            int id = cg.getNodeIds()[v];
+            double cin = 0, cout = 0, sin = 0, sout = 0;
+            for (int e = 0; e < all.getEdgeCount(); e++) {
+                int t = all.getEdgeTimes()[e];
+                if (t < bound.getStart() || t > bound.getEnd()) {
+                    continue;
+                }
+                double w = all.getEdgeWeights()[e];
+                if (all.getNodeIds()[all.getEdgeSources()[e]] == id) {
+                    cout++;
+                    sout += w;
+                }
+                if (all.getNodeIds()[all.getEdgeTargets()[e]] == id) {
+                    cin++;
+                    sin += w;
+                }
+            }
+            assertEquals(cin, in[v], 0);
+            assertEquals(cout, out[v], 0);
+            assertEquals(sin, win[v], 1e-9);
+            assertEquals(sout, wout[v], 1e-9);
+        }
+    }
+
+    @Test
+    public void testWindowDegrees() {
+        Graph g = TestUtil.getGraphMock();
+        assertDegrees(g, new TimeBoundary(1, 3));
+        assertDegrees(g, new TimeBoundary(3, 5));
+        assertDegrees(g, new TimeBoundary(4, 5));
+
+        /* node 1 also interacts with node 4, created after the window */
+        CompactGraph cg = GraphView.of(g).bounded(new TimeBoundary(1, 3))
+            .getCompactGraph();
+        double[] d = new double[cg.getNodeCount()];
+        double[] x = new double[cg.getNodeCount()];
+        TemporalDegreeIndex.ofWindow(cg).getDegrees(cg, x, d, x, x);
+        assertEquals(3.0, d[cg.indexOfId(1)], 0);
+        assertEquals(2, cg.getOutDegree(cg.indexOfId(1)));
+    }
+
+    @Test
+    public void testAggregatedWindow() {
+        Graph g = TestUtil.getMultiEdgeGraph();
+        assertDegrees(g, new TimeBoundary(0, 25));
+
+        CompactGraph cg = GraphView.of(g, true)
+            .bounded(new TimeBoundary(0, 25)).getCompactGraph();
+        double[] in = new double[cg.getNodeCount()];
+        double[] out = new double[cg.getNodeCount()];
+        double[] win = new double[cg.getNodeCount()];
+        double[] wout = new double[cg.getNodeCount()];
+        TemporalDegreeIndex.ofWindow(cg).getDegrees(cg, in, out, win, wout);
+        assertEquals(2.0, out[cg.indexOfId(1)], 0);
+        assertEquals(3.0, wout[cg.indexOfId(1)], 1e-9);
+    }
+
+    @Test
+    public void testNoWindow() {
+        Graph g = TestUtil.getGraphMock();
+        assertNull(TemporalDegreeIndex.ofWindow(g.getCompactGraph()));
+        assertNull(TemporalDegreeIndex.ofWindow(
+                    GraphView.of(g).getCompactGraph()));
+
+        /* a window of a part of the graph is not answered by the index */
+        CompactGraph cg = GraphView.of(g).bounded(new TimeBoundary(1, 3))
+            .bounded(new TimeBoundary(1, 2)).getCompactGraph();
+        assertNull(TemporalDegreeIndex.ofWindow(cg));
+    }
+
+    @Test
+    public void testExtend() {
+        Graph base = TestUtil.getMultiEdgeGraph();
+        TemporalDegreeIndex.of(base.getCompactGraph());
+
+        Graph g = new Graph(base);
+        Node n4 = new Node(4, "Node 4", 40);
+        g.addNode(n4);
+        Edge e12 = new Edge(g.getNode(1), g.getNode(2), 40);
+        e12.setOriginalWeight(5.0);
+        g.addEdge(e12);
+        g.addEdge(new Edge(n4, g.getNode(1), 40));
+        g.addEdge(new Edge(g.getNode(3), g.getNode(2), 35));
+
+        assertDegrees(g, new TimeBoundary(0, 39));
+        assertDegrees(g, new TimeBoundary(0, 35));
+        assertDegrees(g, new TimeBoundary(5, 40));
+        assertDegrees(base, new TimeBoundary(0, 25));
+    }
+}
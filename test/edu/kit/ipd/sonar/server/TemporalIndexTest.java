@@ -0,0 +1,87 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the time index of compact graphs.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class TemporalIndexTest {
+    /**
+     * Returns a graph with a chain of edges created at different times.
+     *
+     * @return 1 -> 2 at 10, 1 -> 3 at 30, 2 -> 3 at 20, 3 -> 1 at 40
+     */
+    private static Graph getTimedGraph() {
+        Graph g = new Graph();
+        Node n1 = new Node(1, "1", 5);
+        Node n2 = new Node(2, "2", 15);
+        Node n3 = new Node(3, "3", 25);
+        g.addNode(n3);
+        g.addNode(n1);
+        g.addNode(n2);
+        g.addEdge(new Edge(n1, n3, 30));
+        g.addEdge(new Edge(n3, n1, 40));
+        g.addEdge(new Edge(n1, n2, 10));
+        g.addEdge(new Edge(n2, n3, 20));
+        return g;
+    }
+
+    @Test
+    public void testWindows() {
+        CompactGraph cg = getTimedGraph().getCompactGraph();
+        TemporalIndex index = new TemporalIndex(cg);
+
+        TimeBoundary b = new TimeBoundary(10, 30);
+        assertEquals(2, index.endNode(b) - index.firstNode(b));
+        assertEquals(2, cg.getNodeIds()
+                [index.getNodesByTime()[index.firstNode(b)]]);
+        assertEquals(3, index.endEdge(b) - index.firstEdge(b));
+
+        int[] byTime = index.getEdgesByTime();
+        int last = 0;
+        for (int i = 0; i < byTime.length; i++) {
+            assertTrue(cg.getEdgeTimes()[byTime[i]] >= last);
+            last = cg.getEdgeTimes()[byTime[i]];
+        }
+
+        b = new TimeBoundary(50, 60);
+        assertEquals(index.firstEdge(b), index.endEdge(b));
+        b = new TimeBoundary(30, 10);
+        assertEquals(index.firstNode(b), index.endNode(b));
+    }
+
+    @Test
+    public void testEstimates() {
+        Graph g = TestUtil.getGraphMock();
+        TemporalIndex index = TemporalIndex.of(g.getCompactGraph());
+        assertSame(index, TemporalIndex.of(g.getCompactGraph()));
+
+        TimeBoundary all = g.getMaxTimeBoundary();
+        assertEquals(5, index.estimateNodes(all));
+        assertEquals(8, index.estimateEdges(all));
+
+        TimeBoundary b = new TimeBoundary(2, 4);
+        assertTrue(index.estimateNodes(b)
+                >= index.endNode(b) - index.firstNode(b));
+        assertEquals(0, index.estimateNodes(new TimeBoundary(6, 9)));
+        assertEquals(0, index.estimateEdges(new TimeBoundary(-5, 0)));
+    }
+}
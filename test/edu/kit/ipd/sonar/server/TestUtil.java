@@ -148,6 +148,67 @@ final public class TestUtil {
             }
         };
     }
+    public static CentralityImpl getNaNCentrality() {
+        return new CentralityImpl() {
+
+            public Type getType() {
+                return Type.NodeCentrality;
+            }
+            public int getRequiredAPIVersion() {
+                return 0;
+            }
+
+            public int getVersion() {
+                return 1;
+            }
+
+            public String getName() {
+                return "NaN";
+            }
+            public HashMap<Node, Double> getWeight(Graph g) {
+                HashMap<Node, Double> map = new HashMap<Node, Double>();
+                Collection<Node> nl = g.getNodeList().values();
+                for(Node n : nl) {
+                    if (n.getId() == 1) {
+                        map.put(n, Double.NaN);
+                    } else {
+                        map.put(n, 1.0);
+                    }
+                }
+                return map;
+            }
+        };
+    }
+    public static CentralityImpl getPartialCentrality() {
+        return new CentralityImpl() {
+
+            public Type getType() {
+                return Type.NodeCentrality;
+            }
+            public int getRequiredAPIVersion() {
+                return 0;
+            }
+
+            public int getVersion() {
+                return 1;
+            }
+
+            public String getName() {
+                return "Partial";
+            }
+            public HashMap<Node, Double> getWeight(Graph g) {
+                HashMap<Node, Double> map = new HashMap<Node, Double>();
+                Collection<Node> nl = g.getNodeList().values();
+                for(Node n : nl) {
+                    if (n.getId() != 1) {
+                        map.put(n, 1.0);
+                    }
+                }
+                return map;
+            }
+        };
+    }
+
     /**
      * Creates a graph needed for testing.
      *
@@ -207,6 +268,35 @@ final public class TestUtil {
         return new Graph();
     }
 
+    /**
+     * Returns a graph that keeps repeated interactions as separate edges.
+     * Node 1 interacted with node 2 at the times 30, 10 and 20, added in
+     * this order, with the weights 3.0, 1.0 and 2.0.
+     *
+     * @return the graph
+     */
+    public static Graph getMultiEdgeGraph() {
+        Graph g = new Graph(false);
+        Node n1 = new Node(1, "Node 1", 0);
+        Node n2 = new Node(2, "Node 2", 0);
+        Node n3 = new Node(3, "Node 3", 0);
+        g.addNode(n1);
+        g.addNode(n2);
+        g.addNode(n3);
+
+        int[] times = {30, 10, 20};
+        for (int i = 0; i < times.length; i++) {
+            Edge e = new Edge(n1, n2, times[i]);
+            e.setOriginalWeight(times[i] / 10.0);
+            g.addEdge(e);
+        }
+        Edge e23 = new Edge(n2, n3, 5);
+        e23.setOriginalWeight(4.0);
+        g.addEdge(e23);
+
+        return g;
+    }
+
     /**
      * Returns a Simple Graph, with Nodes and Edges having
      * their original weights set.
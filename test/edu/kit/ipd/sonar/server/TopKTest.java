@@ -0,0 +1,82 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the top k selection.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class TopKTest {
+    @Test
+    public void testSelect() {
+        double[] values = {3.0, 1.0, 4.0, 1.5, 5.0, 9.0, 2.0, 6.0};
+
+        int[] top = TopK.select(values, 3);
+
+        assertArrayEquals(new int[] {5, 7, 4}, top);
+    }
+
+    @Test
+    public void testLimitLargerThanValues() {
+        double[] values = {1.0, 3.0, 2.0};
+
+        assertArrayEquals(new int[] {1, 2, 0}, TopK.select(values, 10));
+        assertEquals(0, TopK.select(values, 0).length);
+        assertEquals(0, TopK.select(new double[0], 5).length);
+    }
+
+    @Test
+    public void testTiesAndNaN() {
+        double[] values = {2.0, Double.NaN, 2.0, 1.0, 2.0};
+
+        assertArrayEquals(new int[] {0, 2}, TopK.select(values, 2));
+        assertArrayEquals(new int[] {0, 2, 4, 3},
+                TopK.select(values, 5));
+    }
+
+    @Test
+    public void testMatchesSort() {
+        Random r = new Random(42);
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            /* few distinct values to get many ties */
+            values[i] = r.nextInt(50);
+        }
+
+        Integer[] order = new Integer[values.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        final double[] v = values;
+        Arrays.sort(order, new java.util.Comparator<Integer>() {
+            public int compare(final Integer a, final Integer b) {
+                return Double.compare(v[b], v[a]);
+            }
+        });
+
+        int[] top = TopK.select(values, 100);
+        assertEquals(100, top.length);
+        for (int i = 0; i < top.length; i++) {
+            assertEquals(order[i].intValue(), top[i]);
+        }
+    }
+}
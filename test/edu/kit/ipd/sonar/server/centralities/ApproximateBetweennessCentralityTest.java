@@ -0,0 +1,121 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import edu.kit.ipd.sonar.server.Edge;
+import edu.kit.ipd.sonar.server.Graph;
+import edu.kit.ipd.sonar.server.Node;
+import edu.kit.ipd.sonar.server.TestUtil;
+
+/**
+ * Tests the approximate Betweenness Centrality.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class ApproximateBetweennessCentralityTest {
+
+    private static final double DOUBLE_DELTA = 0.001;
+
+    private Graph getCycle(final Node[] nodes) {
+        Graph graph = TestUtil.getEmtpyGraph();
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(i, "", 0);
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            graph.addEdge(new Edge(nodes[i], nodes[(i + 1) % nodes.length]));
+        }
+        return graph;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullArgument() {
+        new ApproximateBetweennessCentrality().getWeight(null);
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        ApproximateBetweennessCentrality bc
+            = new ApproximateBetweennessCentrality();
+        assertTrue(bc.getWeight(TestUtil.getEmtpyGraph()).isEmpty());
+    }
+
+    /**
+     * Small graphs need more pivots than nodes, so the result is exact.
+     */
+    @Test
+    public void testSmallGraphIsExact() {
+        Graph graph = TestUtil.getGraphMock();
+
+        HashMap<Node, Double> exact
+            = new BetweennessCentrality().getWeight(graph);
+        HashMap<Node, Double> approx
+            = new ApproximateBetweennessCentrality().getWeight(graph);
+
+        assertEquals(exact.size(), approx.size());
+        for (Node n : exact.keySet()) {
+            assertEquals(exact.get(n), approx.get(n), DOUBLE_DELTA);
+        }
+    }
+
+    @Test
+    public void testSampledCycle() {
+        final int n = 500;
+        final double epsilon = 0.2;
+        Node[] nodes = new Node[n];
+        Graph graph = getCycle(nodes);
+
+        assertTrue(Brandes.sampleSize(n, n, epsilon, 0.1) < n);
+
+        HashMap<Node, Double> first
+            = new ApproximateBetweennessCentrality(epsilon, 0.1, 1)
+                .getWeight(graph);
+        HashMap<Node, Double> second
+            = new ApproximateBetweennessCentrality(epsilon, 0.1, 1)
+                .getWeight(graph);
+
+        double exact = (n - 1) * (n - 2) / 2.0;
+        for (Node node : nodes) {
+            assertEquals(exact, first.get(node), epsilon * n * n);
+            assertEquals(first.get(node), second.get(node), 0.0);
+        }
+    }
+
+    @Test
+    public void testSampleSize() {
+        assertEquals(0, Brandes.sampleSize(0, 0, 0.05, 0.1));
+        assertEquals(10, Brandes.sampleSize(10, 10, 0.05, 0.1));
+        int k = Brandes.sampleSize(100000, 100000, 0.05, 0.1);
+        assertTrue(k > 1000 && k < 10000);
+        assertTrue(Brandes.sampleSize(100000, 100000, 0.1, 0.1) < k);
+    }
+
+    @Test
+    public void testPivotsAreDistinct() {
+        int[] pivots = Brandes.samplePivots(100, 50, 7);
+        boolean[] seen = new boolean[100];
+        for (int p : pivots) {
+            assertFalse(seen[p]);
+            seen[p] = true;
+        }
+        assertEquals(50, pivots.length);
+    }
+}
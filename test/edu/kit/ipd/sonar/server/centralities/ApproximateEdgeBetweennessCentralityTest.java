@@ -0,0 +1,85 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import edu.kit.ipd.sonar.server.Edge;
+import edu.kit.ipd.sonar.server.Graph;
+import edu.kit.ipd.sonar.server.Node;
+import edu.kit.ipd.sonar.server.TestUtil;
+
+/**
+ * Tests the approximate Edge Betweenness Centrality.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class ApproximateEdgeBetweennessCentralityTest {
+
+    private static final double DOUBLE_DELTA = 0.001;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullArgument() {
+        new ApproximateEdgeBetweennessCentrality().getWeight(null);
+    }
+
+    /**
+     * Small graphs need more pivots than nodes, so the result is exact.
+     */
+    @Test
+    public void testSmallGraphIsExact() {
+        Graph graph = TestUtil.getGraphMock();
+
+        HashMap<Edge, Double> exact
+            = new EdgeBetweennessCentrality().getWeight(graph);
+        HashMap<Edge, Double> approx
+            = new ApproximateEdgeBetweennessCentrality().getWeight(graph);
+
+        assertEquals(exact.size(), approx.size());
+        for (Edge e : exact.keySet()) {
+            assertEquals(exact.get(e), approx.get(e), DOUBLE_DELTA);
+        }
+    }
+
+    @Test
+    public void testSampledCycle() {
+        final int n = 500;
+        final double epsilon = 0.2;
+        Graph graph = TestUtil.getEmtpyGraph();
+        Node[] nodes = new Node[n];
+        Edge[] edges = new Edge[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = new Node(i, "", 0);
+        }
+        for (int i = 0; i < n; i++) {
+            edges[i] = new Edge(nodes[i], nodes[(i + 1) % n]);
+            graph.addEdge(edges[i]);
+        }
+
+        HashMap<Edge, Double> result
+            = new ApproximateEdgeBetweennessCentrality(epsilon, 0.1, 1)
+                .getWeight(graph);
+
+        double exact = n * (n - 1) / 2.0;
+        for (Edge e : edges) {
+            assertEquals(exact, result.get(e), epsilon * n * n);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import edu.kit.ipd.sonar.server.Annotable;
+import edu.kit.ipd.sonar.server.CompactGraph;
+import edu.kit.ipd.sonar.server.Graph;
+import edu.kit.ipd.sonar.server.Node;
+import edu.kit.ipd.sonar.server.TestUtil;
+
+/**
+ * Tests the ArrayCentralityImpl - class and the adapter for older plugins.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class ArrayCentralityImplTest {
+
+    /**
+     * Tests that array based centralities are not wrapped.
+     */
+    @Test
+    public void testAdaptArrayCentrality() {
+        ArrayCentralityImpl c = new OutdegreeCentrality();
+
+        assertSame(c, ArrayCentralityImpl.adapt(c));
+    }
+
+    /**
+     * Tests that a map based centrality is wrapped and keeps its identity.
+     */
+    @Test
+    public void testAdaptLegacyCentrality() {
+        CentralityImpl legacy = TestUtil.getNodeCentrality();
+        ArrayCentralityImpl c = ArrayCentralityImpl.adapt(legacy);
+
+        assertTrue(c instanceof LegacyCentralityAdapter);
+        assertEquals(legacy.getName(), c.getName());
+        assertEquals(legacy.getVersion(), c.getVersion());
+        assertEquals(legacy.getType(), c.getType());
+        assertEquals(legacy.getCentrality(), c.getCentrality());
+        assertEquals(legacy.hashCode(), c.hashCode());
+    }
+
+    /**
+     * Tests that the values of a map based centrality are copied into
+     * the array in node index order.
+     */
+    @Test
+    public void testLegacyWeights() {
+        Graph g = TestUtil.getGraphMock();
+        CompactGraph cg = g.getCompactGraph();
+        double[] w = ArrayCentralityImpl.adapt(
+                TestUtil.getNodeCentrality()).getWeights(cg);
+
+        assertEquals(cg.getNodeCount(), w.length);
+        for (int v = 0; v < w.length; v++) {
+            assertEquals(1.0 / cg.getNode(v).getId(), w[v], 0.0);
+        }
+    }
+
+    /**
+     * Tests that nodes missing in the map of a centrality are marked.
+     */
+    @Test
+    public void testLegacyMissingWeights() {
+        CompactGraph cg = TestUtil.getGraphMock().getCompactGraph();
+
+        double[] empty = ArrayCentralityImpl.adapt(
+                TestUtil.getEmptyCentrality()).getWeights(cg);
+        double[] nothing = ArrayCentralityImpl.adapt(
+                TestUtil.getNullCentrality()).getWeights(cg);
+
+        for (int v = 0; v < cg.getNodeCount(); v++) {
+            assertTrue(ArrayCentralityImpl.isMissing(empty[v]));
+            assertTrue(ArrayCentralityImpl.isMissing(nothing[v]));
+        }
+    }
+
+    /**
+     * Tests that NaN values of a centrality are kept apart from missing
+     * values.
+     */
+    @Test
+    public void testLegacyNaNWeights() {
+        CompactGraph cg = TestUtil.getGraphMock().getCompactGraph();
+        double[] w = ArrayCentralityImpl.adapt(
+                TestUtil.getNaNCentrality()).getWeights(cg);
+
+        int v = cg.indexOfId(1);
+        assertTrue(Double.isNaN(w[v]));
+        assertFalse(ArrayCentralityImpl.isMissing(w[v]));
+        assertFalse(ArrayCentralityImpl.isMissing(Double.NaN));
+        assertFalse(ArrayCentralityImpl.isMissing(0.0 / 0.0));
+    }
+
+    /**
+     * Tests that the map of an array based centrality matches the array.
+     */
+    @Test
+    public void testWeightMap() {
+        Graph g = TestUtil.getGraphMock();
+        CompactGraph cg = g.getCompactGraph();
+        ArrayCentralityImpl c = new OutdegreeCentrality();
+
+        double[] w = c.getWeights(cg);
+        HashMap<? extends Annotable, Double> map
+            = ((CentralityImpl) c).getWeight(g);
+
+        assertEquals(cg.getNodeCount(), map.size());
+        for (Node n : g.getNodeList().values()) {
+            assertEquals(w[cg.indexOf(n)], map.get(n), 0.0);
+        }
+    }
+
+    /**
+     * Tests that the graph may not be null.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        new OutdegreeCentrality().getWeights(null);
+    }
+}
@@ -172,4 +172,29 @@ public class BetweennessCentralityTest {
         assertEquals(0.0, result.get(node4), DOUBLE_DELTA);
     }
 
+    /**
+     * Tests a directed cycle that is large enough to be split among
+     * several workers. On a cycle every node lies on the shortest paths of
+     * (n - 1)(n - 2) / 2 pairs.
+     */
+    @Test
+    public void testLargeCycle() {
+        final int n = 500;
+        BetweennessCentrality bc = new BetweennessCentrality();
+        Graph graph = TestUtil.getEmtpyGraph();
+        Node[] nodes = new Node[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = new Node(i, "", 0);
+        }
+        for (int i = 0; i < n; i++) {
+            graph.addEdge(new Edge(nodes[i], nodes[(i + 1) % n]));
+        }
+
+        HashMap<Node, Double> result = bc.getWeight(graph);
+
+        for (Node node : nodes) {
+            assertEquals((n - 1) * (n - 2) / 2.0, result.get(node),
+                    DOUBLE_DELTA);
+        }
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import edu.kit.ipd.sonar.server.Annotable;
+import edu.kit.ipd.sonar.server.CompactGraph;
+import edu.kit.ipd.sonar.server.Edge;
+import edu.kit.ipd.sonar.server.Graph;
+import edu.kit.ipd.sonar.server.Node;
+import edu.kit.ipd.sonar.server.TestUtil;
+
+/**
+ * Tests the DegreeEngine - class.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class DegreeEngineTest {
+
+    /**
+     * Tests that a null graph is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        DegreeEngine.of(null);
+    }
+
+    /**
+     * Tests the degrees of an empty graph.
+     */
+    @Test
+    public void testEmptyGraph() {
+        DegreeEngine d = DegreeEngine.of(
+                TestUtil.getEmtpyGraph().getCompactGraph());
+
+        assertEquals(0, d.getInDegrees().length);
+        assertTrue(d.toMap(d.getOutDegrees()).isEmpty());
+    }
+
+    /**
+     * Tests all four degrees of a small graph with original weights.
+     */
+    @Test
+    public void testWeightedGraph() {
+        Graph g = TestUtil.getOriginalWeightedGraph();
+        Node n1 = g.getNodeList().get(1);
+        Node n2 = g.getNodeList().get(2);
+        Node n3 = g.getNodeList().get(3);
+        Node n4 = new Node(4, "", 0);
+        g.addEdge(new Edge(n1, n3));
+        g.addEdge(new Edge(n4, n3));
+
+        DegreeEngine d = DegreeEngine.of(g.getCompactGraph());
+
+        HashMap<Annotable, Double> in = d.toMap(d.getInDegrees());
+        assertEquals(4, in.size());
+        assertEquals(new Double(0.0), in.get(n1));
+        assertEquals(new Double(1.0), in.get(n2));
+        assertEquals(new Double(3.0), in.get(n3));
+        assertEquals(new Double(0.0), in.get(n4));
+
+        HashMap<Annotable, Double> out = d.toMap(d.getOutDegrees());
+        assertEquals(new Double(2.0), out.get(n1));
+        assertEquals(new Double(1.0), out.get(n2));
+        assertEquals(new Double(0.0), out.get(n3));
+        assertEquals(new Double(1.0), out.get(n4));
+
+        /* the added edges have no original weight */
+        HashMap<Annotable, Double> win = d.toMap(d.getWeightedInDegrees());
+        assertEquals(new Double(0.0), win.get(n1));
+        assertEquals(new Double(2.0), win.get(n2));
+        assertEquals(new Double(2.0), win.get(n3));
+
+        HashMap<Annotable, Double> wout
+            = d.toMap(d.getWeightedOutDegrees());
+        assertEquals(new Double(2.0), wout.get(n1));
+        assertEquals(new Double(2.0), wout.get(n2));
+        assertEquals(new Double(0.0), wout.get(n3));
+        assertEquals(new Double(0.0), wout.get(n4));
+    }
+
+    /**
+     * Tests that the degrees of a graph state are computed only once and
+     * recomputed after the graph changed.
+     */
+    @Test
+    public void testShared() {
+        Graph g = TestUtil.getOriginalWeightedGraph();
+        CompactGraph cg = g.getCompactGraph();
+        DegreeEngine d = DegreeEngine.of(cg);
+
+        assertSame(d, DegreeEngine.of(cg));
+
+        g.addEdge(new Edge(g.getNodeList().get(3), g.getNodeList().get(1)));
+        DegreeEngine changed = DegreeEngine.of(g.getCompactGraph());
+
+        assertNotSame(d, changed);
+        assertEquals(1.0, changed.getInDegrees()[0], 0.0);
+    }
+}
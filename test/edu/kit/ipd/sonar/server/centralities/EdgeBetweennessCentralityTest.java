@@ -173,4 +173,30 @@ public class EdgeBetweennessCentralityTest {
         assertEquals(3.0, result.get(edge6), DOUBLE_DELTA);
     }
 
+    /**
+     * Tests a directed cycle that is large enough to be split among
+     * several workers. On a cycle every edge lies on the shortest paths of
+     * n (n - 1) / 2 pairs.
+     */
+    @Test
+    public void testLargeCycle() {
+        final int n = 500;
+        EdgeBetweennessCentrality ebc = new EdgeBetweennessCentrality();
+        Graph graph = TestUtil.getEmtpyGraph();
+        Node[] nodes = new Node[n];
+        Edge[] edges = new Edge[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = new Node(i, "", 0);
+        }
+        for (int i = 0; i < n; i++) {
+            edges[i] = new Edge(nodes[i], nodes[(i + 1) % n]);
+            graph.addEdge(edges[i]);
+        }
+
+        HashMap<Edge, Double> result = ebc.getWeight(graph);
+
+        for (Edge edge : edges) {
+            assertEquals(n * (n - 1) / 2.0, result.get(edge), DOUBLE_DELTA);
+        }
+    }
 }
@@ -21,6 +21,7 @@ import org.junit.Test;
 import static org.junit.Assert.*;
 
 
+import edu.kit.ipd.sonar.server.CompactGraph;
 import edu.kit.ipd.sonar.server.Edge;
 import edu.kit.ipd.sonar.server.Graph;
 import edu.kit.ipd.sonar.server.TestUtil;
@@ -86,6 +87,25 @@ public class EdgeWeightCentralityTest {
         }
     }
 
+    /**
+     * Tests that each of several edges between the same nodes gets its own
+     * value when the values are looked up by edge.
+     */
+    @Test
+    public void testParallelEdges() {
+
+        EdgeWeightCentrality ewc = new EdgeWeightCentrality();
+        Graph graph = TestUtil.getMultiEdgeGraph();
+        CompactGraph cg = graph.getCompactGraph();
+
+        double[] weights = ewc.getWeights(cg);
+
+        for (Edge e : graph.getEdgeList()) {
+            assertEquals(e.getOriginalWeight(), weights[cg.indexOf(e)],
+                    DOUBLE_DELTA);
+        }
+    }
+
     /**
      * Tests if there is an IllegalArgumentException if the graph passed as
      * an Argument was null.
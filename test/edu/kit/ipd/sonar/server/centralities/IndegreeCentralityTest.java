@@ -44,7 +44,7 @@ public class IndegreeCentralityTest {
         IndegreeCentrality ic = new IndegreeCentrality();
         Graph graph = TestUtil.getEmtpyGraph();
 
-        HashMap<Annotable, Double> result = ic.getWeight(graph);
+        HashMap<? extends Annotable, Double> result = ic.getWeight(graph);
 
         assertTrue(result.isEmpty());
     }
@@ -62,7 +62,7 @@ public class IndegreeCentralityTest {
         Node node2 = new Node(1, "", 0);
         graph.addEdge(new Edge(node1, node2));
 
-        HashMap<Annotable, Double> result = ic.getWeight(graph);
+        HashMap<? extends Annotable, Double> result = ic.getWeight(graph);
 
         assertEquals(new Double(0.0), result.get(node1));
         assertEquals(new Double(1.0), result.get(node2));
@@ -87,7 +87,7 @@ public class IndegreeCentralityTest {
         graph.addEdge(new Edge(node2, node3));
         graph.addEdge(new Edge(node3, node1));
 
-        HashMap<Annotable, Double> result = ic.getWeight(graph);
+        HashMap<? extends Annotable, Double> result = ic.getWeight(graph);
 
         assertEquals(new Double(1.0), result.get(node1));
         assertEquals(new Double(1.0), result.get(node2));
@@ -111,7 +111,7 @@ public class IndegreeCentralityTest {
         graph.addNode(node2);
         graph.addNode(node3);
 
-        HashMap<Annotable, Double> result = ic.getWeight(graph);
+        HashMap<? extends Annotable, Double> result = ic.getWeight(graph);
 
         assertEquals(new Double(0.0), result.get(node1));
         assertEquals(new Double(0.0), result.get(node2));
@@ -90,7 +90,8 @@ public class PageRankCentralityTest {
     /**
      * Tests if the PageRank-centrality calculates its values
      * correctly for an edge-less-graph.
-     * The values should be (1-d).
+     * All nodes are dangling and share their rank evenly, so the values
+     * should be 1.
      */
     @Test
     public void testGraphWithoutEdges() {
@@ -106,9 +107,36 @@ public class PageRankCentralityTest {
 
         HashMap<Node, Double> result = prc.getWeight(graph);
 
-        assertEquals(0.15, result.get(node1), DOUBLE_DELTA);
-        assertEquals(0.15, result.get(node2), DOUBLE_DELTA);
-        assertEquals(0.15, result.get(node3), DOUBLE_DELTA);
+        assertEquals(1.0, result.get(node1), DOUBLE_DELTA);
+        assertEquals(1.0, result.get(node2), DOUBLE_DELTA);
+        assertEquals(1.0, result.get(node3), DOUBLE_DELTA);
+    }
+
+    /**
+     * Tests if the rank of dangling nodes is not lost, so the ranks
+     * sum up to the number of nodes.
+     */
+    @Test
+    public void testDanglingNodes() {
+
+        PageRankCentrality prc = new PageRankCentrality();
+        Graph graph = TestUtil.getEmtpyGraph();
+        Node nodeA = new Node(1, "", 0);
+        Node nodeB = new Node(2, "", 0);
+        Node nodeC = new Node(3, "", 0);
+        graph.addEdge(new Edge(nodeA, nodeB));
+        graph.addEdge(new Edge(nodeA, nodeC));
+        graph.addEdge(new Edge(nodeB, nodeC));
+
+        HashMap<Node, Double> result = prc.getWeight(graph);
+
+        double sum = 0.0;
+        for (double value : result.values()) {
+            sum += value;
+        }
+        assertEquals(3.0, sum, DOUBLE_DELTA);
+        assertTrue(result.get(nodeC) > result.get(nodeB));
+        assertTrue(result.get(nodeB) > result.get(nodeA));
     }
 
 }
@@ -0,0 +1,114 @@
+/*
+ * This file is part of Sonar.
+ *
+ * Sonar is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 2 of the License
+ *
+ * Sonar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Sonar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.ipd.sonar.server.centralities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the shared pool for parallel calculations.
+ *
+ * @author David Soria Parra <david.parra@student.kit.edu>
+ */
+public class ParallelTest {
+
+    /**
+     * Returns tasks that each split into the given number of inner tasks
+     * and sum up their results.
+     *
+     * @param outer The number of outer tasks
+     * @param inner The number of inner tasks per outer task
+     * @return The tasks
+     */
+    private static List<Callable<Integer>> nested(final int outer,
+            final int inner) {
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < outer; i++) {
+            tasks.add(new Callable<Integer>() {
+                public Integer call() {
+                    List<Callable<Integer>> parts
+                        = new ArrayList<Callable<Integer>>();
+                    for (int j = 0; j < inner; j++) {
+                        final int value = j;
+                        parts.add(new Callable<Integer>() {
+                            public Integer call() {
+                                return value;
+                            }
+                        });
+                    }
+                    int sum = 0;
+                    for (Integer part : Parallel.invokeAll(parts)) {
+                        sum += part;
+                    }
+                    return sum;
+                }
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * Tests that tasks submitting tasks to the same pool finish, even with
+     * more tasks than threads.
+     */
+    @Test
+    public void testNested() throws Exception {
+        int outer = 4 * Parallel.getThreadCount();
+        List<Integer> results = Parallel.execute(nested(outer, 10));
+
+        assertEquals(outer, results.size());
+        for (Integer r : results) {
+            assertEquals(45, r.intValue());
+        }
+    }
+
+    /**
+     * Tests that the failure of a task is passed on as its cause.
+     */
+    @Test
+    public void testFailure() throws InterruptedException {
+        final IllegalStateException failure = new IllegalStateException();
+        List<Callable<Integer>> tasks = nested(2, 1);
+        tasks.add(new Callable<Integer>() {
+            public Integer call() {
+                throw failure;
+            }
+        });
+
+        try {
+            Parallel.execute(tasks);
+            fail("failure not passed on");
+        } catch (ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    /**
+     * Tests the number of tasks a job is split into.
+     */
+    @Test
+    public void testTaskCount() {
+        assertEquals(1, Parallel.getTaskCount(0, 10));
+        assertEquals(1, Parallel.getTaskCount(5, 10));
+        assertEquals(Parallel.getThreadCount(),
+                Parallel.getTaskCount(1000000, 1));
+    }
+}